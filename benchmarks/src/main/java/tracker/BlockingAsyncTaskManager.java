@@ -0,0 +1,198 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+final class BlockingAsyncTaskManager implements TaskManager, AutoCloseable {
+    private final AsyncTaskManager delegate;
+
+    BlockingAsyncTaskManager(AsyncTaskManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        return delegate.createTask(title, description, status).join();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return delegate.getTask(id).join();
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return delegate.getAllTasks().join();
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return Collections.unmodifiableList(getAllTasks());
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return delegate.getTasksByStatus(status).join();
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getTasksByStatus(status, cursor, limit).join();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        delegate.updateTask(task).join();
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        delegate.deleteTask(id).join();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        delegate.deleteAllTasks().join();
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        return delegate.createEpic(title, description).join();
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return delegate.getEpic(id).join();
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return delegate.getAllEpics().join();
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return Collections.unmodifiableList(getAllEpics());
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return delegate.getEpicsByStatus(status).join();
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getEpicsByStatus(status, cursor, limit).join();
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        delegate.updateEpic(epic).join();
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        delegate.deleteEpic(id).join();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        delegate.deleteAllEpics().join();
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        return delegate.createSubtask(title, description, status, epicId).join();
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return delegate.getSubtask(id).join();
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return delegate.getAllSubtasks().join();
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return Collections.unmodifiableList(getAllSubtasks());
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return delegate.getSubtasksByStatus(status).join();
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getSubtasksByStatus(status, cursor, limit).join();
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        delegate.updateSubtask(subtask).join();
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        delegate.deleteSubtask(id).join();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        delegate.deleteAllSubtasks().join();
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return delegate.getEpicSubtasks(epicId).join();
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return Collections.unmodifiableList(getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        return delegate.getEpicProgress(epicId).join();
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        return delegate.getStatusCounts(type).join();
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return delegate.applyBatch(batch).join();
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        delegate.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        delegate.unsubscribe(listener);
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        return delegate.getHistory().join();
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableList(getHistory());
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
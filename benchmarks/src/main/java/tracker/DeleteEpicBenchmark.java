@@ -0,0 +1,58 @@
+package tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DeleteEpicBenchmark {
+
+    @Param({"IN_MEMORY", "CONCURRENT", "COPY_ON_WRITE", "FILE_BACKED", "SNAPSHOTTING", "MAPPED", "INSTRUMENTED",
+            "SHARDED", "COLUMNAR", "ASYNC"})
+    public ManagerKind implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Path directory;
+    private TaskManager taskManager;
+    private int epicId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        directory = ManagerKind.createDirectory();
+        taskManager = implementation.create(directory);
+        epicId = taskManager.createEpic("Эпик", "Описание").getId();
+        for (int i = 0; i < size; i++) {
+            taskManager.createSubtask("Подзадача " + i, "Описание", TaskStatus.NEW, epicId);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        ManagerKind.dispose(taskManager, directory);
+    }
+
+    @Benchmark
+    public void deleteEpicWithSubtasks() {
+        taskManager.deleteEpic(epicId);
+    }
+}
@@ -0,0 +1,24 @@
+package tracker;
+
+public enum HistoryKind {
+    IN_MEMORY {
+        @Override
+        HistoryManager create(int capacity) {
+            return Managers.getDefaultHistory(capacity);
+        }
+    },
+    CONCURRENT {
+        @Override
+        HistoryManager create(int capacity) {
+            return Managers.getConcurrentHistory(capacity);
+        }
+    },
+    INSTRUMENTED {
+        @Override
+        HistoryManager create(int capacity) {
+            return Managers.getInstrumentedHistory(capacity);
+        }
+    };
+
+    abstract HistoryManager create(int capacity);
+}
@@ -0,0 +1,59 @@
+package tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark {
+
+    @Param({"IN_MEMORY", "CONCURRENT", "INSTRUMENTED"})
+    public HistoryKind implementation;
+
+    @Param({"10", "1000", "100000"})
+    public int capacity;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        historyManager = implementation.create(capacity);
+        tasks = new Task[capacity * 2];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", i + 1, TaskStatus.NEW);
+        }
+        for (int i = 0; i < capacity; i++) {
+            historyManager.add(tasks[i]);
+        }
+        cursor = capacity;
+    }
+
+    @Benchmark
+    public void addEvictingOldest() {
+        historyManager.add(tasks[cursor]);
+        cursor = cursor + 1 == tasks.length ? 0 : cursor + 1;
+    }
+
+    @Benchmark
+    public void addMovingOldest() {
+        historyManager.add(tasks[cursor - capacity]);
+        cursor = cursor + 1 == capacity * 2 ? capacity : cursor + 1;
+    }
+}
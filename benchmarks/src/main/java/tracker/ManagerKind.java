@@ -0,0 +1,92 @@
+package tracker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public enum ManagerKind {
+    IN_MEMORY {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getDefault();
+        }
+    },
+    CONCURRENT {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getConcurrent();
+        }
+    },
+    COPY_ON_WRITE {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getCopyOnWrite();
+        }
+    },
+    FILE_BACKED {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getFileBacked(directory.resolve("tasks.log"));
+        }
+    },
+    SNAPSHOTTING {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getSnapshotting(directory.resolve("tasks.snapshot"));
+        }
+    },
+    MAPPED {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getMapped(directory.resolve("store"));
+        }
+    },
+    INSTRUMENTED {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getInstrumented();
+        }
+    },
+    SHARDED {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getSharded();
+        }
+    },
+    COLUMNAR {
+        @Override
+        TaskManager create(Path directory) {
+            return Managers.getColumnar();
+        }
+    },
+    ASYNC {
+        @Override
+        TaskManager create(Path directory) {
+            return new BlockingAsyncTaskManager(Managers.getAsync());
+        }
+    };
+
+    abstract TaskManager create(Path directory);
+
+    static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("java-kanban-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void dispose(TaskManager manager, Path directory) throws Exception {
+        if (manager instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
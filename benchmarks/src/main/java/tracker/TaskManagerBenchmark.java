@@ -0,0 +1,81 @@
+package tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+    @Param({"IN_MEMORY", "CONCURRENT", "COPY_ON_WRITE", "FILE_BACKED", "SNAPSHOTTING", "MAPPED", "INSTRUMENTED",
+            "SHARDED", "COLUMNAR", "ASYNC"})
+    public ManagerKind implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Path directory;
+    private TaskManager taskManager;
+    private Epic largeEpic;
+    private int[] subtaskIds;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        directory = ManagerKind.createDirectory();
+        taskManager = implementation.create(directory);
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW);
+        }
+        largeEpic = taskManager.createEpic("Эпик", "Описание");
+        subtaskIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            subtaskIds[i] = taskManager.createSubtask("Подзадача " + i, "Описание", TaskStatus.NEW,
+                    largeEpic.getId()).getId();
+        }
+        cursor = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        ManagerKind.dispose(taskManager, directory);
+    }
+
+    @Benchmark
+    public Subtask createSubtaskInLargeEpic() {
+        return taskManager.createSubtask("Подзадача", "Описание", TaskStatus.IN_PROGRESS, largeEpic.getId());
+    }
+
+    @Benchmark
+    public void updateEpicStatusChurn() {
+        int index = cursor;
+        cursor = index + 1 == subtaskIds.length ? 0 : index + 1;
+        TaskStatus status = (index & 1) == 0 ? TaskStatus.DONE : TaskStatus.NEW;
+        taskManager.updateSubtask(new Subtask("Подзадача", "Описание", subtaskIds[index], status,
+                largeEpic.getId()));
+    }
+
+    @Benchmark
+    public ArrayList<Task> getAllTasks() {
+        return taskManager.getAllTasks();
+    }
+}
@@ -0,0 +1,105 @@
+package tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalReplayBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int operations;
+
+    private Path directory;
+    private Path logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        directory = ManagerKind.createDirectory();
+        logFile = directory.resolve("tasks.log");
+        writeOperations();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ManagerKind.dispose(null, directory);
+    }
+
+    @Benchmark
+    public int replay() {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new InMemoryTaskManager(), logFile,
+                Duration.ofMillis(10))) {
+            return manager.getAllTasksView().size() + manager.getAllEpicsView().size()
+                    + manager.getAllSubtasksView().size();
+        }
+    }
+
+    private void writeOperations() {
+        Random random = new Random(42);
+        TaskStatus[] statuses = TaskStatus.values();
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new InMemoryTaskManager(), logFile,
+                Duration.ofMillis(10))) {
+            for (int i = 0; i < operations; i++) {
+                int operation = random.nextInt(100);
+                if (operation < 5 || epics.isEmpty()) {
+                    epics.add(manager.createEpic("Epic " + i, "Epic description " + i));
+                } else if (operation < 35) {
+                    Epic epic = epics.get(random.nextInt(epics.size()));
+                    subtasks.add(manager.createSubtask("Subtask " + i, "Subtask description " + i,
+                            statuses[random.nextInt(statuses.length)], epic.getId()));
+                } else if (operation < 50) {
+                    tasks.add(manager.createTask("Task " + i, "Task description " + i,
+                            statuses[random.nextInt(statuses.length)]));
+                } else if (operation < 75 && !subtasks.isEmpty()) {
+                    Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                    subtask.setStatus(statuses[random.nextInt(statuses.length)]);
+                    manager.updateSubtask(subtask);
+                } else if (operation < 90 && !tasks.isEmpty()) {
+                    Task task = tasks.get(random.nextInt(tasks.size()));
+                    task.setTitle("Task " + i);
+                    manager.updateTask(task);
+                } else if (operation < 97 && !subtasks.isEmpty()) {
+                    int index = random.nextInt(subtasks.size());
+                    Subtask subtask = subtasks.get(index);
+                    subtasks.set(index, subtasks.get(subtasks.size() - 1));
+                    subtasks.remove(subtasks.size() - 1);
+                    manager.deleteSubtask(subtask.getId());
+                } else if (!tasks.isEmpty()) {
+                    int index = random.nextInt(tasks.size());
+                    Task task = tasks.get(index);
+                    tasks.set(index, tasks.get(tasks.size() - 1));
+                    tasks.remove(tasks.size() - 1);
+                    manager.deleteTask(task.getId());
+                } else {
+                    tasks.add(manager.createTask("Task " + i, "Task description " + i, TaskStatus.NEW));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+public class AsyncTaskManager implements AutoCloseable {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private final TaskManager delegate;
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    public AsyncTaskManager() {
+        this(new ConcurrentTaskManager(), DEFAULT_MAX_IN_FLIGHT, true);
+    }
+
+    public AsyncTaskManager(TaskManager delegate, int maxInFlight) {
+        this(delegate, maxInFlight, false);
+    }
+
+    public AsyncTaskManager(TaskManager delegate, int maxInFlight, boolean concurrentReads) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.writer = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("task-manager-writer").daemon().factory());
+        this.readers = concurrentReads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-manager-reader-", 0).factory())
+                : writer;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public CompletableFuture<Task> createTask(String title, String description, TaskStatus status) {
+        return write(() -> delegate.createTask(title, description, status));
+    }
+
+    public CompletableFuture<Task> getTask(int id) {
+        return read(() -> delegate.getTask(id));
+    }
+
+    public CompletableFuture<ArrayList<Task>> getAllTasks() {
+        return read(delegate::getAllTasks);
+    }
+
+    public CompletableFuture<ArrayList<Task>> getTasksByStatus(TaskStatus status) {
+        return read(() -> delegate.getTasksByStatus(status));
+    }
+
+    public CompletableFuture<TaskPage<Task>> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return read(() -> delegate.getTasksByStatus(status, cursor, limit));
+    }
+
+    public CompletableFuture<Void> updateTask(Task task) {
+        return write(() -> delegate.updateTask(task));
+    }
+
+    public CompletableFuture<Void> deleteTask(int id) {
+        return write(() -> delegate.deleteTask(id));
+    }
+
+    public CompletableFuture<Void> deleteAllTasks() {
+        return write(delegate::deleteAllTasks);
+    }
+
+    public CompletableFuture<Epic> createEpic(String title, String description) {
+        return write(() -> delegate.createEpic(title, description));
+    }
+
+    public CompletableFuture<Epic> getEpic(int id) {
+        return read(() -> delegate.getEpic(id));
+    }
+
+    public CompletableFuture<ArrayList<Epic>> getAllEpics() {
+        return read(delegate::getAllEpics);
+    }
+
+    public CompletableFuture<ArrayList<Epic>> getEpicsByStatus(TaskStatus status) {
+        return read(() -> delegate.getEpicsByStatus(status));
+    }
+
+    public CompletableFuture<TaskPage<Epic>> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return read(() -> delegate.getEpicsByStatus(status, cursor, limit));
+    }
+
+    public CompletableFuture<Void> updateEpic(Epic epic) {
+        return write(() -> delegate.updateEpic(epic));
+    }
+
+    public CompletableFuture<Void> deleteEpic(int id) {
+        return write(() -> delegate.deleteEpic(id));
+    }
+
+    public CompletableFuture<Void> deleteAllEpics() {
+        return write(delegate::deleteAllEpics);
+    }
+
+    public CompletableFuture<Subtask> createSubtask(String title, String description, TaskStatus status, int epicId) {
+        return write(() -> delegate.createSubtask(title, description, status, epicId));
+    }
+
+    public CompletableFuture<Subtask> getSubtask(int id) {
+        return read(() -> delegate.getSubtask(id));
+    }
+
+    public CompletableFuture<ArrayList<Subtask>> getAllSubtasks() {
+        return read(delegate::getAllSubtasks);
+    }
+
+    public CompletableFuture<ArrayList<Subtask>> getSubtasksByStatus(TaskStatus status) {
+        return read(() -> delegate.getSubtasksByStatus(status));
+    }
+
+    public CompletableFuture<TaskPage<Subtask>> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return read(() -> delegate.getSubtasksByStatus(status, cursor, limit));
+    }
+
+    public CompletableFuture<Void> updateSubtask(Subtask subtask) {
+        return write(() -> delegate.updateSubtask(subtask));
+    }
+
+    public CompletableFuture<Void> deleteSubtask(int id) {
+        return write(() -> delegate.deleteSubtask(id));
+    }
+
+    public CompletableFuture<Void> deleteAllSubtasks() {
+        return write(delegate::deleteAllSubtasks);
+    }
+
+    public CompletableFuture<ArrayList<Subtask>> getEpicSubtasks(int epicId) {
+        return read(() -> delegate.getEpicSubtasks(epicId));
+    }
+
+    public CompletableFuture<StatusCounts> getEpicProgress(int epicId) {
+        return read(() -> delegate.getEpicProgress(epicId));
+    }
+
+    public CompletableFuture<StatusCounts> getStatusCounts(TaskType type) {
+        return read(() -> delegate.getStatusCounts(type));
+    }
+
+    public CompletableFuture<int[]> applyBatch(TaskBatch batch) {
+        return write(() -> delegate.applyBatch(batch));
+    }
+
+    public CompletableFuture<ArrayList<Task>> getHistory() {
+        return read(delegate::getHistory);
+    }
+
+    public void subscribe(TaskEventListener listener) {
+        delegate.subscribe(listener);
+    }
+
+    public void unsubscribe(TaskEventListener listener) {
+        delegate.unsubscribe(listener);
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        if (readers != writer) {
+            readers.close();
+        }
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> operation) {
+        return submit(readers, operation);
+    }
+
+    private <T> CompletableFuture<T> write(Supplier<T> operation) {
+        return submit(writer, operation);
+    }
+
+    private CompletableFuture<Void> write(Runnable operation) {
+        return submit(writer, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> operation) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many operations in flight: " + maxInFlight));
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = operation.get();
+                } catch (Throwable e) {
+                    inFlight.release();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                inFlight.release();
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,108 @@
+package tracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class BlockIdAllocator implements IdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int PERSIST_AHEAD_BLOCKS = 64;
+
+    private final int blockSize;
+    private final Path highWaterFile;
+    private long next;
+    private long end;
+    private long persisted;
+
+    public BlockIdAllocator() {
+        this(null, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockIdAllocator(Path highWaterFile, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.highWaterFile = highWaterFile;
+        long start = highWaterFile == null ? 1 : Math.max(1, readHighWaterMark(highWaterFile));
+        this.next = start;
+        this.end = start;
+        this.persisted = start;
+    }
+
+    @Override
+    public synchronized int nextId() {
+        if (next == end) {
+            lease();
+        }
+        return (int) next++;
+    }
+
+    @Override
+    public synchronized int getHighWaterMark() {
+        return (int) Math.min(next, MAX_ID);
+    }
+
+    @Override
+    public synchronized void advanceTo(int id) {
+        if (id <= next) {
+            return;
+        }
+        next = id;
+        if (id > end) {
+            end = id;
+        }
+    }
+
+    private void lease() {
+        long start = end;
+        if (start > MAX_ID) {
+            throw new IllegalStateException("Id space exhausted after " + MAX_ID);
+        }
+        long limit = Math.min(start + blockSize, (long) MAX_ID + 1);
+        if (highWaterFile != null && limit > persisted) {
+            persistThrough(limit);
+        }
+        next = start;
+        end = limit;
+    }
+
+    private void persistThrough(long limit) {
+        long mark = Math.min(limit + (long) blockSize * PERSIST_AHEAD_BLOCKS, (long) MAX_ID + 1);
+        Path temporaryFile = highWaterFile.resolveSibling(highWaterFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, mark));
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to write id high-water mark " + highWaterFile, e);
+        }
+        try {
+            Files.move(temporaryFile, highWaterFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to write id high-water mark " + highWaterFile, e);
+        }
+        persisted = mark;
+    }
+
+    private static long readHighWaterMark(Path highWaterFile) {
+        if (!Files.exists(highWaterFile)) {
+            return 1;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(highWaterFile);
+            if (bytes.length != Long.BYTES) {
+                throw new ManagerLoadException("File " + highWaterFile + " is not an id high-water mark");
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IOException e) {
+            throw new ManagerLoadException("Failed to read id high-water mark " + highWaterFile, e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package tracker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+final class ChangeFeed {
+    static final int DEFAULT_MAX_TOMBSTONES = 1 << 16;
+
+    private final TreeMap<Long, Integer> log;
+    private final ArrayDeque<Long> tombstones;
+    private final int maxTombstones;
+    private long version;
+    private long oldestRetainedVersion;
+
+    ChangeFeed() {
+        this(DEFAULT_MAX_TOMBSTONES);
+    }
+
+    ChangeFeed(int maxTombstones) {
+        if (maxTombstones <= 0) {
+            throw new IllegalArgumentException("maxTombstones must be positive: " + maxTombstones);
+        }
+        this.log = new TreeMap<>();
+        this.tombstones = new ArrayDeque<>();
+        this.maxTombstones = maxTombstones;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    long getOldestRetainedVersion() {
+        return oldestRetainedVersion;
+    }
+
+    boolean covers(long version) {
+        checkVersion(version);
+        return version >= oldestRetainedVersion;
+    }
+
+    void recordChange(Task previous, Task current) {
+        if (previous != null) {
+            log.remove(previous.getVersion());
+        }
+        current.setVersion(++version);
+        log.put(version, current.getId());
+    }
+
+    void recordDeletion(Task task) {
+        log.remove(task.getVersion());
+        task.setVersion(++version);
+        log.put(version, task.getId());
+        tombstones.addLast(version);
+        if (tombstones.size() > maxTombstones) {
+            long expired = tombstones.pollFirst();
+            log.remove(expired);
+            oldestRetainedVersion = expired;
+        }
+    }
+
+    TaskChanges since(long version, IntFunction<Task> lookup) {
+        if (!covers(version)) {
+            throw new IllegalArgumentException("Version " + version + " predates the oldest retained version "
+                    + oldestRetainedVersion);
+        }
+        ArrayList<Task> changedTasks = new ArrayList<>();
+        ArrayList<Epic> changedEpics = new ArrayList<>();
+        ArrayList<Subtask> changedSubtasks = new ArrayList<>();
+        IntSet deletedIds = new IntSet();
+        for (int id : log.tailMap(version, false).values()) {
+            Task task = lookup.apply(id);
+            if (task == null) {
+                deletedIds.add(id);
+            } else if (task.getType() == TaskType.EPIC) {
+                changedEpics.add((Epic) task);
+            } else if (task.getType() == TaskType.SUBTASK) {
+                changedSubtasks.add((Subtask) task);
+            } else {
+                changedTasks.add(task);
+            }
+        }
+        return new TaskChanges(changedTasks, changedEpics, changedSubtasks, deletedIds.toArray(), this.version);
+    }
+
+    private void checkVersion(long version) {
+        if (version < 0 || version > this.version) {
+            throw new IllegalArgumentException("Unknown version " + version + ", current is " + this.version);
+        }
+    }
+}
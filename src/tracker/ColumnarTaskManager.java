@@ -0,0 +1,710 @@
+package tracker;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class ColumnarTaskManager implements TaskManager {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final byte EMPTY = 0;
+    private static final int NONE = -1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final IntIntMap slots;
+    private final int[] counts;
+    private final int[] statusCounts;
+    private final HistoryManager historyManager;
+    private int[] ids;
+    private byte[] types;
+    private byte[] statuses;
+    private int[] epicIds;
+    private String[] titles;
+    private String[] descriptions;
+    private int[] firstSubtasks;
+    private int[] lastSubtasks;
+    private int[] previousSubtasks;
+    private int[] nextSubtasks;
+    private int[] subtaskStatusCounts;
+    private int used;
+    private int garbage;
+    private int layout;
+    private int nextId;
+    private TaskEventBus events;
+
+    public ColumnarTaskManager() {
+        this(Managers.getDefaultHistory(), DEFAULT_CAPACITY);
+    }
+
+    public ColumnarTaskManager(HistoryManager historyManager, int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        int capacity = Math.max(expectedSize, DEFAULT_CAPACITY);
+        this.slots = new IntIntMap(capacity);
+        this.counts = new int[TYPES.length];
+        this.statusCounts = new int[TYPES.length * STATUSES.length];
+        this.historyManager = historyManager;
+        this.ids = new int[capacity];
+        this.types = new byte[capacity];
+        this.statuses = new byte[capacity];
+        this.epicIds = new int[capacity];
+        this.titles = new String[capacity];
+        this.descriptions = new String[capacity];
+        this.firstSubtasks = new int[capacity];
+        this.lastSubtasks = new int[capacity];
+        this.previousSubtasks = new int[capacity];
+        this.nextSubtasks = new int[capacity];
+        this.subtaskStatusCounts = new int[capacity * STATUSES.length];
+        this.nextId = 1;
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        int slot = allocate(TaskType.TASK, status, title, description);
+        publish(TaskEvent.Kind.CREATED, slot, null);
+        return materialize(slot);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return recordView(slotOf(id, TaskType.TASK));
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return collect(TaskType.TASK, null);
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return new ColumnView<>(TaskType.TASK);
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return collect(TaskType.TASK, status);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(TaskType.TASK, status, cursor, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        int slot = slotOf(task.getId(), TaskType.TASK);
+        if (slot == NONE) {
+            return;
+        }
+        writeFields(slot, task);
+        publish(TaskEvent.Kind.UPDATED, slot, null);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        int slot = slotOf(id, TaskType.TASK);
+        if (slot != NONE) {
+            publish(TaskEvent.Kind.DELETED, slot, null);
+            free(slot);
+            compactIfSparse();
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        freeAll(TaskType.TASK);
+        publishCleared(TaskType.TASK);
+        compactIfSparse();
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        int slot = allocate(TaskType.EPIC, TaskStatus.NEW, title, description);
+        publish(TaskEvent.Kind.CREATED, slot, null);
+        return (Epic) materialize(slot);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return (Epic) recordView(slotOf(id, TaskType.EPIC));
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return collect(TaskType.EPIC, null);
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return new ColumnView<>(TaskType.EPIC);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return collect(TaskType.EPIC, status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return page(TaskType.EPIC, status, cursor, limit);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        int slot = slotOf(epic.getId(), TaskType.EPIC);
+        if (slot == NONE) {
+            return;
+        }
+        titles[slot] = intern(epic.getTitle());
+        descriptions[slot] = intern(epic.getDescription());
+        publish(TaskEvent.Kind.UPDATED, slot, null);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        int slot = slotOf(id, TaskType.EPIC);
+        if (slot == NONE) {
+            return;
+        }
+        int subtask = firstSubtasks[slot];
+        while (subtask != NONE) {
+            int next = nextSubtasks[subtask];
+            publish(TaskEvent.Kind.DELETED, subtask, null);
+            free(subtask);
+            subtask = next;
+        }
+        publish(TaskEvent.Kind.DELETED, slot, null);
+        free(slot);
+        compactIfSparse();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        freeAll(TaskType.SUBTASK);
+        freeAll(TaskType.EPIC);
+        publishCleared(TaskType.SUBTASK);
+        publishCleared(TaskType.EPIC);
+        compactIfSparse();
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        int epic = slotOf(epicId, TaskType.EPIC);
+        if (epic == NONE) {
+            return null;
+        }
+
+        int slot = allocate(TaskType.SUBTASK, status, title, description);
+        int last = lastSubtasks[epic];
+        epicIds[slot] = epicId;
+        previousSubtasks[slot] = last;
+        if (last == NONE) {
+            firstSubtasks[epic] = slot;
+        } else {
+            nextSubtasks[last] = slot;
+        }
+        lastSubtasks[epic] = slot;
+        subtaskStatusCounts[epic * STATUSES.length + status.ordinal()]++;
+        publish(TaskEvent.Kind.CREATED, slot, null);
+        refreshEpicStatus(epic);
+        return (Subtask) materialize(slot);
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return (Subtask) recordView(slotOf(id, TaskType.SUBTASK));
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return collect(TaskType.SUBTASK, null);
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return new ColumnView<>(TaskType.SUBTASK);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return collect(TaskType.SUBTASK, status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(TaskType.SUBTASK, status, cursor, limit);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        int slot = slotOf(subtask.getId(), TaskType.SUBTASK);
+        if (slot == NONE) {
+            return;
+        }
+        int previousStatus = statuses[slot];
+        writeFields(slot, subtask);
+        publish(TaskEvent.Kind.UPDATED, slot, null);
+
+        if (previousStatus != statuses[slot]) {
+            int epic = slotOf(epicIds[slot], TaskType.EPIC);
+            subtaskStatusCounts[epic * STATUSES.length + previousStatus]--;
+            subtaskStatusCounts[epic * STATUSES.length + statuses[slot]]++;
+            refreshEpicStatus(epic);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        int slot = slotOf(id, TaskType.SUBTASK);
+        if (slot == NONE) {
+            return;
+        }
+        int epic = slotOf(epicIds[slot], TaskType.EPIC);
+        int previous = previousSubtasks[slot];
+        int next = nextSubtasks[slot];
+        if (previous == NONE) {
+            firstSubtasks[epic] = next;
+        } else {
+            nextSubtasks[previous] = next;
+        }
+        if (next == NONE) {
+            lastSubtasks[epic] = previous;
+        } else {
+            previousSubtasks[next] = previous;
+        }
+        subtaskStatusCounts[epic * STATUSES.length + statuses[slot]]--;
+        publish(TaskEvent.Kind.DELETED, slot, null);
+        free(slot);
+        refreshEpicStatus(epic);
+        compactIfSparse();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        freeAll(TaskType.SUBTASK);
+        publishCleared(TaskType.SUBTASK);
+
+        byte epicType = typeCode(TaskType.EPIC);
+        for (int slot = 0; slot < used; slot++) {
+            if (types[slot] == epicType) {
+                firstSubtasks[slot] = NONE;
+                lastSubtasks[slot] = NONE;
+                Arrays.fill(subtaskStatusCounts, slot * STATUSES.length, (slot + 1) * STATUSES.length, 0);
+                refreshEpicStatus(slot);
+            }
+        }
+        compactIfSparse();
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return new ArrayList<>(getEpicSubtasksView(epicId));
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        if (slotOf(epicId, TaskType.EPIC) == NONE) {
+            return Collections.emptyList();
+        }
+        return new EpicSubtasksView(epicId);
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        int epic = slotOf(epicId, TaskType.EPIC);
+        if (epic == NONE) {
+            return null;
+        }
+        int base = epic * STATUSES.length;
+        return new StatusCounts(Arrays.copyOfRange(subtaskStatusCounts, base, base + STATUSES.length));
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        int base = type.ordinal() * STATUSES.length;
+        return new StatusCounts(Arrays.copyOfRange(statusCounts, base, base + STATUSES.length));
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return batch.applyTo(this);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        if (events == null) {
+            events = new TaskEventBus();
+        }
+        events.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        if (events != null) {
+            events.unsubscribe(listener);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        List<Task> history = historyManager.getHistory();
+        if (history instanceof ArrayList<Task> snapshot) {
+            return snapshot;
+        }
+        return new ArrayList<>(history);
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableCollection(historyManager.getHistoryView());
+    }
+
+    public int[] countByStatus(TaskType type) {
+        int base = type.ordinal() * STATUSES.length;
+        return Arrays.copyOfRange(statusCounts, base, base + STATUSES.length);
+    }
+
+    private Task recordView(int slot) {
+        if (slot == NONE) {
+            return null;
+        }
+        Task task = materialize(slot);
+        historyManager.add(task);
+        return task;
+    }
+
+    private int allocate(TaskType type, TaskStatus status, String title, String description) {
+        if (used == ids.length) {
+            grow(used * 2);
+        }
+        int slot = used++;
+        int id = nextId++;
+        ids[slot] = id;
+        types[slot] = typeCode(type);
+        statuses[slot] = (byte) status.ordinal();
+        epicIds[slot] = 0;
+        titles[slot] = intern(title);
+        descriptions[slot] = intern(description);
+        firstSubtasks[slot] = NONE;
+        lastSubtasks[slot] = NONE;
+        previousSubtasks[slot] = NONE;
+        nextSubtasks[slot] = NONE;
+        Arrays.fill(subtaskStatusCounts, slot * STATUSES.length, (slot + 1) * STATUSES.length, 0);
+        slots.put(id, slot);
+        counts[type.ordinal()]++;
+        statusCounts[type.ordinal() * STATUSES.length + status.ordinal()]++;
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        firstSubtasks = Arrays.copyOf(firstSubtasks, capacity);
+        lastSubtasks = Arrays.copyOf(lastSubtasks, capacity);
+        previousSubtasks = Arrays.copyOf(previousSubtasks, capacity);
+        nextSubtasks = Arrays.copyOf(nextSubtasks, capacity);
+        subtaskStatusCounts = Arrays.copyOf(subtaskStatusCounts, capacity * STATUSES.length);
+    }
+
+    private void free(int slot) {
+        counts[types[slot] - 1]--;
+        statusCounts[(types[slot] - 1) * STATUSES.length + statuses[slot]]--;
+        types[slot] = EMPTY;
+        titles[slot] = null;
+        descriptions[slot] = null;
+        slots.remove(ids[slot]);
+        historyManager.remove(ids[slot]);
+        garbage++;
+    }
+
+    private void freeAll(TaskType type) {
+        byte code = typeCode(type);
+        for (int slot = 0; slot < used; slot++) {
+            if (types[slot] == code) {
+                types[slot] = EMPTY;
+                titles[slot] = null;
+                descriptions[slot] = null;
+                slots.remove(ids[slot]);
+                garbage++;
+            }
+        }
+        counts[type.ordinal()] = 0;
+        Arrays.fill(statusCounts, type.ordinal() * STATUSES.length, (type.ordinal() + 1) * STATUSES.length, 0);
+        for (Task task : historyManager.getHistory()) {
+            if (task.getType() == type) {
+                historyManager.remove(task.getId());
+            }
+        }
+    }
+
+    private void compactIfSparse() {
+        if (garbage > DEFAULT_CAPACITY && garbage * 2 > used) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] moved = new int[used];
+        int live = 0;
+        for (int slot = 0; slot < used; slot++) {
+            moved[slot] = types[slot] == EMPTY ? NONE : live++;
+        }
+        for (int slot = 0; slot < used; slot++) {
+            int target = moved[slot];
+            if (target == NONE) {
+                continue;
+            }
+            ids[target] = ids[slot];
+            types[target] = types[slot];
+            statuses[target] = statuses[slot];
+            epicIds[target] = epicIds[slot];
+            titles[target] = titles[slot];
+            descriptions[target] = descriptions[slot];
+            firstSubtasks[target] = relink(moved, firstSubtasks[slot]);
+            lastSubtasks[target] = relink(moved, lastSubtasks[slot]);
+            previousSubtasks[target] = relink(moved, previousSubtasks[slot]);
+            nextSubtasks[target] = relink(moved, nextSubtasks[slot]);
+            System.arraycopy(subtaskStatusCounts, slot * STATUSES.length,
+                    subtaskStatusCounts, target * STATUSES.length, STATUSES.length);
+            slots.put(ids[target], target);
+        }
+        Arrays.fill(types, live, used, EMPTY);
+        Arrays.fill(titles, live, used, null);
+        Arrays.fill(descriptions, live, used, null);
+        used = live;
+        garbage = 0;
+        layout++;
+    }
+
+    private void writeFields(int slot, Task task) {
+        titles[slot] = intern(task.getTitle());
+        descriptions[slot] = intern(task.getDescription());
+        int base = (types[slot] - 1) * STATUSES.length;
+        statusCounts[base + statuses[slot]]--;
+        statuses[slot] = (byte) task.getStatus().ordinal();
+        statusCounts[base + statuses[slot]]++;
+    }
+
+    private void refreshEpicStatus(int epic) {
+        int base = epic * STATUSES.length;
+        int total = 0;
+        for (int i = 0; i < STATUSES.length; i++) {
+            total += subtaskStatusCounts[base + i];
+        }
+        TaskStatus status;
+        if (subtaskStatusCounts[base + TaskStatus.NEW.ordinal()] == total) {
+            status = TaskStatus.NEW;
+        } else if (subtaskStatusCounts[base + TaskStatus.DONE.ordinal()] == total) {
+            status = TaskStatus.DONE;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+        TaskStatus previousStatus = STATUSES[statuses[epic]];
+        if (status != previousStatus) {
+            statusCounts[TaskType.EPIC.ordinal() * STATUSES.length + previousStatus.ordinal()]--;
+            statusCounts[TaskType.EPIC.ordinal() * STATUSES.length + status.ordinal()]++;
+            statuses[epic] = (byte) status.ordinal();
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, previousStatus);
+        }
+    }
+
+    private Task materialize(int slot) {
+        int id = ids[slot];
+        TaskStatus status = STATUSES[statuses[slot]];
+        switch (TYPES[types[slot] - 1]) {
+            case EPIC:
+                Epic epic = new Epic(titles[slot], descriptions[slot], id);
+                for (int subtask = firstSubtasks[slot]; subtask != NONE; subtask = nextSubtasks[subtask]) {
+                    epic.addSubtaskId(ids[subtask]);
+                }
+                for (TaskStatus subtaskStatus : STATUSES) {
+                    epic.setSubtaskStatusCount(subtaskStatus,
+                            subtaskStatusCounts[slot * STATUSES.length + subtaskStatus.ordinal()]);
+                }
+                epic.refreshStatus();
+                return epic;
+            case SUBTASK:
+                Subtask subtask = new Subtask(titles[slot], descriptions[slot], id, status, epicIds[slot]);
+                subtask.setCountedStatus(status);
+                return subtask;
+            default:
+                return new Task(titles[slot], descriptions[slot], id, status);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> ArrayList<T> collect(TaskType type, TaskStatus status) {
+        ArrayList<T> result = new ArrayList<>(status == null ? counts[type.ordinal()] : 16);
+        byte code = typeCode(type);
+        for (int slot = 0; slot < used; slot++) {
+            if (types[slot] == code && (status == null || statuses[slot] == status.ordinal())) {
+                result.add((T) materialize(slot));
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> TaskPage<T> page(TaskType type, TaskStatus status, int cursor, int limit) {
+        TaskPage.checkLimit(limit);
+        int from = 0;
+        if (cursor != TaskPage.START) {
+            int slot = slotOf(cursor, type);
+            if (slot == NONE) {
+                throw new IllegalArgumentException("Cursor " + cursor + " is no longer valid");
+            }
+            from = slot + 1;
+        }
+
+        ArrayList<T> items = new ArrayList<>(Math.min(limit, 64));
+        byte code = typeCode(type);
+        for (int slot = from; slot < used; slot++) {
+            if (types[slot] != code || statuses[slot] != status.ordinal()) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new TaskPage<>(items, items.get(limit - 1).getId(), true);
+            }
+            items.add((T) materialize(slot));
+        }
+        return new TaskPage<>(items, items.isEmpty() ? cursor : items.get(items.size() - 1).getId(), false);
+    }
+
+    private void publish(TaskEvent.Kind kind, int slot, TaskStatus previousStatus) {
+        if (events != null) {
+            events.publish(kind, TYPES[types[slot] - 1], ids[slot], STATUSES[statuses[slot]], previousStatus);
+        }
+    }
+
+    private void publishCleared(TaskType type) {
+        if (events != null) {
+            events.publish(TaskEvent.Kind.CLEARED, type, 0, null, null);
+        }
+    }
+
+    private int slotOf(int id, TaskType type) {
+        int slot = slots.get(id, NONE);
+        return slot != NONE && types[slot] == typeCode(type) ? slot : NONE;
+    }
+
+    private static int relink(int[] moved, int slot) {
+        return slot == NONE ? NONE : moved[slot];
+    }
+
+    private static byte typeCode(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    private final class ColumnView<T extends Task> extends AbstractCollection<T> {
+        private final TaskType type;
+
+        private ColumnView(TaskType type) {
+            this.type = type;
+        }
+
+        @Override
+        public int size() {
+            return counts[type.ordinal()];
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                private final byte code = typeCode(type);
+                private final int expectedLayout = layout;
+                private int slot = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < used;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (layout != expectedLayout) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    T task = (T) materialize(slot);
+                    slot = advance(slot + 1);
+                    return task;
+                }
+
+                private int advance(int from) {
+                    int current = from;
+                    while (current < used && types[current] != code) {
+                        current++;
+                    }
+                    return current;
+                }
+            };
+        }
+    }
+
+    private final class EpicSubtasksView extends AbstractCollection<Subtask> {
+        private final int epicId;
+
+        private EpicSubtasksView(int epicId) {
+            this.epicId = epicId;
+        }
+
+        @Override
+        public int size() {
+            int epic = slotOf(epicId, TaskType.EPIC);
+            if (epic == NONE) {
+                return 0;
+            }
+            int size = 0;
+            for (int i = 0; i < STATUSES.length; i++) {
+                size += subtaskStatusCounts[epic * STATUSES.length + i];
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<Subtask> iterator() {
+            int epic = slotOf(epicId, TaskType.EPIC);
+            return new Iterator<>() {
+                private final int expectedLayout = layout;
+                private int slot = epic == NONE ? NONE : firstSubtasks[epic];
+
+                @Override
+                public boolean hasNext() {
+                    return slot != NONE;
+                }
+
+                @Override
+                public Subtask next() {
+                    if (layout != expectedLayout) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Subtask subtask = (Subtask) materialize(slot);
+                    slot = nextSubtasks[slot];
+                    return subtask;
+                }
+            };
+        }
+    }
+}
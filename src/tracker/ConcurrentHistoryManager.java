@@ -0,0 +1,74 @@
+package tracker;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class ConcurrentHistoryManager implements HistoryManager {
+    private final InMemoryHistoryManager history;
+    private final StripedViewBuffer<Task> views;
+
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.DEFAULT_HISTORY_SIZE);
+    }
+
+    public ConcurrentHistoryManager(int capacity) {
+        this(capacity, 2 * Runtime.getRuntime().availableProcessors(), StripedViewBuffer.DEFAULT_BUFFER_CAPACITY);
+    }
+
+    ConcurrentHistoryManager(int capacity, int stripes, int bufferCapacity) {
+        InMemoryHistoryManager history = new InMemoryHistoryManager(capacity);
+        this.history = history;
+        this.views = new StripedViewBuffer<>(stripes, bufferCapacity, history::add);
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+
+        views.add(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        views.lock();
+        try {
+            views.drain();
+            history.remove(id);
+        } finally {
+            views.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        views.lock();
+        try {
+            views.drain();
+            return history.getHistory();
+        } finally {
+            views.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableList(getHistory());
+    }
+
+    public int getCapacity() {
+        return history.getCapacity();
+    }
+
+    public long getEvictionCount() {
+        views.lock();
+        try {
+            views.drain();
+            return history.getEvictionCount();
+        } finally {
+            views.unlock();
+        }
+    }
+}
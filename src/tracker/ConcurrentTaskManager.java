@@ -0,0 +1,1044 @@
+package tracker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentTaskManager implements TaskManager {
+    private static final long ABSENT = -1;
+
+    private final ConcurrentHashMap<Integer, Task> tasks;
+    private final ConcurrentHashMap<Integer, Epic> epics;
+    private final ConcurrentHashMap<Integer, Subtask> subtasks;
+    private final AtomicInteger nextId;
+    private final ReentrantLock[] epicLocks;
+    private final StatusCounters taskCounts;
+    private final StatusCounters epicCounts;
+    private final StatusCounters subtaskCounts;
+    private final HistoryManager historyManager;
+    private volatile TaskEventBus events;
+
+    public ConcurrentTaskManager() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentTaskManager(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive: " + concurrencyLevel);
+        }
+        this.tasks = new ConcurrentHashMap<>();
+        this.epics = new ConcurrentHashMap<>();
+        this.subtasks = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger(1);
+        this.epicLocks = new ReentrantLock[concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1];
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+        this.taskCounts = new StatusCounters();
+        this.epicCounts = new StatusCounters();
+        this.subtaskCounts = new StatusCounters();
+        this.historyManager = Managers.getConcurrentHistory();
+    }
+
+    private int generateId() {
+        return nextId.getAndIncrement();
+    }
+
+    private ReentrantLock lockFor(int epicId) {
+        return epicLocks[epicId & (epicLocks.length - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = epicLocks.length - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private void addToHistory(Task task) {
+        historyManager.add(task);
+    }
+
+    private void purgeHistory(TaskType type) {
+        for (Task task : historyManager.getHistory()) {
+            if (task.getType() == type) {
+                historyManager.remove(task.getId());
+            }
+        }
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        Task task = new Task(title, description, generateId(), status);
+        ReentrantLock lock = lockFor(task.getId());
+        lock.lock();
+        try {
+            tasks.put(task.getId(), task);
+            taskCounts.move(task, status);
+        } finally {
+            lock.unlock();
+        }
+        publish(TaskEvent.Kind.CREATED, task, null);
+        return task;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            addToHistory(task);
+        }
+        return task;
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return Collections.unmodifiableCollection(tasks.values());
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllTasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllTasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        ReentrantLock lock = lockFor(task.getId());
+        lock.lock();
+        try {
+            Task previous = tasks.get(task.getId());
+            if (previous != null) {
+                task.setVersion(previous.getVersion() + 1);
+                task.setIndexedStatus(previous.getIndexedStatus());
+                tasks.put(task.getId(), task);
+                taskCounts.move(task, task.getStatus());
+                publish(TaskEvent.Kind.UPDATED, task, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                taskCounts.remove(task);
+                historyManager.remove(id);
+                publish(TaskEvent.Kind.DELETED, task, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lockAll();
+        try {
+            tasks.clear();
+            taskCounts.reset();
+            purgeHistory(TaskType.TASK);
+            publishCleared(TaskType.TASK);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        Epic epic = new Epic(title, description, generateId());
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            epics.put(epic.getId(), epic);
+            epicCounts.move(epic, epic.getStatus());
+        } finally {
+            lock.unlock();
+        }
+        publish(TaskEvent.Kind.CREATED, epic, null);
+        return epic;
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            addToHistory(epic);
+        }
+        return epic;
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return Collections.unmodifiableCollection(epics.values());
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllEpicsView(), status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllEpicsView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            Epic previous = epics.get(epic.getId());
+            if (previous == null) {
+                return;
+            }
+            publish(TaskEvent.Kind.UPDATED, epic, null);
+            if (previous == epic) {
+                updateEpicStatus(epic);
+            } else {
+                epic.setVersion(previous.getVersion());
+                epic.setIndexedStatus(previous.getIndexedStatus());
+                epics.put(epic.getId(), epic);
+                recountEpicStatus(previous, epic);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic epic = epics.remove(id);
+            if (epic != null) {
+                PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+                while (subtaskIds.hasNext()) {
+                    Subtask subtask = subtasks.remove(subtaskIds.nextInt());
+                    if (subtask != null) {
+                        subtaskCounts.remove(subtask);
+                        historyManager.remove(subtask.getId());
+                        publish(TaskEvent.Kind.DELETED, subtask, null);
+                    }
+                }
+                epicCounts.remove(epic);
+                historyManager.remove(id);
+                publish(TaskEvent.Kind.DELETED, epic, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAll();
+        try {
+            epics.clear();
+            subtasks.clear();
+            epicCounts.reset();
+            subtaskCounts.reset();
+            purgeHistory(TaskType.SUBTASK);
+            purgeHistory(TaskType.EPIC);
+            publishCleared(TaskType.SUBTASK);
+            publishCleared(TaskType.EPIC);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return null;
+            }
+
+            Subtask subtask = new Subtask(title, description, generateId(), status, epicId);
+            subtasks.put(subtask.getId(), subtask);
+            subtaskCounts.move(subtask, status);
+            publish(TaskEvent.Kind.CREATED, subtask, null);
+            epic.addSubtaskId(subtask.getId());
+            epic.countSubtaskStatus(status);
+            subtask.setCountedStatus(status);
+            updateEpicStatus(epic);
+            return subtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
+            addToHistory(subtask);
+        }
+        return subtask;
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return Collections.unmodifiableCollection(subtasks.values());
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllSubtasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllSubtasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        ReentrantLock lock = lockSubtaskEpic(subtask.getId());
+        if (lock == null) {
+            return;
+        }
+        try {
+            Subtask previous = subtasks.get(subtask.getId());
+            subtask.setEpicId(previous.getEpicId());
+            subtask.setVersion(previous.getVersion() + 1);
+            subtask.setIndexedStatus(previous.getIndexedStatus());
+            subtasks.put(subtask.getId(), subtask);
+            subtaskCounts.move(subtask, subtask.getStatus());
+            publish(TaskEvent.Kind.UPDATED, subtask, null);
+            TaskStatus countedStatus = previous.getCountedStatus();
+            subtask.setCountedStatus(countedStatus);
+
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null && countedStatus != null) {
+                epic.changeSubtaskStatus(countedStatus, subtask.getStatus());
+                subtask.setCountedStatus(subtask.getStatus());
+                updateEpicStatus(epic);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        ReentrantLock lock = lockSubtaskEpic(id);
+        if (lock == null) {
+            return;
+        }
+        try {
+            Subtask subtask = subtasks.remove(id);
+            subtaskCounts.remove(subtask);
+            historyManager.remove(id);
+            publish(TaskEvent.Kind.DELETED, subtask, null);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                if (epic.removeSubtaskId(id) && subtask.getCountedStatus() != null) {
+                    epic.uncountSubtaskStatus(subtask.getCountedStatus());
+                }
+                updateEpicStatus(epic);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockAll();
+        try {
+            subtasks.clear();
+            subtaskCounts.reset();
+            purgeHistory(TaskType.SUBTASK);
+            publishCleared(TaskType.SUBTASK);
+
+            for (Epic epic : epics.values()) {
+                TaskStatus previousStatus = epic.getStatus();
+                epic.clearSubtasks();
+                epic.setStatus(TaskStatus.NEW);
+                epicCounts.move(epic, TaskStatus.NEW);
+                if (previousStatus != TaskStatus.NEW) {
+                    publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, previousStatus);
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return new ArrayList<>();
+            }
+
+            ArrayList<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIds().size());
+            PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                int subtaskId = subtaskIds.nextInt();
+                Subtask subtask = subtasks.get(subtaskId);
+                if (subtask != null) {
+                    epicSubtasks.add(subtask);
+                }
+            }
+            return epicSubtasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return Collections.unmodifiableList(getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            return epic == null ? null : StatusCounts.of(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        return countersFor(type).counts();
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        lockAll();
+        try {
+            Transaction transaction = new Transaction(true);
+            int[] createdIds = batch.applyTo(transaction);
+            transaction.commit();
+            return createdIds;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        List<Task> history = historyManager.getHistory();
+        if (history instanceof ArrayList<Task> snapshot) {
+            return snapshot;
+        }
+        return new ArrayList<>(history);
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableList(getHistory());
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        TaskEventBus bus = events;
+        if (bus == null) {
+            synchronized (this) {
+                bus = events;
+                if (bus == null) {
+                    bus = new TaskEventBus();
+                    events = bus;
+                }
+            }
+        }
+        bus.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.unsubscribe(listener);
+        }
+    }
+
+    public Transaction beginTransaction() {
+        return new Transaction(false);
+    }
+
+    private ReentrantLock lockSubtaskEpic(int subtaskId) {
+        while (true) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask == null) {
+                return null;
+            }
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            Subtask current = subtasks.get(subtaskId);
+            if (current != null && lockFor(current.getEpicId()) == lock) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void updateEpicStatus(Epic epic) {
+        TaskStatus previousStatus = epic.getStatus();
+        refreshEpicStatus(epic);
+        if (previousStatus != epic.getStatus()) {
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, previousStatus);
+        }
+    }
+
+    private void refreshEpicStatus(Epic epic) {
+        epic.refreshStatus();
+        epic.setVersion(epic.getVersion() + 1);
+        epicCounts.move(epic, epic.getStatus());
+    }
+
+    private StatusCounters countersFor(TaskType type) {
+        return switch (type) {
+            case TASK -> taskCounts;
+            case EPIC -> epicCounts;
+            case SUBTASK -> subtaskCounts;
+        };
+    }
+
+    private void publish(TaskEvent.Kind kind, Task task, TaskStatus previousStatus) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.publish(kind, task.getType(), task.getId(), task.getStatus(), previousStatus);
+        }
+    }
+
+    private void publishCleared(TaskType type) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.publish(TaskEvent.Kind.CLEARED, type, 0, null, null);
+        }
+    }
+
+    private void recountEpicStatus(Epic previous, Epic epic) {
+        recountSubtasks(previous, epic);
+        updateEpicStatus(epic);
+    }
+
+    private void recountSubtasks(Epic previous, Epic epic) {
+        PrimitiveIterator.OfInt previousSubtaskIds = previous.getSubtaskIds().iterator();
+        while (previousSubtaskIds.hasNext()) {
+            int subtaskId = previousSubtaskIds.nextInt();
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                subtask.setCountedStatus(null);
+            }
+        }
+
+        epic.resetSubtaskStatusCounts();
+        PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+        while (subtaskIds.hasNext()) {
+            int subtaskId = subtaskIds.nextInt();
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                subtask.setCountedStatus(subtask.getStatus());
+                epic.countSubtaskStatus(subtask.getStatus());
+            }
+        }
+    }
+
+    public final class Transaction implements TaskBatch.Target {
+        private final HashMap<Integer, Read> reads;
+        private final List<Write> writes;
+        private final IntSet lockIds;
+        private final LinkedHashMap<Integer, Task> written;
+        private final HashMap<Integer, TaskStatus> epicStatuses;
+        private final HashMap<Integer, Task> created;
+        private final boolean skipMissing;
+        private boolean completed;
+
+        private Transaction(boolean skipMissing) {
+            this.reads = new HashMap<>();
+            this.writes = new ArrayList<>();
+            this.lockIds = new IntSet();
+            this.written = new LinkedHashMap<>();
+            this.epicStatuses = new HashMap<>();
+            this.created = new HashMap<>();
+            this.skipMissing = skipMissing;
+        }
+
+        public Task getTask(int id) {
+            return read(id, TaskType.TASK, tasks.get(id));
+        }
+
+        public Epic getEpic(int id) {
+            return read(id, TaskType.EPIC, epics.get(id));
+        }
+
+        public Subtask getSubtask(int id) {
+            return read(id, TaskType.SUBTASK, subtasks.get(id));
+        }
+
+        @Override
+        public Task createTask(String title, String description, TaskStatus status) {
+            checkActive();
+            Task task = new Task(title, description, generateId(), status);
+            created.put(task.getId(), task);
+            lockIds.add(task.getId());
+            writes.add(undo -> applyCreate(tasks, task, undo));
+            return task;
+        }
+
+        @Override
+        public Epic createEpic(String title, String description) {
+            checkActive();
+            Epic epic = new Epic(title, description, generateId());
+            created.put(epic.getId(), epic);
+            lockIds.add(epic.getId());
+            writes.add(undo -> applyCreate(epics, epic, undo));
+            return epic;
+        }
+
+        @Override
+        public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+            checkActive();
+            Task pending = created.get(epicId);
+            boolean pendingEpic = pending != null && pending.getType() == TaskType.EPIC;
+            if (!pendingEpic && read(epicId, TaskType.EPIC, epics.get(epicId)) == null) {
+                return null;
+            }
+            Subtask subtask = new Subtask(title, description, generateId(), status, epicId);
+            created.put(subtask.getId(), subtask);
+            lockIds.add(epicId);
+            writes.add(undo -> applyCreateSubtask(subtask, undo));
+            return subtask;
+        }
+
+        @Override
+        public void updateTask(Task task) {
+            read(task.getId(), TaskType.TASK, tasks.get(task.getId()));
+            Task copy = new Task(task.getTitle(), task.getDescription(), task.getId(), task.getStatus());
+            writes.add(undo -> applyUpdateTask(copy, undo));
+        }
+
+        @Override
+        public void updateEpic(Epic epic) {
+            read(epic.getId(), TaskType.EPIC, epics.get(epic.getId()));
+            Epic copy = new Epic(epic.getTitle(), epic.getDescription(), epic.getId());
+            PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                copy.addSubtaskId(subtaskIds.nextInt());
+            }
+            writes.add(undo -> applyUpdateEpic(copy, undo));
+        }
+
+        @Override
+        public void updateSubtask(Subtask subtask) {
+            read(subtask.getId(), TaskType.SUBTASK, subtasks.get(subtask.getId()));
+            Subtask copy = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getId(),
+                    subtask.getStatus(), subtask.getEpicId());
+            writes.add(undo -> applyUpdateSubtask(copy, undo));
+        }
+
+        public void moveSubtask(int subtaskId, int epicId) {
+            read(subtaskId, TaskType.SUBTASK, subtasks.get(subtaskId));
+            lockIds.add(epicId);
+            writes.add(undo -> applyMoveSubtask(subtaskId, epicId, undo));
+        }
+
+        @Override
+        public void deleteTask(int id) {
+            read(id, TaskType.TASK, tasks.get(id));
+            writes.add(undo -> applyDeleteTask(id, undo));
+        }
+
+        @Override
+        public void deleteEpic(int id) {
+            read(id, TaskType.EPIC, epics.get(id));
+            writes.add(undo -> applyDeleteEpic(id, undo));
+        }
+
+        @Override
+        public void deleteSubtask(int id) {
+            read(id, TaskType.SUBTASK, subtasks.get(id));
+            writes.add(undo -> applyDeleteSubtask(id, undo));
+        }
+
+        public void commit() {
+            checkActive();
+            completed = true;
+            if (writes.isEmpty()) {
+                return;
+            }
+
+            int[] stripes = stripesToLock();
+            for (int stripe : stripes) {
+                epicLocks[stripe].lock();
+            }
+            try {
+                validate();
+                ArrayDeque<Runnable> undo = new ArrayDeque<>();
+                try {
+                    for (Write write : writes) {
+                        write.apply(undo);
+                    }
+                } catch (RuntimeException e) {
+                    while (!undo.isEmpty()) {
+                        undo.pop().run();
+                    }
+                    throw e;
+                }
+                publishCommitted();
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    epicLocks[stripes[i]].unlock();
+                }
+            }
+        }
+
+        private <T extends Task> T read(int id, TaskType type, T current) {
+            checkActive();
+            reads.putIfAbsent(id, new Read(type, current == null ? ABSENT : current.getVersion()));
+            return current;
+        }
+
+        private void publishCommitted() {
+            for (Task task : written.values()) {
+                Task current = switch (task.getType()) {
+                    case TASK -> tasks.get(task.getId());
+                    case EPIC -> epics.get(task.getId());
+                    case SUBTASK -> subtasks.get(task.getId());
+                };
+                boolean isNew = created.containsKey(task.getId());
+                if (current == null) {
+                    if (!isNew) {
+                        historyManager.remove(task.getId());
+                        publish(TaskEvent.Kind.DELETED, task, null);
+                    }
+                } else {
+                    publish(isNew ? TaskEvent.Kind.CREATED : TaskEvent.Kind.UPDATED, current, null);
+                }
+            }
+            for (Map.Entry<Integer, TaskStatus> entry : epicStatuses.entrySet()) {
+                Epic epic = epics.get(entry.getKey());
+                if (epic != null && epic.getStatus() != entry.getValue()) {
+                    publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, entry.getValue());
+                }
+            }
+        }
+
+        private void checkActive() {
+            if (completed) {
+                throw new IllegalStateException("Transaction is already completed");
+            }
+        }
+
+        private int[] stripesToLock() {
+            boolean[] marked = new boolean[epicLocks.length];
+            int mask = epicLocks.length - 1;
+            for (Map.Entry<Integer, Read> entry : reads.entrySet()) {
+                int id = entry.getKey();
+                if (entry.getValue().type != TaskType.SUBTASK) {
+                    marked[id & mask] = true;
+                    continue;
+                }
+                Subtask subtask = subtasks.get(id);
+                if (subtask != null) {
+                    marked[subtask.getEpicId() & mask] = true;
+                }
+            }
+            PrimitiveIterator.OfInt epicIds = lockIds.iterator();
+            while (epicIds.hasNext()) {
+                marked[epicIds.nextInt() & mask] = true;
+            }
+
+            int count = 0;
+            int[] stripes = new int[marked.length];
+            for (int i = 0; i < marked.length; i++) {
+                if (marked[i]) {
+                    stripes[count++] = i;
+                }
+            }
+            return Arrays.copyOf(stripes, count);
+        }
+
+        private void validate() {
+            for (Map.Entry<Integer, Read> entry : reads.entrySet()) {
+                int id = entry.getKey();
+                Read read = entry.getValue();
+                Task current = switch (read.type) {
+                    case TASK -> tasks.get(id);
+                    case EPIC -> epics.get(id);
+                    case SUBTASK -> subtasks.get(id);
+                };
+                long version = current == null ? ABSENT : current.getVersion();
+                if (version != read.version) {
+                    throw new TransactionConflictException(read.type + " " + id + " was modified concurrently");
+                }
+            }
+        }
+
+        private <T extends Task> void applyCreate(Map<Integer, T> entities, T task, ArrayDeque<Runnable> undo) {
+            entities.put(task.getId(), task);
+            countersFor(task.getType()).move(task, task.getStatus());
+            written.put(task.getId(), task);
+            undo.push(() -> {
+                entities.remove(task.getId());
+                countersFor(task.getType()).remove(task);
+            });
+        }
+
+        private void applyCreateSubtask(Subtask subtask, ArrayDeque<Runnable> undo) {
+            Epic epic = require(epics, TaskType.EPIC, subtask.getEpicId());
+            if (epic == null) {
+                return;
+            }
+            applyCreate(subtasks, subtask, undo);
+            touch(epic);
+            epic.addSubtaskId(subtask.getId());
+            epic.countSubtaskStatus(subtask.getStatus());
+            subtask.setCountedStatus(subtask.getStatus());
+            refreshEpicStatus(epic);
+            undo.push(() -> {
+                epic.removeSubtaskId(subtask.getId());
+                epic.uncountSubtaskStatus(subtask.getStatus());
+                restoreEpic(epic);
+            });
+        }
+
+        private void applyUpdateTask(Task task, ArrayDeque<Runnable> undo) {
+            Task previous = require(tasks, TaskType.TASK, task.getId());
+            if (previous == null) {
+                return;
+            }
+            task.setVersion(previous.getVersion() + 1);
+            task.setIndexedStatus(previous.getIndexedStatus());
+            tasks.put(task.getId(), task);
+            taskCounts.move(task, task.getStatus());
+            written.put(task.getId(), task);
+            undo.push(() -> restore(tasks, previous, task));
+        }
+
+        private void applyUpdateEpic(Epic epic, ArrayDeque<Runnable> undo) {
+            Epic previous = require(epics, TaskType.EPIC, epic.getId());
+            if (previous == null) {
+                return;
+            }
+            touch(previous);
+            epic.setVersion(previous.getVersion() + 1);
+            epic.setIndexedStatus(previous.getIndexedStatus());
+            epics.put(epic.getId(), epic);
+            written.put(epic.getId(), epic);
+            recountSubtasks(previous, epic);
+            refreshEpicStatus(epic);
+            undo.push(() -> {
+                restore(epics, previous, epic);
+                recountSubtasks(epic, previous);
+                restoreEpic(previous);
+            });
+        }
+
+        private void applyUpdateSubtask(Subtask subtask, ArrayDeque<Runnable> undo) {
+            Subtask previous = require(subtasks, TaskType.SUBTASK, subtask.getId());
+            if (previous == null) {
+                return;
+            }
+            subtask.setEpicId(previous.getEpicId());
+            subtask.setVersion(previous.getVersion() + 1);
+            subtask.setCountedStatus(previous.getCountedStatus());
+            subtask.setIndexedStatus(previous.getIndexedStatus());
+            subtasks.put(subtask.getId(), subtask);
+            subtaskCounts.move(subtask, subtask.getStatus());
+            written.put(subtask.getId(), subtask);
+            undo.push(() -> restore(subtasks, previous, subtask));
+
+            Epic epic = epics.get(subtask.getEpicId());
+            TaskStatus countedStatus = previous.getCountedStatus();
+            if (epic != null && countedStatus != null) {
+                touch(epic);
+                epic.changeSubtaskStatus(countedStatus, subtask.getStatus());
+                subtask.setCountedStatus(subtask.getStatus());
+                refreshEpicStatus(epic);
+                undo.push(() -> {
+                    epic.changeSubtaskStatus(subtask.getStatus(), countedStatus);
+                    restoreEpic(epic);
+                });
+            }
+        }
+
+        private void applyMoveSubtask(int subtaskId, int epicId, ArrayDeque<Runnable> undo) {
+            Subtask previous = require(subtasks, TaskType.SUBTASK, subtaskId);
+            if (previous == null || previous.getEpicId() == epicId) {
+                return;
+            }
+            Epic target = require(epics, TaskType.EPIC, epicId);
+            if (target == null) {
+                return;
+            }
+
+            Subtask moved = new Subtask(previous.getTitle(), previous.getDescription(), subtaskId,
+                    previous.getStatus(), epicId);
+            moved.setVersion(previous.getVersion() + 1);
+            unlinkFromEpic(previous, undo);
+
+            touch(target);
+            target.addSubtaskId(subtaskId);
+            target.countSubtaskStatus(moved.getStatus());
+            moved.setCountedStatus(moved.getStatus());
+            refreshEpicStatus(target);
+            moved.setIndexedStatus(previous.getIndexedStatus());
+            subtasks.put(subtaskId, moved);
+            written.put(subtaskId, moved);
+            undo.push(() -> {
+                restore(subtasks, previous, moved);
+                target.removeSubtaskId(subtaskId);
+                target.uncountSubtaskStatus(moved.getStatus());
+                restoreEpic(target);
+            });
+        }
+
+        private void applyDeleteTask(int id, ArrayDeque<Runnable> undo) {
+            Task previous = require(tasks, TaskType.TASK, id);
+            if (previous == null) {
+                return;
+            }
+            tasks.remove(id);
+            taskCounts.remove(previous);
+            written.put(id, previous);
+            undo.push(() -> restore(tasks, previous, previous));
+        }
+
+        private void applyDeleteEpic(int id, ArrayDeque<Runnable> undo) {
+            Epic previous = require(epics, TaskType.EPIC, id);
+            if (previous == null) {
+                return;
+            }
+            PrimitiveIterator.OfInt subtaskIds = previous.getSubtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                Subtask subtask = subtasks.remove(subtaskIds.nextInt());
+                if (subtask != null) {
+                    subtaskCounts.remove(subtask);
+                    written.put(subtask.getId(), subtask);
+                    undo.push(() -> restore(subtasks, subtask, subtask));
+                }
+            }
+            epics.remove(id);
+            epicCounts.remove(previous);
+            written.put(id, previous);
+            undo.push(() -> restore(epics, previous, previous));
+        }
+
+        private void applyDeleteSubtask(int id, ArrayDeque<Runnable> undo) {
+            Subtask previous = require(subtasks, TaskType.SUBTASK, id);
+            if (previous == null) {
+                return;
+            }
+            unlinkFromEpic(previous, undo);
+            subtasks.remove(id);
+            subtaskCounts.remove(previous);
+            written.put(id, previous);
+            undo.push(() -> restore(subtasks, previous, previous));
+        }
+
+        private void unlinkFromEpic(Subtask subtask, ArrayDeque<Runnable> undo) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null || !epic.getSubtaskIds().contains(subtask.getId())) {
+                return;
+            }
+            touch(epic);
+            int successorId = epic.nextSubtaskId(subtask.getId());
+            TaskStatus countedStatus = subtask.getCountedStatus();
+            epic.removeSubtaskId(subtask.getId());
+            if (countedStatus != null) {
+                epic.uncountSubtaskStatus(countedStatus);
+            }
+            refreshEpicStatus(epic);
+            undo.push(() -> {
+                epic.insertSubtaskIdBefore(subtask.getId(), successorId);
+                if (countedStatus != null) {
+                    epic.countSubtaskStatus(countedStatus);
+                }
+                restoreEpic(epic);
+            });
+        }
+
+        private void touch(Epic epic) {
+            epicStatuses.putIfAbsent(epic.getId(), epic.getStatus());
+        }
+
+        private <T extends Task> T require(Map<Integer, T> entities, TaskType type, int id) {
+            T entity = entities.get(id);
+            if (entity == null && !skipMissing) {
+                throw new TransactionConflictException(type + " " + id + " does not exist");
+            }
+            return entity;
+        }
+
+        private <T extends Task> void restore(Map<Integer, T> entities, T previous, T tentative) {
+            previous.setVersion(tentative.getVersion() + 1);
+            previous.setIndexedStatus(tentative.getIndexedStatus());
+            entities.put(previous.getId(), previous);
+            countersFor(previous.getType()).move(previous, previous.getStatus());
+        }
+
+        private void restoreEpic(Epic epic) {
+            refreshEpicStatus(epic);
+        }
+    }
+
+    private interface Write {
+        void apply(ArrayDeque<Runnable> undo);
+    }
+
+    private static final class Read {
+        private final TaskType type;
+        private final long version;
+
+        private Read(TaskType type, long version) {
+            this.type = type;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package tracker;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public class CopyOnWriteTaskManager implements TaskManager {
+    private final ConcurrentHashMap<Integer, TaskSnapshot> tasks;
+    private final ConcurrentHashMap<Integer, TaskSnapshot> epics;
+    private final ConcurrentHashMap<Integer, TaskSnapshot> subtasks;
+    private final ConcurrentHashMap<Integer, Epic> epicStates;
+    private final AtomicInteger nextId;
+    private final ReentrantLock[] epicLocks;
+    private final StatusCounters taskCounts;
+    private final StatusCounters epicCounts;
+    private final StatusCounters subtaskCounts;
+    private final SnapshotHistory history;
+    private final StripedViewBuffer<TaskSnapshot> views;
+    private volatile TaskEventBus events;
+
+    public CopyOnWriteTaskManager() {
+        this(4 * Runtime.getRuntime().availableProcessors(), InMemoryHistoryManager.DEFAULT_HISTORY_SIZE);
+    }
+
+    public CopyOnWriteTaskManager(int concurrencyLevel, int historyCapacity) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive: " + concurrencyLevel);
+        }
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("historyCapacity must be positive: " + historyCapacity);
+        }
+        this.tasks = new ConcurrentHashMap<>();
+        this.epics = new ConcurrentHashMap<>();
+        this.subtasks = new ConcurrentHashMap<>();
+        this.epicStates = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger(1);
+        this.epicLocks = new ReentrantLock[concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1];
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+        this.taskCounts = new StatusCounters();
+        this.epicCounts = new StatusCounters();
+        this.subtaskCounts = new StatusCounters();
+        SnapshotHistory history = new SnapshotHistory(historyCapacity);
+        this.history = history;
+        this.views = new StripedViewBuffer<>(concurrencyLevel, StripedViewBuffer.DEFAULT_BUFFER_CAPACITY, history::add);
+    }
+
+    public TaskSnapshot getTaskSnapshot(int id) {
+        return recordView(tasks.get(id));
+    }
+
+    public TaskSnapshot getEpicSnapshot(int id) {
+        return recordView(epics.get(id));
+    }
+
+    public TaskSnapshot getSubtaskSnapshot(int id) {
+        return recordView(subtasks.get(id));
+    }
+
+    public Collection<TaskSnapshot> getAllTaskSnapshots() {
+        return Collections.unmodifiableCollection(tasks.values());
+    }
+
+    public Collection<TaskSnapshot> getAllEpicSnapshots() {
+        return Collections.unmodifiableCollection(epics.values());
+    }
+
+    public Collection<TaskSnapshot> getAllSubtaskSnapshots() {
+        return Collections.unmodifiableCollection(subtasks.values());
+    }
+
+    public List<TaskSnapshot> getHistorySnapshots() {
+        views.lock();
+        try {
+            views.drain();
+            return history.snapshot();
+        } finally {
+            views.unlock();
+        }
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        Task task = new Task(title, description, generateId(), status);
+        TaskSnapshot snapshot = TaskSnapshot.of(task);
+        tasks.put(task.getId(), snapshot);
+        taskCounts.add(status, 1);
+        publish(TaskEvent.Kind.CREATED, snapshot, null);
+        return task;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        TaskSnapshot snapshot = getTaskSnapshot(id);
+        return snapshot == null ? null : snapshot.toTask();
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return materialize(tasks.values(), TaskSnapshot::toTask);
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return new MaterializingView<>(tasks.values(), TaskSnapshot::toTask);
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllTasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllTasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        TaskSnapshot snapshot = TaskSnapshot.of(task);
+        TaskSnapshot previous = tasks.replace(task.getId(), snapshot);
+        if (previous != null) {
+            taskCounts.change(previous.getStatus(), snapshot.getStatus());
+            publish(TaskEvent.Kind.UPDATED, snapshot, null);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        TaskSnapshot snapshot = tasks.remove(id);
+        if (snapshot != null) {
+            taskCounts.add(snapshot.getStatus(), -1);
+            removeHistory(id);
+            publish(TaskEvent.Kind.DELETED, snapshot, null);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (Integer id : tasks.keySet()) {
+            TaskSnapshot snapshot = tasks.remove(id);
+            if (snapshot != null) {
+                taskCounts.add(snapshot.getStatus(), -1);
+            }
+        }
+        purgeHistory(TaskType.TASK);
+        publishCleared(TaskType.TASK);
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        Epic epic = new Epic(title, description, generateId());
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            epicStates.put(epic.getId(), epic);
+            publishEpic(TaskSnapshot.of(epic));
+            publish(TaskEvent.Kind.CREATED, epics.get(epic.getId()), null);
+        } finally {
+            lock.unlock();
+        }
+        return TaskSnapshot.of(epic).toEpic();
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        TaskSnapshot snapshot = getEpicSnapshot(id);
+        return snapshot == null ? null : snapshot.toEpic();
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return materialize(epics.values(), TaskSnapshot::toEpic);
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return new MaterializingView<>(epics.values(), TaskSnapshot::toEpic);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllEpicsView(), status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllEpicsView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            Epic state = epicStates.get(epic.getId());
+            if (state != null) {
+                state.setTitle(epic.getTitle());
+                state.setDescription(epic.getDescription());
+                publishEpic(epics.get(state.getId()).withEpicState(state));
+                publish(TaskEvent.Kind.UPDATED, epics.get(state.getId()), null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic state = epicStates.remove(id);
+            if (state != null) {
+                TaskSnapshot snapshot = epics.remove(id);
+                epicCounts.add(snapshot.getStatus(), -1);
+                state.getSubtaskIds().forEach(subtaskId -> {
+                    TaskSnapshot subtask = subtasks.remove(subtaskId);
+                    if (subtask != null) {
+                        subtaskCounts.add(subtask.getStatus(), -1);
+                        removeHistory(subtaskId);
+                        publish(TaskEvent.Kind.DELETED, subtask, null);
+                    }
+                });
+                removeHistory(id);
+                publish(TaskEvent.Kind.DELETED, snapshot, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAll();
+        try {
+            epicStates.clear();
+            epics.clear();
+            subtasks.clear();
+            epicCounts.reset();
+            subtaskCounts.reset();
+            purgeHistory(TaskType.SUBTASK);
+            purgeHistory(TaskType.EPIC);
+            publishCleared(TaskType.SUBTASK);
+            publishCleared(TaskType.EPIC);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic state = epicStates.get(epicId);
+            if (state == null) {
+                return null;
+            }
+
+            Subtask subtask = new Subtask(title, description, generateId(), status, epicId);
+            TaskSnapshot snapshot = TaskSnapshot.of(subtask);
+            subtasks.put(subtask.getId(), snapshot);
+            subtaskCounts.add(status, 1);
+            publish(TaskEvent.Kind.CREATED, snapshot, null);
+            state.addSubtaskId(subtask.getId());
+            state.countSubtaskStatus(status);
+            subtask.setCountedStatus(status);
+            state.refreshStatus();
+            publishEpic(epics.get(epicId).withSubtaskAdded(state, subtask.getId()));
+            return subtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        TaskSnapshot snapshot = getSubtaskSnapshot(id);
+        return snapshot == null ? null : snapshot.toSubtask();
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return materialize(subtasks.values(), TaskSnapshot::toSubtask);
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return new MaterializingView<>(subtasks.values(), TaskSnapshot::toSubtask);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllSubtasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllSubtasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        TaskSnapshot current = subtasks.get(subtask.getId());
+        if (current == null) {
+            return;
+        }
+
+        ReentrantLock lock = lockFor(current.getEpicId());
+        lock.lock();
+        try {
+            current = subtasks.get(subtask.getId());
+            if (current == null) {
+                return;
+            }
+            TaskSnapshot updated = TaskSnapshot.of(subtask).withEpicId(current.getEpicId());
+            subtasks.put(updated.getId(), updated);
+            subtaskCounts.change(current.getStatus(), updated.getStatus());
+            publish(TaskEvent.Kind.UPDATED, updated, null);
+
+            Epic state = epicStates.get(current.getEpicId());
+            if (state != null && current.getStatus() != updated.getStatus()) {
+                state.changeSubtaskStatus(current.getStatus(), updated.getStatus());
+                state.refreshStatus();
+                publishEpic(epics.get(state.getId()).withEpicState(state));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        TaskSnapshot current = subtasks.get(id);
+        if (current == null) {
+            return;
+        }
+
+        ReentrantLock lock = lockFor(current.getEpicId());
+        lock.lock();
+        try {
+            current = subtasks.remove(id);
+            if (current == null) {
+                return;
+            }
+            subtaskCounts.add(current.getStatus(), -1);
+            removeHistory(id);
+            publish(TaskEvent.Kind.DELETED, current, null);
+            Epic state = epicStates.get(current.getEpicId());
+            if (state != null && state.removeSubtaskId(id)) {
+                state.uncountSubtaskStatus(current.getStatus());
+                state.refreshStatus();
+                publishEpic(TaskSnapshot.of(state));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockAll();
+        try {
+            subtasks.clear();
+            subtaskCounts.reset();
+            purgeHistory(TaskType.SUBTASK);
+            publishCleared(TaskType.SUBTASK);
+
+            for (Epic state : epicStates.values()) {
+                state.clearSubtasks();
+                state.setStatus(TaskStatus.NEW);
+                publishEpic(TaskSnapshot.of(state));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        TaskSnapshot epic = epics.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+
+        ArrayList<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskCount());
+        for (int i = 0; i < epic.getSubtaskCount(); i++) {
+            TaskSnapshot subtask = subtasks.get(epic.getSubtaskId(i));
+            if (subtask != null) {
+                epicSubtasks.add(subtask.toSubtask());
+            }
+        }
+        return epicSubtasks;
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return Collections.unmodifiableList(getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        TaskSnapshot epic = epics.get(epicId);
+        return epic == null ? null : new StatusCounts(subtaskStatusCounts(epic));
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        return switch (type) {
+            case TASK -> taskCounts.counts();
+            case EPIC -> epicCounts.counts();
+            case SUBTASK -> subtaskCounts.counts();
+        };
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return batch.applyTo(this);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        TaskEventBus bus = events;
+        if (bus == null) {
+            synchronized (this) {
+                bus = events;
+                if (bus == null) {
+                    bus = new TaskEventBus();
+                    events = bus;
+                }
+            }
+        }
+        bus.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.unsubscribe(listener);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        return materialize(getHistorySnapshots(), TaskSnapshot::toTask);
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return new MaterializingView<>(getHistorySnapshots(), TaskSnapshot::toTask);
+    }
+
+    private int generateId() {
+        return nextId.getAndIncrement();
+    }
+
+    private ReentrantLock lockFor(int epicId) {
+        return epicLocks[epicId & (epicLocks.length - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = epicLocks.length - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private void publishEpic(TaskSnapshot snapshot) {
+        TaskSnapshot previous = epics.put(snapshot.getId(), snapshot);
+        if (previous == null) {
+            epicCounts.add(snapshot.getStatus(), 1);
+        } else if (previous.getStatus() != snapshot.getStatus()) {
+            epicCounts.change(previous.getStatus(), snapshot.getStatus());
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, snapshot, previous.getStatus());
+        }
+    }
+
+    private void publish(TaskEvent.Kind kind, TaskSnapshot snapshot, TaskStatus previousStatus) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.publish(kind, snapshot.getType(), snapshot.getId(), snapshot.getStatus(), previousStatus);
+        }
+    }
+
+    private void publishCleared(TaskType type) {
+        TaskEventBus bus = events;
+        if (bus != null) {
+            bus.publish(TaskEvent.Kind.CLEARED, type, 0, null, null);
+        }
+    }
+
+    private TaskSnapshot recordView(TaskSnapshot snapshot) {
+        if (snapshot != null) {
+            views.add(snapshot);
+        }
+        return snapshot;
+    }
+
+    private void removeHistory(int id) {
+        views.lock();
+        try {
+            views.drain();
+            history.remove(id);
+        } finally {
+            views.unlock();
+        }
+    }
+
+    private void purgeHistory(TaskType type) {
+        views.lock();
+        try {
+            views.drain();
+            history.removeAll(type);
+        } finally {
+            views.unlock();
+        }
+    }
+
+    private static int[] subtaskStatusCounts(TaskSnapshot epic) {
+        int[] counts = new int[TaskStatus.values().length];
+        for (TaskStatus status : TaskStatus.values()) {
+            counts[status.ordinal()] = epic.getSubtaskStatusCount(status);
+        }
+        return counts;
+    }
+
+    private static <T> ArrayList<T> materialize(Collection<TaskSnapshot> snapshots,
+                                                Function<TaskSnapshot, T> factory) {
+        ArrayList<T> result = new ArrayList<>(snapshots.size());
+        for (TaskSnapshot snapshot : snapshots) {
+            result.add(factory.apply(snapshot));
+        }
+        return result;
+    }
+
+    private static final class SnapshotHistory {
+        private final LinkedHashMap<Integer, TaskSnapshot> entries;
+        private final int capacity;
+        private List<TaskSnapshot> published;
+
+        private SnapshotHistory(int capacity) {
+            this.entries = new LinkedHashMap<>();
+            this.capacity = capacity;
+            this.published = List.of();
+        }
+
+        private void add(TaskSnapshot snapshot) {
+            entries.remove(snapshot.getId());
+            entries.put(snapshot.getId(), snapshot);
+            if (entries.size() > capacity) {
+                Iterator<TaskSnapshot> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            published = null;
+        }
+
+        private void remove(int id) {
+            if (entries.remove(id) != null) {
+                published = null;
+            }
+        }
+
+        private void removeAll(TaskType type) {
+            if (entries.values().removeIf(snapshot -> snapshot.getType() == type)) {
+                published = null;
+            }
+        }
+
+        private List<TaskSnapshot> snapshot() {
+            if (published == null) {
+                published = List.copyOf(entries.values());
+            }
+            return published;
+        }
+    }
+
+    private static final class MaterializingView<T> extends AbstractCollection<T> {
+        private final Collection<TaskSnapshot> snapshots;
+        private final Function<TaskSnapshot, T> factory;
+
+        private MaterializingView(Collection<TaskSnapshot> snapshots, Function<TaskSnapshot, T> factory) {
+            this.snapshots = snapshots;
+            this.factory = factory;
+        }
+
+        @Override
+        public int size() {
+            return snapshots.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<TaskSnapshot> iterator = snapshots.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return factory.apply(iterator.next());
+                }
+            };
+        }
+    }
+}
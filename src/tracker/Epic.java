@@ -1,30 +1,159 @@
 package tracker;
 
-import java.util.ArrayList;
+import java.util.PrimitiveIterator;
 
 class Epic extends Task {
-    private ArrayList<Integer> subtaskIds;
+    private final IntSet subtaskIds;
+    private final int[] subtaskStatusCounts;
+    private Generation subtaskGeneration;
+    private int seenSubtaskGeneration;
 
     public Epic(String title, String description, int id) {
         super(title, description, id, TaskStatus.NEW);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntSet();
+        this.subtaskStatusCounts = new int[TaskStatus.values().length];
+        this.subtaskGeneration = new Generation();
     }
 
-    public ArrayList<Integer> getSubtaskIds() {
-        return subtaskIds;
+    @Override
+    public TaskType getType() {
+        return TaskType.EPIC;
+    }
+
+    @Override
+    public TaskStatus getStatus() {
+        syncSubtasks();
+        return super.getStatus();
+    }
+
+    @Override
+    public void setStatus(TaskStatus status) {
+        syncSubtasks();
+        super.setStatus(status);
+    }
+
+    @Override
+    TaskStatus getIndexedStatus() {
+        syncSubtasks();
+        return super.getIndexedStatus();
+    }
+
+    @Override
+    void setIndexedStatus(TaskStatus indexedStatus) {
+        syncSubtasks();
+        super.setIndexedStatus(indexedStatus);
+    }
+
+    public ReadOnlyIntSet getSubtaskIds() {
+        syncSubtasks();
+        return subtaskIds.asReadOnly();
     }
 
     public void addSubtaskId(int subtaskId) {
-        if (!subtaskIds.contains(subtaskId)) {
-            subtaskIds.add(subtaskId);
-        }
+        syncSubtasks();
+        subtaskIds.add(subtaskId);
     }
 
-    public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove(Integer.valueOf(subtaskId));
+    public boolean removeSubtaskId(int subtaskId) {
+        syncSubtasks();
+        return subtaskIds.remove(subtaskId);
+    }
+
+    int nextSubtaskId(int subtaskId) {
+        syncSubtasks();
+        PrimitiveIterator.OfInt following = subtaskIds.iteratorAfter(subtaskId);
+        return following.hasNext() ? following.nextInt() : 0;
+    }
+
+    void insertSubtaskIdBefore(int subtaskId, int successorId) {
+        syncSubtasks();
+        subtaskIds.addBefore(subtaskId, successorId);
     }
 
     public void clearSubtasks() {
+        syncSubtasks();
         subtaskIds.clear();
+        resetSubtaskStatusCounts();
+    }
+
+    public int getSubtaskStatusCount(TaskStatus status) {
+        syncSubtasks();
+        return subtaskStatusCounts[status.ordinal()];
+    }
+
+    int getCountedSubtasks() {
+        syncSubtasks();
+        int total = 0;
+        for (int count : subtaskStatusCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    void setSubtaskStatusCount(TaskStatus status, int count) {
+        syncSubtasks();
+        subtaskStatusCounts[status.ordinal()] = count;
+    }
+
+    void countSubtaskStatus(TaskStatus status) {
+        syncSubtasks();
+        subtaskStatusCounts[status.ordinal()]++;
+    }
+
+    void uncountSubtaskStatus(TaskStatus status) {
+        syncSubtasks();
+        subtaskStatusCounts[status.ordinal()]--;
+    }
+
+    void changeSubtaskStatus(TaskStatus oldStatus, TaskStatus newStatus) {
+        if (oldStatus != newStatus) {
+            uncountSubtaskStatus(oldStatus);
+            countSubtaskStatus(newStatus);
+        }
+    }
+
+    void resetSubtaskStatusCounts() {
+        syncSubtasks();
+        for (int i = 0; i < subtaskStatusCounts.length; i++) {
+            subtaskStatusCounts[i] = 0;
+        }
+    }
+
+    void refreshStatus() {
+        int total = getCountedSubtasks();
+
+        if (getSubtaskStatusCount(TaskStatus.NEW) == total) {
+            status = TaskStatus.NEW;
+        } else if (getSubtaskStatusCount(TaskStatus.DONE) == total) {
+            status = TaskStatus.DONE;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+    }
+
+    void attachSubtaskGeneration(Generation generation) {
+        syncSubtasks();
+        subtaskGeneration = generation;
+        seenSubtaskGeneration = generation.value;
+    }
+
+    private void syncSubtasks() {
+        if (seenSubtaskGeneration != subtaskGeneration.value) {
+            seenSubtaskGeneration = subtaskGeneration.value;
+            subtaskIds.clear();
+            resetSubtaskStatusCounts();
+            status = TaskStatus.NEW;
+            if (super.getIndexedStatus() != null) {
+                super.setIndexedStatus(TaskStatus.NEW);
+            }
+        }
+    }
+
+    static final class Generation {
+        private int value;
+
+        void advance() {
+            value++;
+        }
     }
-}
\ No newline at end of file
+}
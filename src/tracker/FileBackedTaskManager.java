@@ -0,0 +1,376 @@
+package tracker;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class FileBackedTaskManager extends ForwardingTaskManager implements AutoCloseable {
+    private static final int CREATE_TASK = 1;
+    private static final int UPDATE_TASK = 2;
+    private static final int DELETE_TASK = 3;
+    private static final int DELETE_ALL_TASKS = 4;
+    private static final int CREATE_EPIC = 5;
+    private static final int UPDATE_EPIC = 6;
+    private static final int DELETE_EPIC = 7;
+    private static final int DELETE_ALL_EPICS = 8;
+    private static final int CREATE_SUBTASK = 9;
+    private static final int UPDATE_SUBTASK = 10;
+    private static final int DELETE_SUBTASK = 11;
+    private static final int DELETE_ALL_SUBTASKS = 12;
+    private static final int APPLY_BATCH = 13;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final ReentrantLock writeLock;
+    private final BinaryWriter record;
+    private final boolean syncOnWrite;
+    private final WriteAheadLog log;
+
+    public FileBackedTaskManager(Path logFile) {
+        this(new ConcurrentTaskManager(), logFile, Duration.ZERO);
+    }
+
+    public FileBackedTaskManager(TaskManager delegate, Path logFile, Duration groupCommitInterval) {
+        super(delegate);
+        this.writeLock = new ReentrantLock();
+        this.record = new BinaryWriter();
+        this.syncOnWrite = groupCommitInterval.isZero();
+        this.log = WriteAheadLog.open(logFile, this::replay, groupCommitInterval);
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        Task task;
+        long sequence;
+        writeLock.lock();
+        try {
+            Task created = delegate.createTask(title, description, status);
+            beginRecord(CREATE_TASK, created.getId());
+            writeFields(created);
+            sequence = appendOrUndo(() -> delegate.deleteTask(created.getId()));
+            task = created;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+        return task;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(UPDATE_TASK, task.getId());
+            writeFields(task);
+            sequence = log.append(record);
+            delegate.updateTask(task);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_TASK, id);
+            sequence = log.append(record);
+            delegate.deleteTask(id);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_ALL_TASKS, 0);
+            sequence = log.append(record);
+            delegate.deleteAllTasks();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        Epic epic;
+        long sequence;
+        writeLock.lock();
+        try {
+            Epic created = delegate.createEpic(title, description);
+            beginRecord(CREATE_EPIC, created.getId());
+            record.writeString(created.getTitle());
+            record.writeString(created.getDescription());
+            sequence = appendOrUndo(() -> delegate.deleteEpic(created.getId()));
+            epic = created;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+        return epic;
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(UPDATE_EPIC, epic.getId());
+            writeFields(epic);
+            ReadOnlyIntSet subtaskIds = epic.getSubtaskIds();
+            record.writeVarInt(subtaskIds.size());
+            PrimitiveIterator.OfInt iterator = subtaskIds.iterator();
+            while (iterator.hasNext()) {
+                record.writeVarInt(iterator.nextInt());
+            }
+            sequence = log.append(record);
+            delegate.updateEpic(epic);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_EPIC, id);
+            sequence = log.append(record);
+            delegate.deleteEpic(id);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_ALL_EPICS, 0);
+            sequence = log.append(record);
+            delegate.deleteAllEpics();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        Subtask subtask;
+        long sequence;
+        writeLock.lock();
+        try {
+            Subtask created = delegate.createSubtask(title, description, status, epicId);
+            if (created == null) {
+                return null;
+            }
+            beginRecord(CREATE_SUBTASK, created.getId());
+            writeFields(created);
+            record.writeVarInt(created.getEpicId());
+            sequence = appendOrUndo(() -> delegate.deleteSubtask(created.getId()));
+            subtask = created;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+        return subtask;
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(UPDATE_SUBTASK, subtask.getId());
+            writeFields(subtask);
+            record.writeVarInt(subtask.getEpicId());
+            sequence = log.append(record);
+            delegate.updateSubtask(subtask);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_SUBTASK, id);
+            sequence = log.append(record);
+            delegate.deleteSubtask(id);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(DELETE_ALL_SUBTASKS, 0);
+            sequence = log.append(record);
+            delegate.deleteAllSubtasks();
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        int[] createdIds;
+        long sequence;
+        writeLock.lock();
+        try {
+            beginRecord(APPLY_BATCH, batch.size());
+            batch.writeTo(record);
+            sequence = log.append(record);
+            createdIds = delegate.applyBatch(batch);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(sequence);
+        return createdIds;
+    }
+
+    public void flush() {
+        log.flush();
+    }
+
+    public long getLogSize() {
+        return log.size();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    private void beginRecord(int operation, int id) {
+        record.reset();
+        record.writeByte(operation);
+        record.writeVarInt(id);
+    }
+
+    private void writeFields(Task task) {
+        record.writeString(task.getTitle());
+        record.writeString(task.getDescription());
+        record.writeByte(task.getStatus().ordinal());
+    }
+
+    private long appendOrUndo(Runnable undo) {
+        try {
+            return log.append(record);
+        } catch (RuntimeException e) {
+            undo.run();
+            throw e;
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        if (syncOnWrite) {
+            log.sync(sequence);
+        }
+    }
+
+    private void replay(BinaryReader reader) {
+        int operation = reader.readByte();
+        int id = reader.readVarInt();
+        switch (operation) {
+            case CREATE_TASK:
+                Task task = delegate.createTask(reader.readString(), reader.readString(), readStatus(reader));
+                checkReplayedId(id, task);
+                break;
+            case UPDATE_TASK:
+                delegate.updateTask(new Task(reader.readString(), reader.readString(), id, readStatus(reader)));
+                break;
+            case DELETE_TASK:
+                delegate.deleteTask(id);
+                break;
+            case DELETE_ALL_TASKS:
+                delegate.deleteAllTasks();
+                break;
+            case CREATE_EPIC:
+                Epic createdEpic = delegate.createEpic(reader.readString(), reader.readString());
+                checkReplayedId(id, createdEpic);
+                break;
+            case UPDATE_EPIC:
+                Epic epic = new Epic(reader.readString(), reader.readString(), id);
+                epic.setStatus(readStatus(reader));
+                int subtaskCount = reader.readVarInt();
+                for (int i = 0; i < subtaskCount; i++) {
+                    epic.addSubtaskId(reader.readVarInt());
+                }
+                delegate.updateEpic(epic);
+                break;
+            case DELETE_EPIC:
+                delegate.deleteEpic(id);
+                break;
+            case DELETE_ALL_EPICS:
+                delegate.deleteAllEpics();
+                break;
+            case CREATE_SUBTASK:
+                Subtask subtask = delegate.createSubtask(reader.readString(), reader.readString(),
+                        readStatus(reader), reader.readVarInt());
+                checkReplayedId(id, subtask);
+                break;
+            case UPDATE_SUBTASK:
+                delegate.updateSubtask(new Subtask(reader.readString(), reader.readString(), id,
+                        readStatus(reader), reader.readVarInt()));
+                break;
+            case DELETE_SUBTASK:
+                delegate.deleteSubtask(id);
+                break;
+            case DELETE_ALL_SUBTASKS:
+                delegate.deleteAllSubtasks();
+                break;
+            case APPLY_BATCH:
+                replayBatch(TaskBatch.readFrom(reader, id));
+                break;
+            default:
+                throw new ManagerLoadException("Unknown log operation " + operation);
+        }
+    }
+
+    private void replayBatch(TaskBatch batch) {
+        try {
+            delegate.applyBatch(batch);
+        } catch (RuntimeException e) {
+            if (e instanceof ManagerLoadException) {
+                throw e;
+            }
+        }
+    }
+
+    static TaskStatus readStatus(BinaryReader reader) {
+        int ordinal = reader.readByte();
+        if (ordinal >= STATUSES.length) {
+            throw new ManagerLoadException("Unknown task status " + ordinal);
+        }
+        return STATUSES[ordinal];
+    }
+
+    private static void checkReplayedId(int loggedId, Task replayed) {
+        if (replayed == null || replayed.getId() != loggedId) {
+            throw new ManagerLoadException("Replayed task does not match logged id " + loggedId);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+abstract class ForwardingTaskManager implements TaskManager {
+    protected final TaskManager delegate;
+
+    protected ForwardingTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        return delegate.createTask(title, description, status);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return delegate.getTask(id);
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return delegate.getAllTasks();
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return delegate.getAllTasksView();
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return delegate.getTasksByStatus(status);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getTasksByStatus(status, cursor, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        delegate.updateTask(task);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        delegate.deleteTask(id);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        delegate.deleteAllTasks();
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        return delegate.createEpic(title, description);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return delegate.getEpic(id);
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return delegate.getAllEpics();
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return delegate.getAllEpicsView();
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return delegate.getEpicsByStatus(status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getEpicsByStatus(status, cursor, limit);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        delegate.updateEpic(epic);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        delegate.deleteEpic(id);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        delegate.deleteAllEpics();
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        return delegate.createSubtask(title, description, status, epicId);
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return delegate.getSubtask(id);
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return delegate.getAllSubtasks();
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return delegate.getAllSubtasksView();
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return delegate.getSubtasksByStatus(status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return delegate.getSubtasksByStatus(status, cursor, limit);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        delegate.updateSubtask(subtask);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        delegate.deleteSubtask(id);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        delegate.deleteAllSubtasks();
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return delegate.getEpicSubtasks(epicId);
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return delegate.getEpicSubtasksView(epicId);
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        return delegate.getEpicProgress(epicId);
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        return delegate.getStatusCounts(type);
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return delegate.applyBatch(batch);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        delegate.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        delegate.unsubscribe(listener);
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return delegate.getHistoryView();
+    }
+}
@@ -1,10 +1,15 @@
 package tracker;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface HistoryManager {
 
     void add(Task task);
 
+    void remove(int id);
+
     List<Task> getHistory();
+
+    Collection<Task> getHistoryView();
 }
\ No newline at end of file
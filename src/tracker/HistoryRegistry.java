@@ -0,0 +1,138 @@
+package tracker;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+public final class HistoryRegistry {
+
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final int maxSessions;
+    private final int historyCapacity;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, SessionHistory> sessions;
+    private long evictionCount;
+
+    public HistoryRegistry() {
+        this(DEFAULT_MAX_SESSIONS, InMemoryHistoryManager.DEFAULT_HISTORY_SIZE, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public HistoryRegistry(int maxSessions, int historyCapacity, Duration idleTimeout) {
+        this(maxSessions, historyCapacity, idleTimeout, System::nanoTime);
+    }
+
+    HistoryRegistry(int maxSessions, int historyCapacity, Duration idleTimeout, LongSupplier clock) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions must be positive: " + maxSessions);
+        }
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("historyCapacity must be positive: " + historyCapacity);
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be positive: " + idleTimeout);
+        }
+        this.maxSessions = maxSessions;
+        this.historyCapacity = historyCapacity;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized void add(String sessionId, int id) {
+        long now = clock.getAsLong();
+        evictIdle(now);
+        SessionHistory history = sessions.get(sessionId);
+        if (history == null) {
+            if (sessions.size() >= maxSessions) {
+                evictEldest();
+            }
+            history = new SessionHistory(historyCapacity);
+            sessions.put(sessionId, history);
+        }
+        history.add(id);
+        history.lastAccess = now;
+    }
+
+    public synchronized int[] getHistoryIds(String sessionId) {
+        long now = clock.getAsLong();
+        evictIdle(now);
+        SessionHistory history = sessions.get(sessionId);
+        if (history == null) {
+            return NO_IDS;
+        }
+        history.lastAccess = now;
+        return Arrays.copyOf(history.ids, history.size);
+    }
+
+    public synchronized void endSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    public synchronized int getSessionCount() {
+        evictIdle(clock.getAsLong());
+        return sessions.size();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public int getHistoryCapacity() {
+        return historyCapacity;
+    }
+
+    private void evictIdle(long now) {
+        Iterator<SessionHistory> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastAccess < idleTimeoutNanos) {
+                return;
+            }
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<SessionHistory> iterator = sessions.values().iterator();
+        iterator.next();
+        iterator.remove();
+        evictionCount++;
+    }
+
+    private static final class SessionHistory {
+        private final int[] ids;
+        private int size;
+        private long lastAccess;
+
+        private SessionHistory(int capacity) {
+            this.ids = new int[capacity];
+        }
+
+        private void add(int id) {
+            int from = 0;
+            while (from < size && ids[from] != id) {
+                from++;
+            }
+            if (from == size) {
+                if (size < ids.length) {
+                    size++;
+                } else {
+                    from = 0;
+                }
+            }
+            System.arraycopy(ids, from + 1, ids, from, size - 1 - from);
+            ids[size - 1] = id;
+        }
+    }
+}
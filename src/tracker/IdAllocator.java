@@ -0,0 +1,11 @@
+package tracker;
+
+public interface IdAllocator {
+    int MAX_ID = Integer.MAX_VALUE;
+
+    int nextId();
+
+    int getHighWaterMark();
+
+    void advanceTo(int id);
+}
@@ -1,15 +1,37 @@
 package tracker;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private static final int MAX_HISTORY_SIZE = 10;
-    private final List<Task> history;
+    public static final int DEFAULT_HISTORY_SIZE = 10;
+
+    private final int capacity;
+    private final HashMap<Integer, Node> nodes;
+    private final Collection<Task> historyView;
+    private Node head;
+    private Node tail;
+    private int modCount;
+    private long evictionCount;
 
     public InMemoryHistoryManager() {
-        this.history = new ArrayList<>();
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.nodes = new HashMap<>();
+        this.historyView = new HistoryView();
     }
 
     @Override
@@ -18,15 +40,121 @@ public class InMemoryHistoryManager implements HistoryManager {
             return;
         }
 
-        if (history.size() >= MAX_HISTORY_SIZE) {
-            history.remove(0);
+        Node node = nodes.get(task.getId());
+        if (node != null) {
+            unlink(node);
+            node.task = task;
+        } else {
+            if (nodes.size() >= capacity) {
+                nodes.remove(head.task.getId());
+                unlink(head);
+                evictionCount++;
+            }
+            node = new Node(task);
+            nodes.put(task.getId(), node);
         }
+        linkLast(node);
+        modCount++;
+    }
 
-        history.add(task);
+    @Override
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            unlink(node);
+            modCount++;
+        }
     }
 
     @Override
     public List<Task> getHistory() {
-        return new ArrayList<>(history);
+        List<Task> history = new ArrayList<>(nodes.size());
+        for (Node node = head; node != null; node = node.next) {
+            history.add(node.task);
+        }
+        return history;
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return historyView;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void linkLast(Node node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private final class HistoryView extends AbstractCollection<Task> {
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<>() {
+                private Node node = head;
+                private final int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return node != null;
+                }
+
+                @Override
+                public Task next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (node == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Task task = node.task;
+                    node = node.next;
+                    return task;
+                }
+            };
+        }
+    }
+
+    private static final class Node {
+        private Task task;
+        private Node prev;
+        private Node next;
+
+        private Node(Task task) {
+            this.task = task;
+        }
     }
 }
\ No newline at end of file
@@ -1,31 +1,102 @@
 package tracker;
 
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.Supplier;
 
 public class InMemoryTaskManager implements TaskManager {
+    static final int RECLAIM_BATCH = 64;
+
     private HashMap<Integer, Task> tasks;
     private HashMap<Integer, Epic> epics;
     private HashMap<Integer, Subtask> subtasks;
-    private int nextId;
+    private final StatusIndex taskStatuses;
+    private final StatusIndex epicStatuses;
+    private final StatusIndex subtaskStatuses;
+    private SearchIndex searchIndex;
+    private IntSet deferredEpicStatus;
+    private ArrayDeque<Runnable> undo;
+    private ArrayList<Runnable> pendingEffects;
+    private TaskEventBus events;
+    private ChangeFeed changes;
+    private final ArrayDeque<Retired> retired;
+    private final Epic.Generation subtaskGeneration;
+    private final IdAllocator idAllocator;
     private final HistoryManager historyManager;
+    private HistoryRegistry sessionHistories;
 
     public InMemoryTaskManager() {
-        this.tasks = new HashMap<>();
-        this.epics = new HashMap<>();
-        this.subtasks = new HashMap<>();
-        this.nextId = 1;
-        this.historyManager = Managers.getDefaultHistory();
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new SequentialIdAllocator());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, IdAllocator idAllocator) {
+        this(historyManager, idAllocator, 0, 0, 0);
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, HistoryRegistry sessionHistories) {
+        this(historyManager);
+        this.sessionHistories = sessionHistories;
+    }
+
+    InMemoryTaskManager(HistoryManager historyManager, int expectedTasks, int expectedEpics, int expectedSubtasks) {
+        this(historyManager, new SequentialIdAllocator(), expectedTasks, expectedEpics, expectedSubtasks);
+    }
+
+    InMemoryTaskManager(HistoryManager historyManager, IdAllocator idAllocator,
+                        int expectedTasks, int expectedEpics, int expectedSubtasks) {
+        this.tasks = new HashMap<>(capacityFor(expectedTasks));
+        this.epics = new HashMap<>(capacityFor(expectedEpics));
+        this.subtasks = new HashMap<>(capacityFor(expectedSubtasks));
+        this.taskStatuses = new StatusIndex();
+        this.epicStatuses = new StatusIndex();
+        this.subtaskStatuses = new StatusIndex();
+        this.retired = new ArrayDeque<>();
+        this.subtaskGeneration = new Epic.Generation();
+        this.idAllocator = idAllocator;
+        this.historyManager = historyManager;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(Math.max(expectedSize, 12) / 0.75));
+    }
+
+    private static <T> HashMap<Integer, T> withRoomFor(HashMap<Integer, T> map, int additional) {
+        if (additional <= map.size()) {
+            return map;
+        }
+        HashMap<Integer, T> resized = new HashMap<>(capacityFor(map.size() + additional));
+        resized.putAll(map);
+        return resized;
     }
 
     private int generateId() {
-        return nextId++;
+        return idAllocator.nextId();
     }
 
     @Override
     public Task createTask(String title, String description, TaskStatus status) {
+        reclaim(RECLAIM_BATCH);
         Task task = new Task(title, description, generateId(), status);
         tasks.put(task.getId(), task);
+        if (undo != null) {
+            undo.push(() -> deleteTask(task.getId()));
+        }
+        taskStatuses.move(task, status);
+        indexText(task);
+        recordChange(null, task);
+        publish(TaskEvent.Kind.CREATED, task, null);
         return task;
     }
 
@@ -38,32 +109,89 @@ public class InMemoryTaskManager implements TaskManager {
         return task;
     }
 
+    public Task getTask(String sessionId, int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            getSessionHistories().add(sessionId, id);
+        }
+        return task;
+    }
+
     @Override
     public ArrayList<Task> getAllTasks() {
         return new ArrayList<>(tasks.values());
     }
 
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return new ValuesView<>(() -> tasks);
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return collect(taskStatuses.ids(status, tasks), tasks);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(taskStatuses.ids(status, tasks), tasks, cursor, limit);
+    }
+
     @Override
     public void updateTask(Task task) {
-        if (tasks.containsKey(task.getId())) {
+        reclaim(RECLAIM_BATCH);
+        Task previous = tasks.get(task.getId());
+        if (previous != null) {
             tasks.put(task.getId(), task);
+            if (undo != null) {
+                undo.push(() -> updateTask(previous));
+            }
+            recordChange(previous, task);
+            task.setIndexedStatus(previous.getIndexedStatus());
+            taskStatuses.move(task, task.getStatus());
+            indexText(task);
+            publish(TaskEvent.Kind.UPDATED, task, null);
         }
     }
 
     @Override
     public void deleteTask(int id) {
-        tasks.remove(id);
+        reclaim(RECLAIM_BATCH);
+        Task task = tasks.remove(id);
+        if (task != null) {
+            if (undo != null) {
+                undo.push(() -> reinstate(task));
+            }
+            taskStatuses.remove(task);
+            unindexText(id);
+            historyManager.remove(id);
+            recordDeletion(task);
+            publish(TaskEvent.Kind.DELETED, task, null);
+        }
     }
 
     @Override
     public void deleteAllTasks() {
-        tasks.clear();
+        retire(tasks.values());
+        tasks = new HashMap<>();
+        taskStatuses.clear();
+        purgeHistory(TaskType.TASK);
+        publishCleared(TaskType.TASK);
     }
 
     @Override
     public Epic createEpic(String title, String description) {
+        reclaim(RECLAIM_BATCH);
         Epic epic = new Epic(title, description, generateId());
+        epic.attachSubtaskGeneration(subtaskGeneration);
         epics.put(epic.getId(), epic);
+        if (undo != null) {
+            undo.push(() -> deleteEpic(epic.getId()));
+        }
+        epicStatuses.move(epic, epic.getStatus());
+        indexText(epic);
+        recordChange(null, epic);
+        publish(TaskEvent.Kind.CREATED, epic, null);
         return epic;
     }
 
@@ -76,39 +204,106 @@ public class InMemoryTaskManager implements TaskManager {
         return epic;
     }
 
+    public Epic getEpic(String sessionId, int id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            getSessionHistories().add(sessionId, id);
+        }
+        return epic;
+    }
+
     @Override
     public ArrayList<Epic> getAllEpics() {
         return new ArrayList<>(epics.values());
     }
 
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return new ValuesView<>(() -> epics);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return collect(epicStatuses.ids(status, epics), epics);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return page(epicStatuses.ids(status, epics), epics, cursor, limit);
+    }
+
     @Override
     public void updateEpic(Epic epic) {
-        if (!epics.containsKey(epic.getId())) {
+        reclaim(RECLAIM_BATCH);
+        Epic previous = epics.get(epic.getId());
+        if (previous == null) {
             return;
         }
+        epic.attachSubtaskGeneration(subtaskGeneration);
+        epic.setIndexedStatus(previous.getIndexedStatus());
         epics.put(epic.getId(), epic);
-        updateEpicStatus(epic.getId());
+        if (undo != null) {
+            undo.push(() -> updateEpic(previous));
+        }
+        indexText(epic);
+        recordChange(previous, epic);
+        publish(TaskEvent.Kind.UPDATED, epic, null);
+        if (previous == epic) {
+            updateEpicStatus(epic);
+        } else {
+            recountEpicStatus(previous, epic);
+        }
     }
 
     @Override
     public void deleteEpic(int id) {
+        reclaim(RECLAIM_BATCH);
         Epic epic = epics.get(id);
         if (epic != null) {
-            for (int subtaskId : epic.getSubtaskIds()) {
-                subtasks.remove(subtaskId);
+            if (undo != null) {
+                undo.push(() -> reinstate(epic));
+            }
+            PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+            while (subtaskIds.hasNext()) {
+                int subtaskId = subtaskIds.nextInt();
+                Subtask subtask = subtasks.remove(subtaskId);
+                unindexText(subtaskId);
+                historyManager.remove(subtaskId);
+                if (subtask != null) {
+                    if (undo != null) {
+                        undo.push(() -> reinstate(subtask));
+                    }
+                    subtaskStatuses.remove(subtask);
+                    recordDeletion(subtask);
+                    publish(TaskEvent.Kind.DELETED, subtask, null);
+                }
             }
             epics.remove(id);
+            epicStatuses.remove(epic);
+            unindexText(id);
+            historyManager.remove(id);
+            recordDeletion(epic);
+            publish(TaskEvent.Kind.DELETED, epic, null);
         }
     }
 
     @Override
     public void deleteAllEpics() {
-        epics.clear();
-        subtasks.clear();
+        retire(subtasks.values());
+        retire(epics.values());
+        epics = new HashMap<>();
+        subtasks = new HashMap<>();
+        epicStatuses.clear();
+        subtaskStatuses.clear();
+        purgeHistory(TaskType.SUBTASK);
+        purgeHistory(TaskType.EPIC);
+        publishCleared(TaskType.SUBTASK);
+        publishCleared(TaskType.EPIC);
     }
 
     @Override
     public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        reclaim(RECLAIM_BATCH);
         Epic epic = epics.get(epicId);
         if (epic == null) {
             return null;
@@ -116,8 +311,17 @@ public class InMemoryTaskManager implements TaskManager {
 
         Subtask subtask = new Subtask(title, description, generateId(), status, epicId);
         subtasks.put(subtask.getId(), subtask);
+        if (undo != null) {
+            undo.push(() -> deleteSubtask(subtask.getId()));
+        }
+        subtaskStatuses.move(subtask, status);
+        indexText(subtask);
+        recordChange(null, subtask);
+        publish(TaskEvent.Kind.CREATED, subtask, null);
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epicId);
+        epic.countSubtaskStatus(status);
+        subtask.setCountedStatus(status);
+        updateEpicStatus(epic);
         return subtask;
     }
 
@@ -130,40 +334,97 @@ public class InMemoryTaskManager implements TaskManager {
         return subtask;
     }
 
+    public Subtask getSubtask(String sessionId, int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
+            getSessionHistories().add(sessionId, id);
+        }
+        return subtask;
+    }
+
     @Override
     public ArrayList<Subtask> getAllSubtasks() {
         return new ArrayList<>(subtasks.values());
     }
 
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return new ValuesView<>(() -> subtasks);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return collect(subtaskStatuses.ids(status, subtasks), subtasks);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(subtaskStatuses.ids(status, subtasks), subtasks, cursor, limit);
+    }
+
     @Override
     public void updateSubtask(Subtask subtask) {
-        if (subtasks.containsKey(subtask.getId())) {
-            subtasks.put(subtask.getId(), subtask);
-            updateEpicStatus(subtask.getEpicId());
+        reclaim(RECLAIM_BATCH);
+        Subtask previous = subtasks.get(subtask.getId());
+        if (previous == null) {
+            return;
+        }
+        subtask.setEpicId(previous.getEpicId());
+        subtasks.put(subtask.getId(), subtask);
+        if (undo != null) {
+            undo.push(() -> updateSubtask(previous));
+        }
+        subtask.setIndexedStatus(previous.getIndexedStatus());
+        subtaskStatuses.move(subtask, subtask.getStatus());
+        indexText(subtask);
+        recordChange(previous, subtask);
+        publish(TaskEvent.Kind.UPDATED, subtask, null);
+
+        TaskStatus countedStatus = previous.getCountedStatus();
+        subtask.setCountedStatus(countedStatus);
+
+        Epic epic = epics.get(previous.getEpicId());
+        if (epic != null && countedStatus != null) {
+            epic.changeSubtaskStatus(countedStatus, subtask.getStatus());
+            subtask.setCountedStatus(subtask.getStatus());
+            updateEpicStatus(epic);
         }
     }
 
     @Override
     public void deleteSubtask(int id) {
+        reclaim(RECLAIM_BATCH);
         Subtask subtask = subtasks.get(id);
         if (subtask != null) {
             Epic epic = epics.get(subtask.getEpicId());
+            if (undo != null) {
+                boolean linked = epic != null && epic.getSubtaskIds().contains(id);
+                int successorId = linked ? epic.nextSubtaskId(id) : 0;
+                undo.push(() -> reinstateSubtask(subtask, linked, successorId));
+            }
             if (epic != null) {
-                epic.removeSubtaskId(id);
-                updateEpicStatus(epic.getId());
+                if (epic.removeSubtaskId(id) && subtask.getCountedStatus() != null) {
+                    epic.uncountSubtaskStatus(subtask.getCountedStatus());
+                }
+                updateEpicStatus(epic);
             }
             subtasks.remove(id);
+            subtaskStatuses.remove(subtask);
+            unindexText(id);
+            historyManager.remove(id);
+            recordDeletion(subtask);
+            publish(TaskEvent.Kind.DELETED, subtask, null);
         }
     }
 
     @Override
     public void deleteAllSubtasks() {
-        subtasks.clear();
-
-        for (Epic epic : epics.values()) {
-            epic.clearSubtasks();
-            epic.setStatus(TaskStatus.NEW);
-        }
+        retire(subtasks.values());
+        subtasks = new HashMap<>();
+        subtaskStatuses.clear();
+        purgeHistory(TaskType.SUBTASK);
+        publishCleared(TaskType.SUBTASK);
+        resetEpicStatuses();
     }
 
     @Override
@@ -173,8 +434,10 @@ public class InMemoryTaskManager implements TaskManager {
             return new ArrayList<>();
         }
 
-        ArrayList<Subtask> epicSubtasks = new ArrayList<>();
-        for (int subtaskId : epic.getSubtaskIds()) {
+        ArrayList<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIds().size());
+        PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+        while (subtaskIds.hasNext()) {
+            int subtaskId = subtaskIds.nextInt();
             Subtask subtask = subtasks.get(subtaskId);
             if (subtask != null) {
                 epicSubtasks.add(subtask);
@@ -184,45 +447,519 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public ArrayList<Task> getHistory() {
-        return new ArrayList<>(historyManager.getHistory());
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return Collections.emptyList();
+        }
+        return new EpicSubtasksView(epicId);
     }
 
-    private void updateEpicStatus(int epicId) {
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
         Epic epic = epics.get(epicId);
-        if (epic == null) {
+        return epic == null ? null : StatusCounts.of(epic);
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        return switch (type) {
+            case TASK -> taskStatuses.counts();
+            case EPIC -> epicStatuses.counts();
+            case SUBTASK -> subtaskStatuses.counts();
+        };
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        tasks = withRoomFor(tasks, batch.getTaskCreates());
+        epics = withRoomFor(epics, batch.getEpicCreates());
+        subtasks = withRoomFor(subtasks, batch.getSubtaskCreates());
+
+        deferredEpicStatus = new IntSet();
+        undo = new ArrayDeque<>();
+        pendingEffects = new ArrayList<>();
+        try {
+            int[] createdIds = batch.applyTo(this);
+            undo = null;
+            IntSet affectedEpics = deferredEpicStatus;
+            deferredEpicStatus = null;
+            PrimitiveIterator.OfInt epicIds = affectedEpics.iterator();
+            while (epicIds.hasNext()) {
+                Epic epic = epics.get(epicIds.nextInt());
+                if (epic != null) {
+                    updateEpicStatus(epic);
+                }
+            }
+            ArrayList<Runnable> effects = pendingEffects;
+            pendingEffects = null;
+            for (Runnable effect : effects) {
+                effect.run();
+            }
+            return createdIds;
+        } catch (RuntimeException e) {
+            rollBack();
+            throw e;
+        } finally {
+            undo = null;
+            deferredEpicStatus = null;
+            pendingEffects = null;
+        }
+    }
+
+    private void rollBack() {
+        ArrayDeque<Runnable> compensations = undo;
+        undo = null;
+        if (compensations != null) {
+            while (!compensations.isEmpty()) {
+                compensations.pop().run();
+            }
+        }
+        IntSet affectedEpics = deferredEpicStatus;
+        deferredEpicStatus = null;
+        if (affectedEpics != null) {
+            PrimitiveIterator.OfInt epicIds = affectedEpics.iterator();
+            while (epicIds.hasNext()) {
+                Epic epic = epics.get(epicIds.nextInt());
+                if (epic != null) {
+                    epic.refreshStatus();
+                    epicStatuses.move(epic, epic.getStatus());
+                }
+            }
+        }
+        pendingEffects = null;
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        List<Task> history = historyManager.getHistory();
+        if (history instanceof ArrayList<Task> snapshot) {
+            return snapshot;
+        }
+        return new ArrayList<>(history);
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableCollection(historyManager.getHistoryView());
+    }
+
+    public ArrayList<Task> getHistory(String sessionId) {
+        int[] ids = getSessionHistories().getHistoryIds(sessionId);
+        ArrayList<Task> history = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = findById(id);
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        return history;
+    }
+
+    public void endSession(String sessionId) {
+        getSessionHistories().endSession(sessionId);
+    }
+
+    public HistoryRegistry getSessionHistories() {
+        if (sessionHistories == null) {
+            sessionHistories = new HistoryRegistry();
+        }
+        return sessionHistories;
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        if (events == null) {
+            events = new TaskEventBus();
+        }
+        events.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        if (events != null) {
+            events.unsubscribe(listener);
+        }
+    }
+
+    public long getVersion() {
+        return changeFeed().getVersion();
+    }
+
+    public TaskChanges changesSince(long version) {
+        ChangeFeed feed = changeFeed();
+        if (!feed.covers(version)) {
+            return TaskChanges.resync(getAllTasks(), getAllEpics(), getAllSubtasks(), feed.getVersion());
+        }
+        return feed.since(version, this::findById);
+    }
+
+    public int[] search(String query, int limit) {
+        reclaim(Integer.MAX_VALUE);
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex();
+            for (HashMap<Integer, ? extends Task> source : List.of(tasks, epics, subtasks)) {
+                for (Task task : source.values()) {
+                    indexText(task);
+                }
+            }
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    int getNextId() {
+        return idAllocator.getHighWaterMark();
+    }
+
+    void setNextId(int nextId) {
+        idAllocator.advanceTo(nextId);
+    }
+
+    Task findById(int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            return task;
+        }
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            return epic;
+        }
+        return subtasks.get(id);
+    }
+
+    void restore(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                ((Epic) task).attachSubtaskGeneration(subtaskGeneration);
+                epics.put(task.getId(), (Epic) task);
+                epicStatuses.move(task, task.getStatus());
+                break;
+            case SUBTASK:
+                Subtask subtask = (Subtask) task;
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new ManagerLoadException("Subtask " + subtask.getId()
+                            + " references missing epic " + subtask.getEpicId());
+                }
+                subtasks.put(subtask.getId(), subtask);
+                subtaskStatuses.move(subtask, subtask.getStatus());
+                epic.addSubtaskId(subtask.getId());
+                epic.countSubtaskStatus(subtask.getStatus());
+                subtask.setCountedStatus(subtask.getStatus());
+                updateEpicStatus(epic);
+                break;
+            default:
+                tasks.put(task.getId(), task);
+                taskStatuses.move(task, task.getStatus());
+        }
+        indexText(task);
+        recordChange(null, task);
+        idAllocator.advanceTo(task.getId() + 1);
+    }
+
+    private void reinstate(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                epics.put(task.getId(), (Epic) task);
+                epicStatuses.move(task, task.getStatus());
+                break;
+            case SUBTASK:
+                subtasks.put(task.getId(), (Subtask) task);
+                subtaskStatuses.move(task, task.getStatus());
+                break;
+            default:
+                tasks.put(task.getId(), task);
+                taskStatuses.move(task, task.getStatus());
+        }
+        indexText(task);
+    }
+
+    private void reinstateSubtask(Subtask subtask, boolean linked, int successorId) {
+        reinstate(subtask);
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null && linked) {
+            epic.insertSubtaskIdBefore(subtask.getId(), successorId);
+            if (subtask.getCountedStatus() != null) {
+                epic.countSubtaskStatus(subtask.getCountedStatus());
+            }
+            updateEpicStatus(epic);
+        }
+    }
+
+    void restoreHistory(Task task) {
+        historyManager.add(task);
+    }
+
+    private void updateEpicStatus(Epic epic) {
+        if (deferredEpicStatus != null) {
+            deferredEpicStatus.add(epic.getId());
             return;
         }
+        TaskStatus previousStatus = epic.getIndexedStatus();
+        epic.refreshStatus();
+        recordChange(epic, epic);
+        if (previousStatus != epic.getStatus()) {
+            epicStatuses.move(epic, epic.getStatus());
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, previousStatus);
+        }
+    }
 
-        ArrayList<Integer> subtaskIds = epic.getSubtaskIds();
+    private void retire(Collection<? extends Task> removed) {
+        if ((searchIndex != null || changes != null) && !removed.isEmpty()) {
+            retired.addLast(new Retired(removed.iterator(), changes == null ? 0 : changes.getVersion()));
+        }
+    }
 
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
+    private void reclaim(int limit) {
+        if (pendingEffects != null) {
             return;
         }
+        while (limit > 0 && !retired.isEmpty()) {
+            Retired batch = retired.peekFirst();
+            if (!batch.tasks.hasNext()) {
+                retired.pollFirst();
+                continue;
+            }
+            Task task = batch.tasks.next();
+            unindexText(task.getId());
+            recordDeletion(task);
+            if (changes != null && task instanceof Subtask subtask) {
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null && epic.getVersion() <= batch.retiredAt) {
+                    recordChange(epic, epic);
+                }
+            }
+            limit--;
+        }
+    }
+
+    private void resetEpicStatuses() {
+        boolean observed = changes != null || events != null;
+        int[] inProgress = observed ? epicStatuses.ids(TaskStatus.IN_PROGRESS, epics).toArray() : null;
+        int[] done = observed ? epicStatuses.ids(TaskStatus.DONE, epics).toArray() : null;
+        subtaskGeneration.advance();
+        epicStatuses.resetTo(TaskStatus.NEW);
+        if (observed) {
+            announceEpicStatusReset(inProgress, TaskStatus.IN_PROGRESS);
+            announceEpicStatusReset(done, TaskStatus.DONE);
+        }
+    }
+
+    private void announceEpicStatusReset(int[] ids, TaskStatus previousStatus) {
+        for (int id : ids) {
+            Epic epic = epics.get(id);
+            recordChange(epic, epic);
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, epic, previousStatus);
+        }
+    }
+
+    private void purgeHistory(TaskType type) {
+        for (Task task : historyManager.getHistory()) {
+            if (task.getType() == type) {
+                historyManager.remove(task.getId());
+            }
+        }
+    }
 
-        boolean allNew = true;
-        boolean allDone = true;
+    private ChangeFeed changeFeed() {
+        reclaim(Integer.MAX_VALUE);
+        if (changes == null) {
+            changes = new ChangeFeed();
+            for (HashMap<Integer, ? extends Task> source : List.of(tasks, epics, subtasks)) {
+                for (Task task : source.values()) {
+                    changes.recordChange(null, task);
+                }
+            }
+        }
+        return changes;
+    }
 
-        for (int subtaskId : subtaskIds) {
+    private void recordChange(Task previous, Task current) {
+        if (changes == null) {
+            return;
+        }
+        if (pendingEffects != null) {
+            pendingEffects.add(() -> changes.recordChange(previous, current));
+        } else {
+            changes.recordChange(previous, current);
+        }
+    }
+
+    private void recordDeletion(Task task) {
+        if (changes == null) {
+            return;
+        }
+        if (pendingEffects != null) {
+            pendingEffects.add(() -> changes.recordDeletion(task));
+        } else {
+            changes.recordDeletion(task);
+        }
+    }
+
+    private void indexText(Task task) {
+        if (searchIndex != null) {
+            searchIndex.put(task.getId(), task.getTitle(), task.getDescription());
+        }
+    }
+
+    private void unindexText(int id) {
+        if (searchIndex != null) {
+            searchIndex.remove(id);
+        }
+    }
+
+    private void publish(TaskEvent.Kind kind, Task task, TaskStatus previousStatus) {
+        if (events != null) {
+            publish(kind, task.getType(), task.getId(), task.getStatus(), previousStatus);
+        }
+    }
+
+    private void publishCleared(TaskType type) {
+        if (events != null) {
+            publish(TaskEvent.Kind.CLEARED, type, 0, null, null);
+        }
+    }
+
+    private void publish(TaskEvent.Kind kind, TaskType type, int id, TaskStatus status, TaskStatus previousStatus) {
+        if (pendingEffects != null) {
+            pendingEffects.add(() -> events.publish(kind, type, id, status, previousStatus));
+        } else {
+            events.publish(kind, type, id, status, previousStatus);
+        }
+    }
+
+    private void recountEpicStatus(Epic previous, Epic epic) {
+        PrimitiveIterator.OfInt previousSubtaskIds = previous.getSubtaskIds().iterator();
+        while (previousSubtaskIds.hasNext()) {
+            int subtaskId = previousSubtaskIds.nextInt();
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                subtask.setCountedStatus(null);
+            }
+        }
+
+        epic.resetSubtaskStatusCounts();
+        PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+        while (subtaskIds.hasNext()) {
+            int subtaskId = subtaskIds.nextInt();
             Subtask subtask = subtasks.get(subtaskId);
             if (subtask != null) {
-                TaskStatus status = subtask.getStatus();
-                if (status != TaskStatus.NEW) {
-                    allNew = false;
+                subtask.setCountedStatus(subtask.getStatus());
+                epic.countSubtaskStatus(subtask.getStatus());
+            }
+        }
+        updateEpicStatus(epic);
+    }
+
+    private static <T extends Task> ArrayList<T> collect(SortedIdSet ids, HashMap<Integer, T> source) {
+        ArrayList<T> result = new ArrayList<>(ids.size());
+        PrimitiveIterator.OfInt iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            result.add(source.get(iterator.nextInt()));
+        }
+        return result;
+    }
+
+    private static <T extends Task> TaskPage<T> page(SortedIdSet ids, HashMap<Integer, T> source,
+                                                     int cursor, int limit) {
+        TaskPage.checkLimit(limit);
+        PrimitiveIterator.OfInt iterator = cursor == TaskPage.START ? ids.iterator() : ids.iteratorAfter(cursor);
+        ArrayList<T> items = new ArrayList<>(Math.min(limit, ids.size()));
+        int last = cursor;
+        while (items.size() < limit && iterator.hasNext()) {
+            last = iterator.nextInt();
+            items.add(source.get(last));
+        }
+        return new TaskPage<>(items, last, iterator.hasNext());
+    }
+
+    private static final class ValuesView<T> extends AbstractCollection<T> {
+        private final Supplier<HashMap<Integer, T>> source;
+
+        private ValuesView(Supplier<HashMap<Integer, T>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public int size() {
+            return source.get().size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<T> iterator = source.get().values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
                 }
-                if (status != TaskStatus.DONE) {
-                    allDone = false;
+
+                @Override
+                public T next() {
+                    return iterator.next();
                 }
+            };
+        }
+    }
+
+    private final class EpicSubtasksView extends AbstractCollection<Subtask> {
+        private final int epicId;
+
+        private EpicSubtasksView(int epicId) {
+            this.epicId = epicId;
+        }
+
+        @Override
+        public int size() {
+            Epic epic = epics.get(epicId);
+            return epic == null ? 0 : epic.getCountedSubtasks();
+        }
+
+        @Override
+        public Iterator<Subtask> iterator() {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return Collections.emptyIterator();
             }
+            PrimitiveIterator.OfInt ids = epic.getSubtaskIds().iterator();
+            return new Iterator<>() {
+                private Subtask nextSubtask = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return nextSubtask != null;
+                }
+
+                @Override
+                public Subtask next() {
+                    if (nextSubtask == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Subtask subtask = nextSubtask;
+                    nextSubtask = advance();
+                    return subtask;
+                }
+
+                private Subtask advance() {
+                    while (ids.hasNext()) {
+                        Subtask subtask = subtasks.get(ids.nextInt());
+                        if (subtask != null) {
+                            return subtask;
+                        }
+                    }
+                    return null;
+                }
+            };
         }
+    }
 
-        if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+    private static final class Retired {
+        private final Iterator<? extends Task> tasks;
+        private final long retiredAt;
+
+        private Retired(Iterator<? extends Task> tasks, long retiredAt) {
+            this.tasks = tasks;
+            this.retiredAt = retiredAt;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package tracker;
+
+import java.util.Arrays;
+
+class IntIntMap {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] occupied;
+    private int size;
+
+    public IntIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntIntMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        allocate(Integer.highestOneBit(Math.max(expectedSize, DEFAULT_CAPACITY) * 2 - 1) << 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return occupied[slotOf(key)];
+    }
+
+    public int get(int key, int defaultValue) {
+        int slot = slotOf(key);
+        return occupied[slot] ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, int value) {
+        int slot = slotOf(key);
+        if (occupied[slot]) {
+            values[slot] = value;
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            slot = slotOf(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        occupied[slot] = true;
+        size++;
+    }
+
+    public boolean remove(int key) {
+        int slot = slotOf(key);
+        if (!occupied[slot]) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            if (!occupied[current]) {
+                break;
+            }
+            int home = hash(keys[current]) & mask;
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                keys[hole] = keys[current];
+                values[hole] = values[current];
+                hole = current;
+            }
+        }
+        occupied[hole] = false;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(occupied, false);
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (occupied[slot]) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        this.keys = new int[tableSize];
+        this.values = new int[tableSize];
+        this.occupied = new boolean[tableSize];
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldOccupied = occupied;
+
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldOccupied[i]) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                occupied[slot] = true;
+            }
+        }
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (occupied[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    interface EntryConsumer {
+        void accept(int key, int value);
+    }
+}
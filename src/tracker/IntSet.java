@@ -0,0 +1,329 @@
+package tracker;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+class IntSet implements ReadOnlyIntSet {
+    private static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] table;
+    private int[] values;
+    private int[] previous;
+    private int[] next;
+    private int head;
+    private int tail;
+    private int free;
+    private int used;
+    private int size;
+    private int modCount;
+    private ReadOnlyIntSet readOnlyView;
+
+    public IntSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        allocate(Math.max(expectedSize, DEFAULT_CAPACITY));
+        this.head = NONE;
+        this.tail = NONE;
+        this.free = NONE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return table[slotOf(value)] != 0;
+    }
+
+    public boolean add(int value) {
+        int slot = slotOf(value);
+        if (table[slot] != 0) {
+            return false;
+        }
+        link(value, false, 0);
+        return true;
+    }
+
+    public boolean addBefore(int value, int successor) {
+        if (contains(value)) {
+            return false;
+        }
+        link(value, contains(successor), successor);
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = slotOf(value);
+        int entry = table[slot] - 1;
+        if (entry < 0) {
+            return false;
+        }
+
+        clearSlot(slot);
+        if (previous[entry] == NONE) {
+            head = next[entry];
+        } else {
+            next[previous[entry]] = next[entry];
+        }
+        if (next[entry] == NONE) {
+            tail = previous[entry];
+        } else {
+            previous[next[entry]] = previous[entry];
+        }
+        next[entry] = free;
+        free = entry;
+        size--;
+        modCount++;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return iteratorFrom(head);
+    }
+
+    public PrimitiveIterator.OfInt iteratorAfter(int value) {
+        int entry = table[slotOf(value)] - 1;
+        if (entry < 0) {
+            throw new NoSuchElementException("Value " + value + " is not in the set");
+        }
+        return iteratorFrom(next[entry]);
+    }
+
+    public int valueBefore(int value, int none) {
+        int entry = table[slotOf(value)] - 1;
+        if (entry < 0) {
+            throw new NoSuchElementException("Value " + value + " is not in the set");
+        }
+        return previous[entry] == NONE ? none : values[previous[entry]];
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        int expectedModCount = modCount;
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            action.accept(values[entry]);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            result[i++] = values[entry];
+        }
+        return result;
+    }
+
+    public ReadOnlyIntSet asReadOnly() {
+        if (readOnlyView == null) {
+            readOnlyView = new ReadOnlyView(this);
+        }
+        return readOnlyView;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private PrimitiveIterator.OfInt iteratorFrom(int first) {
+        return new PrimitiveIterator.OfInt() {
+            private int entry = first;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return entry != NONE;
+            }
+
+            @Override
+            public int nextInt() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (entry == NONE) {
+                    throw new NoSuchElementException();
+                }
+                int value = values[entry];
+                entry = next[entry];
+                return value;
+            }
+        };
+    }
+
+    private void link(int value, boolean hasSuccessor, int successor) {
+        if (size == values.length) {
+            rehash(values.length * 2);
+        }
+        int slot = slotOf(value);
+        int before = hasSuccessor ? table[slotOf(successor)] - 1 : NONE;
+
+        int entry;
+        if (free != NONE) {
+            entry = free;
+            free = next[entry];
+        } else {
+            entry = used++;
+        }
+        values[entry] = value;
+        if (before == NONE) {
+            previous[entry] = tail;
+            next[entry] = NONE;
+            if (tail == NONE) {
+                head = entry;
+            } else {
+                next[tail] = entry;
+            }
+            tail = entry;
+        } else {
+            previous[entry] = previous[before];
+            next[entry] = before;
+            if (previous[before] == NONE) {
+                head = entry;
+            } else {
+                next[previous[before]] = entry;
+            }
+            previous[before] = entry;
+        }
+        table[slot] = entry + 1;
+        size++;
+        modCount++;
+    }
+
+    private void allocate(int capacity) {
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.values = new int[capacity];
+        this.previous = new int[capacity];
+        this.next = new int[capacity];
+    }
+
+    private void rehash(int capacity) {
+        int[] oldValues = values;
+        int[] oldNext = next;
+        int entry = head;
+
+        allocate(capacity);
+        for (int i = 0; i < size; i++) {
+            values[i] = oldValues[entry];
+            previous[i] = i - 1;
+            next[i] = i + 1 < size ? i + 1 : NONE;
+            table[slotOf(values[i])] = i + 1;
+            entry = oldNext[entry];
+        }
+        head = size > 0 ? 0 : NONE;
+        tail = size - 1;
+        free = NONE;
+        used = size;
+    }
+
+    private int slotOf(int value) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0 || values[entry - 1] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void clearSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int entry = table[current];
+            if (entry == 0) {
+                break;
+            }
+            int home = hash(values[entry - 1]) & mask;
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                table[hole] = entry;
+                hole = current;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class ReadOnlyView implements ReadOnlyIntSet {
+        private final IntSet set;
+
+        ReadOnlyView(IntSet set) {
+            this.set = set;
+        }
+
+        @Override
+        public int size() {
+            return set.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return set.isEmpty();
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return set.contains(value);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return set.iterator();
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            set.forEach(action);
+        }
+
+        @Override
+        public int[] toArray() {
+            return set.toArray();
+        }
+
+        @Override
+        public String toString() {
+            return set.toString();
+        }
+    }
+}
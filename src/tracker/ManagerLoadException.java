@@ -0,0 +1,13 @@
+package tracker;
+
+public class ManagerLoadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ManagerLoadException(String message) {
+        super(message);
+    }
+
+    public ManagerLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,12 +1,75 @@
 package tracker;
 
+import java.nio.file.Path;
+
 public class Managers {
 
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(IdAllocator idAllocator) {
+        return new InMemoryTaskManager(getDefaultHistory(), idAllocator);
+    }
+
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getCopyOnWrite() {
+        return new CopyOnWriteTaskManager();
+    }
+
+    public static TaskManager getSharded() {
+        return new ShardedTaskManager();
+    }
+
+    public static ColumnarTaskManager getColumnar() {
+        return new ColumnarTaskManager();
+    }
+
+    public static FileBackedTaskManager getFileBacked(Path logFile) {
+        return new FileBackedTaskManager(logFile);
+    }
+
+    public static SnapshottingTaskManager getSnapshotting(Path snapshotFile) {
+        return new SnapshottingTaskManager(snapshotFile);
+    }
+
+    public static MappedTaskManager getMapped(Path directory) {
+        return new MappedTaskManager(directory);
+    }
+
+    public static AsyncTaskManager getAsync() {
+        return new AsyncTaskManager();
+    }
+
+    public static MetricsTaskManager getInstrumented() {
+        MetricsHistoryManager historyManager = getInstrumentedHistory();
+        return new MetricsTaskManager(new InMemoryTaskManager(historyManager), historyManager);
+    }
+
+    public static MetricsHistoryManager getInstrumentedHistory() {
+        return new MetricsHistoryManager(getDefaultHistory());
+    }
+
+    public static MetricsHistoryManager getInstrumentedHistory(int capacity) {
+        return new MetricsHistoryManager(getDefaultHistory(capacity));
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
+    public static HistoryManager getConcurrentHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
 }
\ No newline at end of file
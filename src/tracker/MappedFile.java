@@ -0,0 +1,134 @@
+package tracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+class MappedFile implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final int segmentShift;
+    private final int segmentMask;
+    private MappedByteBuffer[] segments;
+    private int mappedSegments;
+
+    public MappedFile(Path path, int segmentShift) {
+        if (segmentShift < 12 || segmentShift > 30) {
+            throw new IllegalArgumentException("segmentShift must be in [12, 30]: " + segmentShift);
+        }
+        this.path = path;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        this.segments = new MappedByteBuffer[8];
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Failed to open " + path, e);
+        }
+        try {
+            ensureCapacity(Math.max(channel.size(), 1));
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw new ManagerLoadException("Failed to map " + path, e);
+        }
+    }
+
+    public void ensureCapacity(long size) {
+        int required = (int) ((size + segmentMask) >>> segmentShift);
+        if (required <= mappedSegments) {
+            return;
+        }
+        if (required > segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(required, segments.length * 2));
+        }
+        try {
+            for (int i = mappedSegments; i < required; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << segmentShift, 1L << segmentShift);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to grow " + path, e);
+        }
+        mappedSegments = required;
+    }
+
+    public byte getByte(long position) {
+        return segment(position).get(offset(position));
+    }
+
+    public void putByte(long position, int value) {
+        segment(position).put(offset(position), (byte) value);
+    }
+
+    public int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    public void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    public long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    public void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    public void get(long position, byte[] target, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long current = position + copied;
+            int chunk = Math.min(length - copied, segmentMask + 1 - offset(current));
+            segment(current).get(offset(current), target, copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    public void put(long position, byte[] source, int length) {
+        ensureCapacity(position + length);
+        int copied = 0;
+        while (copied < length) {
+            long current = position + copied;
+            int chunk = Math.min(length - copied, segmentMask + 1 - offset(current));
+            segment(current).put(offset(current), source, copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    public void force() {
+        for (int i = 0; i < mappedSegments; i++) {
+            segments[i].force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to close " + path, e);
+        }
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments[(int) (position >>> segmentShift)];
+    }
+
+    private int offset(long position) {
+        return (int) (position & segmentMask);
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,801 @@
+package tracker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public class MappedTaskManager implements TaskManager, AutoCloseable {
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final int MAGIC = 0x4B4D4150;
+    private static final int FORMAT_VERSION = 2;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int RECORD_SIZE = 64;
+    private static final int RECORD_SHIFT = 6;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_NEXT_ID = 8;
+    private static final int HEADER_ARENA_SIZE = 16;
+    private static final int HEADER_STATUS_COUNTS = 24;
+
+    private static final int TYPE = 0;
+    private static final int STATUS = 1;
+    private static final int EPIC_ID = 4;
+    private static final int TITLE_OFFSET = 8;
+    private static final int TITLE_LENGTH = 16;
+    private static final int DESCRIPTION_LENGTH = 20;
+    private static final int DESCRIPTION_OFFSET = 24;
+    private static final int PREVIOUS_SUBTASK = 32;
+    private static final int NEXT_SUBTASK = 36;
+    private static final int FIRST_SUBTASK = 32;
+    private static final int LAST_SUBTASK = 36;
+    private static final int STATUS_COUNTS = 40;
+
+    private static final int EMPTY = 0;
+    private static final int NULL_STRING = -1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final MappedFile records;
+    private final MappedFile strings;
+    private final HistoryManager historyManager;
+    private final LinkedHashMap<Integer, Task> cache;
+    private int nextId;
+    private long arenaSize;
+    private TaskEventBus events;
+
+    public MappedTaskManager(Path directory) {
+        this(directory, Managers.getDefaultHistory(), DEFAULT_CACHE_SIZE);
+    }
+
+    public MappedTaskManager(Path directory, HistoryManager historyManager, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative: " + cacheSize);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Failed to create store directory " + directory, e);
+        }
+        this.records = new MappedFile(directory.resolve("tasks.records"), SEGMENT_SHIFT);
+        try {
+            this.strings = new MappedFile(directory.resolve("tasks.strings"), SEGMENT_SHIFT);
+        } catch (RuntimeException e) {
+            records.close();
+            throw e;
+        }
+        this.historyManager = historyManager;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        int magic = records.getInt(HEADER_MAGIC);
+        if (magic == 0) {
+            records.putInt(HEADER_MAGIC, MAGIC);
+            records.putInt(HEADER_VERSION, FORMAT_VERSION);
+            records.putInt(HEADER_NEXT_ID, 1);
+            records.putLong(HEADER_ARENA_SIZE, 0);
+        } else if (magic != MAGIC) {
+            closeFiles(strings, records);
+            throw new ManagerLoadException("Directory " + directory + " does not contain a task store");
+        } else if (records.getInt(HEADER_VERSION) != FORMAT_VERSION && records.getInt(HEADER_VERSION) != 1) {
+            closeFiles(strings, records);
+            throw new ManagerLoadException("Unsupported task store version " + records.getInt(HEADER_VERSION));
+        }
+        this.nextId = records.getInt(HEADER_NEXT_ID);
+        this.arenaSize = records.getLong(HEADER_ARENA_SIZE);
+        if (records.getInt(HEADER_VERSION) == 1) {
+            upgradeStatusCounts();
+        }
+    }
+
+    public void flush() {
+        strings.force();
+        records.force();
+    }
+
+    @Override
+    public void close() {
+        closeFiles(strings, records);
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        long record = allocate(TaskType.TASK, status, title, description);
+        Task task = new Task(title, description, idOf(record), status);
+        cache.put(task.getId(), copyOf(task));
+        publish(TaskEvent.Kind.CREATED, TaskType.TASK, task.getId(), status, null);
+        return task;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return recordView(find(id, TaskType.TASK));
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(getAllTasksView());
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return new RecordView<>(TaskType.TASK);
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllTasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllTasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long record = recordOf(task.getId(), TaskType.TASK);
+        if (record < 0) {
+            return;
+        }
+        writeFields(record, task);
+        cache.remove(task.getId());
+        publish(TaskEvent.Kind.UPDATED, TaskType.TASK, task.getId(), task.getStatus(), null);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long record = recordOf(id, TaskType.TASK);
+        if (record >= 0) {
+            free(record);
+            historyManager.remove(id);
+            publish(TaskEvent.Kind.DELETED, TaskType.TASK, id, STATUSES[records.getByte(record + STATUS)], null);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (int id = 1; id < nextId; id++) {
+            if (typeAt(id) == TaskType.TASK) {
+                free(recordPosition(id));
+            }
+        }
+        purgeHistory(TaskType.TASK);
+        publish(TaskEvent.Kind.CLEARED, TaskType.TASK, 0, null, null);
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        long record = allocate(TaskType.EPIC, TaskStatus.NEW, title, description);
+        records.putInt(record + FIRST_SUBTASK, 0);
+        records.putInt(record + LAST_SUBTASK, 0);
+        for (int i = 0; i < STATUSES.length; i++) {
+            records.putInt(record + STATUS_COUNTS + 4L * i, 0);
+        }
+        publish(TaskEvent.Kind.CREATED, TaskType.EPIC, idOf(record), TaskStatus.NEW, null);
+        return (Epic) find(idOf(record), TaskType.EPIC);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return (Epic) recordView(find(id, TaskType.EPIC));
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return new ArrayList<>(getAllEpicsView());
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return new RecordView<>(TaskType.EPIC);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllEpicsView(), status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllEpicsView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long record = recordOf(epic.getId(), TaskType.EPIC);
+        if (record < 0) {
+            return;
+        }
+        writeStrings(record, epic.getTitle(), epic.getDescription());
+        cache.remove(epic.getId());
+        publish(TaskEvent.Kind.UPDATED, TaskType.EPIC, epic.getId(), epicStatus(record), null);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        long record = recordOf(id, TaskType.EPIC);
+        if (record < 0) {
+            return;
+        }
+        int subtaskId = records.getInt(record + FIRST_SUBTASK);
+        while (subtaskId != 0) {
+            long subtask = recordPosition(subtaskId);
+            int next = records.getInt(subtask + NEXT_SUBTASK);
+            free(subtask);
+            historyManager.remove(subtaskId);
+            publish(TaskEvent.Kind.DELETED, TaskType.SUBTASK, subtaskId,
+                    STATUSES[records.getByte(subtask + STATUS)], null);
+            subtaskId = next;
+        }
+        free(record);
+        historyManager.remove(id);
+        publish(TaskEvent.Kind.DELETED, TaskType.EPIC, id, epicStatus(record), null);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        for (int id = 1; id < nextId; id++) {
+            TaskType type = typeAt(id);
+            if (type == TaskType.EPIC || type == TaskType.SUBTASK) {
+                free(recordPosition(id));
+            }
+        }
+        purgeHistory(TaskType.SUBTASK);
+        purgeHistory(TaskType.EPIC);
+        publish(TaskEvent.Kind.CLEARED, TaskType.SUBTASK, 0, null, null);
+        publish(TaskEvent.Kind.CLEARED, TaskType.EPIC, 0, null, null);
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        long epic = recordOf(epicId, TaskType.EPIC);
+        if (epic < 0) {
+            return null;
+        }
+
+        TaskStatus epicStatus = epicStatus(epic);
+        long record = allocate(TaskType.SUBTASK, status, title, description);
+        int id = idOf(record);
+        int last = records.getInt(epic + LAST_SUBTASK);
+        records.putInt(record + EPIC_ID, epicId);
+        records.putInt(record + PREVIOUS_SUBTASK, last);
+        records.putInt(record + NEXT_SUBTASK, 0);
+        if (last == 0) {
+            records.putInt(epic + FIRST_SUBTASK, id);
+        } else {
+            records.putInt(recordPosition(last) + NEXT_SUBTASK, id);
+        }
+        records.putInt(epic + LAST_SUBTASK, id);
+        addStatusCount(epic, status, 1);
+        cache.remove(epicId);
+        publish(TaskEvent.Kind.CREATED, TaskType.SUBTASK, id, status, null);
+        publishEpicStatus(epicId, epic, epicStatus);
+
+        Subtask subtask = new Subtask(title, description, id, status, epicId);
+        subtask.setCountedStatus(status);
+        cache.put(id, copyOf(subtask));
+        return subtask;
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return (Subtask) recordView(find(id, TaskType.SUBTASK));
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return new ArrayList<>(getAllSubtasksView());
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return new RecordView<>(TaskType.SUBTASK);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return TaskPage.filter(getAllSubtasksView(), status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return TaskPage.scan(getAllSubtasksView(), status, cursor, limit);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long record = recordOf(subtask.getId(), TaskType.SUBTASK);
+        if (record < 0) {
+            return;
+        }
+        TaskStatus previousStatus = STATUSES[records.getByte(record + STATUS)];
+        writeFields(record, subtask);
+        cache.remove(subtask.getId());
+        publish(TaskEvent.Kind.UPDATED, TaskType.SUBTASK, subtask.getId(), subtask.getStatus(), null);
+
+        if (previousStatus != subtask.getStatus()) {
+            int epicId = records.getInt(record + EPIC_ID);
+            long epic = recordPosition(epicId);
+            TaskStatus epicStatus = epicStatus(epic);
+            addStatusCount(epic, previousStatus, -1);
+            addStatusCount(epic, subtask.getStatus(), 1);
+            cache.remove(epicId);
+            publishEpicStatus(epicId, epic, epicStatus);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        long record = recordOf(id, TaskType.SUBTASK);
+        if (record < 0) {
+            return;
+        }
+        int epicId = records.getInt(record + EPIC_ID);
+        long epic = recordPosition(epicId);
+        int previous = records.getInt(record + PREVIOUS_SUBTASK);
+        int next = records.getInt(record + NEXT_SUBTASK);
+        if (previous == 0) {
+            records.putInt(epic + FIRST_SUBTASK, next);
+        } else {
+            records.putInt(recordPosition(previous) + NEXT_SUBTASK, next);
+        }
+        if (next == 0) {
+            records.putInt(epic + LAST_SUBTASK, previous);
+        } else {
+            records.putInt(recordPosition(next) + PREVIOUS_SUBTASK, previous);
+        }
+        TaskStatus epicStatus = epicStatus(epic);
+        TaskStatus status = STATUSES[records.getByte(record + STATUS)];
+        addStatusCount(epic, status, -1);
+        free(record);
+        historyManager.remove(id);
+        cache.remove(epicId);
+        publish(TaskEvent.Kind.DELETED, TaskType.SUBTASK, id, status, null);
+        publishEpicStatus(epicId, epic, epicStatus);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        for (int id = 1; id < nextId; id++) {
+            TaskType type = typeAt(id);
+            long record = recordPosition(id);
+            if (type == TaskType.SUBTASK) {
+                free(record);
+            } else if (type == TaskType.EPIC) {
+                TaskStatus epicStatus = epicStatus(record);
+                records.putInt(record + FIRST_SUBTASK, 0);
+                records.putInt(record + LAST_SUBTASK, 0);
+                for (int i = 0; i < STATUSES.length; i++) {
+                    records.putInt(record + STATUS_COUNTS + 4L * i, 0);
+                }
+                cache.remove(id);
+                publishEpicStatus(id, record, epicStatus);
+            }
+        }
+        purgeHistory(TaskType.SUBTASK);
+        publish(TaskEvent.Kind.CLEARED, TaskType.SUBTASK, 0, null, null);
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        return new ArrayList<>(getEpicSubtasksView(epicId));
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        long epic = recordOf(epicId, TaskType.EPIC);
+        if (epic < 0) {
+            return Collections.emptyList();
+        }
+        return new EpicSubtasksView(epic);
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        long epic = recordOf(epicId, TaskType.EPIC);
+        if (epic < 0) {
+            return null;
+        }
+        int[] counts = new int[STATUSES.length];
+        for (TaskStatus status : STATUSES) {
+            counts[status.ordinal()] = records.getInt(epic + STATUS_COUNTS + 4L * status.ordinal());
+        }
+        return new StatusCounts(counts);
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        int[] counts = new int[STATUSES.length];
+        for (TaskStatus status : STATUSES) {
+            counts[status.ordinal()] = records.getInt(statusCountField(type, status));
+        }
+        return new StatusCounts(counts);
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return batch.applyTo(this);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        if (events == null) {
+            events = new TaskEventBus();
+        }
+        events.subscribe(listener);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        if (events != null) {
+            events.unsubscribe(listener);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        List<Task> history = historyManager.getHistory();
+        if (history instanceof ArrayList<Task> snapshot) {
+            return snapshot;
+        }
+        return new ArrayList<>(history);
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableCollection(historyManager.getHistoryView());
+    }
+
+    private Task recordView(Task task) {
+        if (task != null) {
+            historyManager.add(task);
+        }
+        return task;
+    }
+
+    private long allocate(TaskType type, TaskStatus status, String title, String description) {
+        int id = nextId++;
+        records.putInt(HEADER_NEXT_ID, nextId);
+        long record = recordPosition(id);
+        records.ensureCapacity(record + RECORD_SIZE);
+        records.putLong(record + TITLE_OFFSET, 0);
+        records.putInt(record + TITLE_LENGTH, NULL_STRING);
+        records.putInt(record + DESCRIPTION_LENGTH, NULL_STRING);
+        records.putLong(record + DESCRIPTION_OFFSET, 0);
+        writeStrings(record, title, description);
+        records.putByte(record + STATUS, status.ordinal());
+        records.putByte(record + TYPE, type.ordinal() + 1);
+        countStatus(type, status, 1);
+        return record;
+    }
+
+    private void purgeHistory(TaskType type) {
+        for (Task task : historyManager.getHistory()) {
+            if (task.getType() == type) {
+                historyManager.remove(task.getId());
+            }
+        }
+    }
+
+    private void free(long record) {
+        TaskType type = TYPES[records.getByte(record + TYPE) - 1];
+        countStatus(type, statusAt(record, type), -1);
+        records.putByte(record + TYPE, EMPTY);
+        cache.remove(idOf(record));
+    }
+
+    private void writeFields(long record, Task task) {
+        TaskType type = TYPES[records.getByte(record + TYPE) - 1];
+        countStatus(type, STATUSES[records.getByte(record + STATUS)], -1);
+        countStatus(type, task.getStatus(), 1);
+        writeStrings(record, task.getTitle(), task.getDescription());
+        records.putByte(record + STATUS, task.getStatus().ordinal());
+    }
+
+    private void writeStrings(long record, String title, String description) {
+        writeString(record + TITLE_OFFSET, record + TITLE_LENGTH, title);
+        writeString(record + DESCRIPTION_OFFSET, record + DESCRIPTION_LENGTH, description);
+    }
+
+    private void writeString(long offsetField, long lengthField, String value) {
+        if (value == null) {
+            records.putInt(lengthField, NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int storedLength = records.getInt(lengthField);
+        if (storedLength == bytes.length) {
+            byte[] stored = new byte[storedLength];
+            strings.get(records.getLong(offsetField), stored, storedLength);
+            if (Arrays.equals(stored, bytes)) {
+                return;
+            }
+        }
+
+        long offset = arenaSize;
+        strings.put(offset, bytes, bytes.length);
+        arenaSize += bytes.length;
+        records.putLong(HEADER_ARENA_SIZE, arenaSize);
+        records.putLong(offsetField, offset);
+        records.putInt(lengthField, bytes.length);
+    }
+
+    private String readString(long offsetField, long lengthField) {
+        int length = records.getInt(lengthField);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get(records.getLong(offsetField), bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void addCount(int headerField, int delta) {
+        records.putInt(headerField, records.getInt(headerField) + delta);
+    }
+
+    private void addStatusCount(long epic, TaskStatus status, int delta) {
+        long field = epic + STATUS_COUNTS + 4L * status.ordinal();
+        records.putInt(field, records.getInt(field) + delta);
+    }
+
+    private void countStatus(TaskType type, TaskStatus status, int delta) {
+        addCount(statusCountField(type, status), delta);
+    }
+
+    private int typeCount(TaskType type) {
+        int count = 0;
+        for (TaskStatus status : STATUSES) {
+            count += records.getInt(statusCountField(type, status));
+        }
+        return count;
+    }
+
+    private void upgradeStatusCounts() {
+        for (TaskType type : TYPES) {
+            for (TaskStatus status : STATUSES) {
+                records.putInt(statusCountField(type, status), 0);
+            }
+        }
+        for (int id = 1; id < nextId; id++) {
+            TaskType type = typeAt(id);
+            if (type != null) {
+                countStatus(type, statusAt(recordPosition(id), type), 1);
+            }
+        }
+        records.putInt(HEADER_VERSION, FORMAT_VERSION);
+    }
+
+    private static int statusCountField(TaskType type, TaskStatus status) {
+        return HEADER_STATUS_COUNTS + 4 * (type.ordinal() * STATUSES.length + status.ordinal());
+    }
+
+    private TaskStatus statusAt(long record, TaskType type) {
+        return type == TaskType.EPIC ? epicStatus(record) : STATUSES[records.getByte(record + STATUS)];
+    }
+
+    private TaskStatus epicStatus(long epic) {
+        int total = 0;
+        for (TaskStatus status : STATUSES) {
+            total += records.getInt(epic + STATUS_COUNTS + 4L * status.ordinal());
+        }
+        if (records.getInt(epic + STATUS_COUNTS + 4L * TaskStatus.NEW.ordinal()) == total) {
+            return TaskStatus.NEW;
+        }
+        if (records.getInt(epic + STATUS_COUNTS + 4L * TaskStatus.DONE.ordinal()) == total) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    private void publishEpicStatus(int epicId, long epic, TaskStatus previousStatus) {
+        TaskStatus status = epicStatus(epic);
+        if (status != previousStatus) {
+            countStatus(TaskType.EPIC, previousStatus, -1);
+            countStatus(TaskType.EPIC, status, 1);
+            publish(TaskEvent.Kind.EPIC_STATUS_CHANGED, TaskType.EPIC, epicId, status, previousStatus);
+        }
+    }
+
+    private void publish(TaskEvent.Kind kind, TaskType type, int id, TaskStatus status, TaskStatus previousStatus) {
+        if (events != null) {
+            events.publish(kind, type, id, status, previousStatus);
+        }
+    }
+
+    private static void closeFiles(MappedFile strings, MappedFile records) {
+        try {
+            strings.close();
+        } finally {
+            records.close();
+        }
+    }
+
+    private Task find(int id, TaskType type) {
+        Task cached = cache.get(id);
+        if (cached != null) {
+            return cached.getType() == type ? copyOf(cached) : null;
+        }
+        long record = recordOf(id, type);
+        if (record < 0) {
+            return null;
+        }
+        Task task = materialize(id, record, type);
+        cache.put(id, copyOf(task));
+        return task;
+    }
+
+    private static Task copyOf(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                Epic epic = (Epic) task;
+                Epic epicCopy = new Epic(epic.getTitle(), epic.getDescription(), epic.getId());
+                PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+                while (subtaskIds.hasNext()) {
+                    epicCopy.addSubtaskId(subtaskIds.nextInt());
+                }
+                for (TaskStatus subtaskStatus : STATUSES) {
+                    epicCopy.setSubtaskStatusCount(subtaskStatus, epic.getSubtaskStatusCount(subtaskStatus));
+                }
+                epicCopy.refreshStatus();
+                return epicCopy;
+            case SUBTASK:
+                Subtask subtask = (Subtask) task;
+                Subtask subtaskCopy = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getId(),
+                        subtask.getStatus(), subtask.getEpicId());
+                subtaskCopy.setCountedStatus(subtask.getCountedStatus());
+                return subtaskCopy;
+            default:
+                return new Task(task.getTitle(), task.getDescription(), task.getId(), task.getStatus());
+        }
+    }
+
+    private Task materialize(int id, long record, TaskType type) {
+        String title = readString(record + TITLE_OFFSET, record + TITLE_LENGTH);
+        String description = readString(record + DESCRIPTION_OFFSET, record + DESCRIPTION_LENGTH);
+        TaskStatus status = STATUSES[records.getByte(record + STATUS)];
+        switch (type) {
+            case EPIC:
+                Epic epic = new Epic(title, description, id);
+                int subtaskId = records.getInt(record + FIRST_SUBTASK);
+                while (subtaskId != 0) {
+                    epic.addSubtaskId(subtaskId);
+                    subtaskId = records.getInt(recordPosition(subtaskId) + NEXT_SUBTASK);
+                }
+                for (TaskStatus subtaskStatus : STATUSES) {
+                    epic.setSubtaskStatusCount(subtaskStatus,
+                            records.getInt(record + STATUS_COUNTS + 4L * subtaskStatus.ordinal()));
+                }
+                epic.refreshStatus();
+                return epic;
+            case SUBTASK:
+                Subtask subtask = new Subtask(title, description, id, status, records.getInt(record + EPIC_ID));
+                subtask.setCountedStatus(status);
+                return subtask;
+            default:
+                return new Task(title, description, id, status);
+        }
+    }
+
+    private long recordOf(int id, TaskType type) {
+        return typeAt(id) == type ? recordPosition(id) : -1;
+    }
+
+    private TaskType typeAt(int id) {
+        if (id <= 0 || id >= nextId) {
+            return null;
+        }
+        int type = records.getByte(recordPosition(id) + TYPE);
+        return type == EMPTY ? null : TYPES[type - 1];
+    }
+
+    private static long recordPosition(int id) {
+        return (long) id << RECORD_SHIFT;
+    }
+
+    private static int idOf(long record) {
+        return (int) (record >>> RECORD_SHIFT);
+    }
+
+    private final class RecordView<T extends Task> extends AbstractCollection<T> {
+        private final TaskType type;
+
+        private RecordView(TaskType type) {
+            this.type = type;
+        }
+
+        @Override
+        public int size() {
+            return typeCount(type);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                private int id = advance(1);
+
+                @Override
+                public boolean hasNext() {
+                    return id < nextId;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Task cached = cache.get(id);
+                    T task = (T) (cached != null ? copyOf(cached) : materialize(id, recordPosition(id), type));
+                    id = advance(id + 1);
+                    return task;
+                }
+
+                private int advance(int from) {
+                    int current = from;
+                    while (current < nextId && typeAt(current) != type) {
+                        current++;
+                    }
+                    return current;
+                }
+            };
+        }
+    }
+
+    private final class EpicSubtasksView extends AbstractCollection<Subtask> {
+        private final long epic;
+
+        private EpicSubtasksView(long epic) {
+            this.epic = epic;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (TaskStatus status : STATUSES) {
+                size += records.getInt(epic + STATUS_COUNTS + 4L * status.ordinal());
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<Subtask> iterator() {
+            return new Iterator<>() {
+                private int id = records.getInt(epic + FIRST_SUBTASK);
+
+                @Override
+                public boolean hasNext() {
+                    return id != 0;
+                }
+
+                @Override
+                public Subtask next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Subtask subtask = (Subtask) find(id, TaskType.SUBTASK);
+                    id = records.getInt(recordPosition(id) + NEXT_SUBTASK);
+                    return subtask;
+                }
+            };
+        }
+    }
+}
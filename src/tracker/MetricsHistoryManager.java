@@ -0,0 +1,53 @@
+package tracker;
+
+import java.util.Collection;
+import java.util.List;
+
+public class MetricsHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+    private final Histogram addLatency;
+
+    public MetricsHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        this.addLatency = new Histogram();
+    }
+
+    @Override
+    public void add(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.add(task);
+        } finally {
+            addLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return delegate.getHistoryView();
+    }
+
+    public HistogramSnapshot getAddLatency() {
+        return addLatency.snapshot();
+    }
+
+    public long getEvictionCount() {
+        if (delegate instanceof InMemoryHistoryManager historyManager) {
+            return historyManager.getEvictionCount();
+        }
+        if (delegate instanceof ConcurrentHistoryManager historyManager) {
+            return historyManager.getEvictionCount();
+        }
+        return 0;
+    }
+}
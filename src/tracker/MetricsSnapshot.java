@@ -0,0 +1,61 @@
+package tracker;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class MetricsSnapshot {
+    private final EnumMap<MetricsTaskManager.Operation, HistogramSnapshot> operations;
+    private final HistogramSnapshot epicSizes;
+    private final HistogramSnapshot historyAdds;
+    private final long historyEvictions;
+
+    MetricsSnapshot(EnumMap<MetricsTaskManager.Operation, HistogramSnapshot> operations, HistogramSnapshot epicSizes,
+                    HistogramSnapshot historyAdds, long historyEvictions) {
+        this.operations = operations;
+        this.epicSizes = epicSizes;
+        this.historyAdds = historyAdds;
+        this.historyEvictions = historyEvictions;
+    }
+
+    public Map<MetricsTaskManager.Operation, HistogramSnapshot> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    public HistogramSnapshot getLatency(MetricsTaskManager.Operation operation) {
+        return operations.get(operation);
+    }
+
+    public long getCount(MetricsTaskManager.Operation operation) {
+        return operations.get(operation).getCount();
+    }
+
+    public HistogramSnapshot getEpicSizes() {
+        return epicSizes;
+    }
+
+    public HistogramSnapshot getHistoryAdds() {
+        return historyAdds;
+    }
+
+    public long getHistoryEvictions() {
+        return historyEvictions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<MetricsTaskManager.Operation, HistogramSnapshot> entry : operations.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                text.append(entry.getKey().name().toLowerCase(Locale.ROOT)).append("_ns ").append(entry.getValue()).append('\n');
+            }
+        }
+        if (historyAdds != null) {
+            text.append("history_add_ns ").append(historyAdds).append('\n');
+            text.append("history_evictions ").append(historyEvictions).append('\n');
+        }
+        text.append("epic_size ").append(epicSizes).append('\n');
+        return text.toString();
+    }
+}
@@ -0,0 +1,278 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+
+public class MetricsTaskManager extends ForwardingTaskManager {
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Histogram[] latencies;
+    private final MetricsHistoryManager historyManager;
+
+    public MetricsTaskManager(TaskManager delegate) {
+        this(delegate, null);
+    }
+
+    public MetricsTaskManager(TaskManager delegate, MetricsHistoryManager historyManager) {
+        super(delegate);
+        this.latencies = new Histogram[OPERATIONS.length];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTask(title, description, status);
+        } finally {
+            record(Operation.CREATE_TASK, start);
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTask(id);
+        } finally {
+            record(Operation.GET_TASK, start);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            record(Operation.GET_ALL_TASKS, start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            record(Operation.UPDATE_TASK, start);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteTask(id);
+        } finally {
+            record(Operation.DELETE_TASK, start);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllTasks();
+        } finally {
+            record(Operation.DELETE_ALL_TASKS, start);
+        }
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createEpic(title, description);
+        } finally {
+            record(Operation.CREATE_EPIC, start);
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpic(id);
+        } finally {
+            record(Operation.GET_EPIC, start);
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllEpics();
+        } finally {
+            record(Operation.GET_ALL_EPICS, start);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            record(Operation.UPDATE_EPIC, start);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteEpic(id);
+        } finally {
+            record(Operation.DELETE_EPIC, start);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllEpics();
+        } finally {
+            record(Operation.DELETE_ALL_EPICS, start);
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createSubtask(title, description, status, epicId);
+        } finally {
+            record(Operation.CREATE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtask(id);
+        } finally {
+            record(Operation.GET_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllSubtasks();
+        } finally {
+            record(Operation.GET_ALL_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSubtask(subtask);
+        } finally {
+            record(Operation.UPDATE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteSubtask(id);
+        } finally {
+            record(Operation.DELETE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllSubtasks();
+        } finally {
+            record(Operation.DELETE_ALL_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpicSubtasks(epicId);
+        } finally {
+            record(Operation.GET_EPIC_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        long start = System.nanoTime();
+        try {
+            return delegate.applyBatch(batch);
+        } finally {
+            record(Operation.APPLY_BATCH, start);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getHistory();
+        } finally {
+            record(Operation.GET_HISTORY, start);
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        EnumMap<Operation, HistogramSnapshot> operations = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            operations.put(operation, latencies[operation.ordinal()].snapshot());
+        }
+        Histogram epicSizes = new Histogram();
+        for (Epic epic : delegate.getAllEpicsView()) {
+            epicSizes.record(epic.getSubtaskIds().size());
+        }
+        if (historyManager == null) {
+            return new MetricsSnapshot(operations, epicSizes.snapshot(), null, 0);
+        }
+        return new MetricsSnapshot(operations, epicSizes.snapshot(), historyManager.getAddLatency(),
+                historyManager.getEvictionCount());
+    }
+
+    private void record(Operation operation, long start) {
+        latencies[operation.ordinal()].record(System.nanoTime() - start);
+    }
+
+    public enum Operation {
+        CREATE_TASK,
+        GET_TASK,
+        GET_ALL_TASKS,
+        UPDATE_TASK,
+        DELETE_TASK,
+        DELETE_ALL_TASKS,
+        CREATE_EPIC,
+        GET_EPIC,
+        GET_ALL_EPICS,
+        UPDATE_EPIC,
+        DELETE_EPIC,
+        DELETE_ALL_EPICS,
+        CREATE_SUBTASK,
+        GET_SUBTASK,
+        GET_ALL_SUBTASKS,
+        UPDATE_SUBTASK,
+        DELETE_SUBTASK,
+        DELETE_ALL_SUBTASKS,
+        GET_EPIC_SUBTASKS,
+        APPLY_BATCH,
+        GET_HISTORY
+    }
+}
@@ -0,0 +1,14 @@
+package tracker;
+
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+interface ReadOnlyIntSet {
+
+    int size();
+    boolean isEmpty();
+    boolean contains(int value);
+    PrimitiveIterator.OfInt iterator();
+    void forEach(IntConsumer action);
+    int[] toArray();
+}
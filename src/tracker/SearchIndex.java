@@ -0,0 +1,220 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+class SearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_PENALTY = 0.5;
+
+    private final TreeMap<String, IntIntMap> postings;
+    private final HashMap<Integer, Document> documents;
+
+    public SearchIndex() {
+        this.postings = new TreeMap<>();
+        this.documents = new HashMap<>();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public void put(int id, String title, String description) {
+        Document current = documents.get(id);
+        if (current != null) {
+            if (Objects.equals(current.title, title) && Objects.equals(current.description, description)) {
+                return;
+            }
+            unlink(id, current);
+        }
+
+        LinkedHashMap<String, Integer> weights = new LinkedHashMap<>();
+        for (String term : tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new IntIntMap()).put(id, entry.getValue());
+        }
+        documents.put(id, new Document(title, description, weights.keySet().toArray(new String[0])));
+    }
+
+    public void remove(int id) {
+        Document document = documents.remove(id);
+        if (document != null) {
+            unlink(id, document);
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    public int[] search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        List<Clause> clauses = new ArrayList<>(tokens.size());
+        Clause driver = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Clause clause = clauseFor(tokens.get(i), i == tokens.size() - 1);
+            if (clause.isEmpty()) {
+                return new int[0];
+            }
+            clauses.add(clause);
+            if (driver == null || clause.postingCount < driver.postingCount) {
+                driver = clause;
+            }
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit::compareWorstFirst);
+        IntSet seen = new IntSet(driver.postingCount);
+        for (IntIntMap termPostings : driver.postings) {
+            termPostings.forEach((id, weight) -> {
+                if (!seen.add(id)) {
+                    return;
+                }
+                double score = 0;
+                for (Clause clause : clauses) {
+                    double clauseScore = clause.score(id);
+                    if (clauseScore == 0) {
+                        return;
+                    }
+                    score += clauseScore;
+                }
+                Hit hit = new Hit(id, score);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (Hit.compareWorstFirst(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            });
+        }
+
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll().id;
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private Clause clauseFor(String token, boolean prefix) {
+        Clause clause = new Clause();
+        IntIntMap exact = postings.get(token);
+        if (exact != null) {
+            clause.add(exact, idf(exact), 1.0);
+        }
+        if (prefix) {
+            NavigableMap<String, IntIntMap> matches = postings.subMap(token, false, token + Character.MAX_VALUE, false);
+            for (IntIntMap termPostings : matches.values()) {
+                clause.add(termPostings, idf(termPostings), PREFIX_PENALTY);
+            }
+        }
+        return clause;
+    }
+
+    private double idf(IntIntMap termPostings) {
+        return Math.log(1.0 + (double) documents.size() / termPostings.size());
+    }
+
+    private void unlink(int id, Document document) {
+        for (String term : document.terms) {
+            IntIntMap termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static final class Document {
+        private final String title;
+        private final String description;
+        private final String[] terms;
+
+        private Document(String title, String description, String[] terms) {
+            this.title = title;
+            this.description = description;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Clause {
+        private final List<IntIntMap> postings = new ArrayList<>();
+        private final List<Double> multipliers = new ArrayList<>();
+        private int postingCount;
+
+        private void add(IntIntMap termPostings, double idf, double penalty) {
+            postings.add(termPostings);
+            multipliers.add(idf * penalty);
+            postingCount += termPostings.size();
+        }
+
+        private boolean isEmpty() {
+            return postings.isEmpty();
+        }
+
+        private double score(int id) {
+            double best = 0;
+            for (int i = 0; i < postings.size(); i++) {
+                int weight = postings.get(i).get(id, 0);
+                if (weight > 0) {
+                    best = Math.max(best, weight * multipliers.get(i));
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Hit {
+        private final int id;
+        private final double score;
+
+        private Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        private static int compareWorstFirst(Hit first, Hit second) {
+            int byScore = Double.compare(first.score, second.score);
+            return byScore != 0 ? byScore : Integer.compare(second.id, first.id);
+        }
+    }
+}
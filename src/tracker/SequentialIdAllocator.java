@@ -0,0 +1,45 @@
+package tracker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SequentialIdAllocator implements IdAllocator {
+    private final long stride;
+    private final long first;
+    private final AtomicLong next;
+
+    public SequentialIdAllocator() {
+        this(1, 1);
+    }
+
+    public SequentialIdAllocator(int first, int stride) {
+        if (first <= 0) {
+            throw new IllegalArgumentException("first must be positive: " + first);
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride must be positive: " + stride);
+        }
+        this.first = first;
+        this.stride = stride;
+        this.next = new AtomicLong(first);
+    }
+
+    @Override
+    public int nextId() {
+        long id = next.getAndAdd(stride);
+        if (id > MAX_ID) {
+            throw new IllegalStateException("Id space exhausted after " + MAX_ID);
+        }
+        return (int) id;
+    }
+
+    @Override
+    public int getHighWaterMark() {
+        return (int) Math.min(next.get(), MAX_ID);
+    }
+
+    @Override
+    public void advanceTo(int id) {
+        long aligned = id <= first ? first : first + (id - first + stride - 1) / stride * stride;
+        next.accumulateAndGet(aligned, Math::max);
+    }
+}
@@ -0,0 +1,91 @@
+package tracker;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class ShardIdSpace {
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int PAGE_SIZE = 4096;
+
+    private final int blockSize;
+    private final AtomicLong nextBlock;
+    private final AtomicReferenceArray<AtomicIntegerArray> owners;
+
+    ShardIdSpace(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.nextBlock = new AtomicLong();
+        long blocks = (IdAllocator.MAX_ID + (long) blockSize - 1) / blockSize;
+        this.owners = new AtomicReferenceArray<>((int) ((blocks + PAGE_SIZE - 1) / PAGE_SIZE));
+    }
+
+    IdAllocator allocatorFor(int shard) {
+        return new ShardAllocator(shard);
+    }
+
+    int shardOf(int id) {
+        if (id <= 0) {
+            return -1;
+        }
+        int block = (id - 1) / blockSize;
+        AtomicIntegerArray page = owners.get(block / PAGE_SIZE);
+        return page == null ? -1 : page.get(block % PAGE_SIZE) - 1;
+    }
+
+    private long lease(int shard) {
+        long block = nextBlock.getAndIncrement();
+        long start = block * blockSize + 1;
+        if (start > IdAllocator.MAX_ID) {
+            throw new IllegalStateException("Id space exhausted after " + IdAllocator.MAX_ID);
+        }
+        int pageIndex = (int) (block / PAGE_SIZE);
+        AtomicIntegerArray page = owners.get(pageIndex);
+        if (page == null) {
+            owners.compareAndSet(pageIndex, null, new AtomicIntegerArray(PAGE_SIZE));
+            page = owners.get(pageIndex);
+        }
+        page.set((int) (block % PAGE_SIZE), shard + 1);
+        return start;
+    }
+
+    private void reserveThrough(int id) {
+        nextBlock.accumulateAndGet((id - 1L + blockSize - 1) / blockSize, Math::max);
+    }
+
+    private final class ShardAllocator implements IdAllocator {
+        private final int shard;
+        private long next;
+        private long end;
+
+        private ShardAllocator(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public int nextId() {
+            if (next == end) {
+                next = lease(shard);
+                end = Math.min(next + blockSize, (long) MAX_ID + 1);
+            }
+            return (int) next++;
+        }
+
+        @Override
+        public int getHighWaterMark() {
+            long mark = next < end ? next : nextBlock.get() * blockSize + 1;
+            return (int) Math.min(mark, MAX_ID);
+        }
+
+        @Override
+        public void advanceTo(int id) {
+            reserveThrough(id);
+            if (id > next) {
+                next = Math.min(id, end);
+            }
+        }
+    }
+}
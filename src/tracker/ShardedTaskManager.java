@@ -0,0 +1,578 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ShardedTaskManager implements TaskManager {
+    private final InMemoryTaskManager[] shards;
+    private final ShardHistory[] histories;
+    private final ReentrantLock[] locks;
+    private final ShardIdSpace ids;
+    private final AtomicInteger nextShard;
+    private final AtomicLong historyClock;
+    private final int historyCapacity;
+
+    public ShardedTaskManager() {
+        this(Runtime.getRuntime().availableProcessors(), InMemoryHistoryManager.DEFAULT_HISTORY_SIZE);
+    }
+
+    public ShardedTaskManager(int shardCount, int historyCapacity) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("historyCapacity must be positive: " + historyCapacity);
+        }
+        this.shards = new InMemoryTaskManager[shardCount];
+        this.histories = new ShardHistory[shardCount];
+        this.locks = new ReentrantLock[shardCount];
+        this.historyClock = new AtomicLong();
+        this.ids = new ShardIdSpace(ShardIdSpace.DEFAULT_BLOCK_SIZE);
+        for (int i = 0; i < shardCount; i++) {
+            histories[i] = new ShardHistory(historyClock, historyCapacity);
+            shards[i] = new InMemoryTaskManager(histories[i], ids.allocatorFor(i));
+            locks[i] = new ReentrantLock();
+        }
+        this.nextShard = new AtomicInteger();
+        this.historyCapacity = historyCapacity;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    int shardOf(int id) {
+        return ids.shardOf(id);
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        int shard = pickShard();
+        lock(shard);
+        try {
+            return shards[shard].createTask(title, description, status);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return null;
+        }
+        lock(shard);
+        try {
+            return shards[shard].getTask(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        ArrayList<Task> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getAllTasksView());
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return Collections.unmodifiableList(getAllTasks());
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        ArrayList<Task> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getTasksByStatus(status));
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(cursor, limit, (shard, shardCursor, shardLimit) ->
+                shard.getTasksByStatus(status, shardCursor, shardLimit));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        int shard = shardOf(task.getId());
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].updateTask(task);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].deleteTask(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                shards[shard].deleteAllTasks();
+            } finally {
+                unlock(shard);
+            }
+        }
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        int shard = pickShard();
+        lock(shard);
+        try {
+            return shards[shard].createEpic(title, description);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return null;
+        }
+        lock(shard);
+        try {
+            return shards[shard].getEpic(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        ArrayList<Epic> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getAllEpicsView());
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return Collections.unmodifiableList(getAllEpics());
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        ArrayList<Epic> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getEpicsByStatus(status));
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        return page(cursor, limit, (shard, shardCursor, shardLimit) ->
+                shard.getEpicsByStatus(status, shardCursor, shardLimit));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        int shard = shardOf(epic.getId());
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].updateEpic(epic);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].deleteEpic(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                shards[shard].deleteAllEpics();
+            } finally {
+                unlock(shard);
+            }
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        int shard = shardOf(epicId);
+        if (shard < 0) {
+            return null;
+        }
+        lock(shard);
+        try {
+            return shards[shard].createSubtask(title, description, status, epicId);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return null;
+        }
+        lock(shard);
+        try {
+            return shards[shard].getSubtask(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        ArrayList<Subtask> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getAllSubtasksView());
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return Collections.unmodifiableList(getAllSubtasks());
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        ArrayList<Subtask> result = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result.addAll(shards[shard].getSubtasksByStatus(status));
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        return page(cursor, limit, (shard, shardCursor, shardLimit) ->
+                shard.getSubtasksByStatus(status, shardCursor, shardLimit));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        int shard = shardOf(subtask.getId());
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].updateSubtask(subtask);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        int shard = shardOf(id);
+        if (shard < 0) {
+            return;
+        }
+        lock(shard);
+        try {
+            shards[shard].deleteSubtask(id);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                shards[shard].deleteAllSubtasks();
+            } finally {
+                unlock(shard);
+            }
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        int shard = shardOf(epicId);
+        if (shard < 0) {
+            return new ArrayList<>();
+        }
+        lock(shard);
+        try {
+            return shards[shard].getEpicSubtasks(epicId);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return Collections.unmodifiableList(getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        int shard = shardOf(epicId);
+        if (shard < 0) {
+            return null;
+        }
+        lock(shard);
+        try {
+            return shards[shard].getEpicProgress(epicId);
+        } finally {
+            unlock(shard);
+        }
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        StatusCounts result = new StatusCounts(new int[TaskStatus.values().length]);
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                result = result.plus(shards[shard].getStatusCounts(type));
+            } finally {
+                unlock(shard);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        return batch.applyTo(this);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        for (InMemoryTaskManager shard : shards) {
+            shard.subscribe(listener);
+        }
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        for (InMemoryTaskManager shard : shards) {
+            shard.unsubscribe(listener);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        ArrayList<Stamped> merged = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                merged.addAll(histories[shard].entries.values());
+            } finally {
+                unlock(shard);
+            }
+        }
+        merged.sort((first, second) -> Long.compare(first.stamp, second.stamp));
+
+        int from = Math.max(0, merged.size() - historyCapacity);
+        ArrayList<Task> history = new ArrayList<>(merged.size() - from);
+        for (int i = from; i < merged.size(); i++) {
+            history.add(merged.get(i).task);
+        }
+        return history;
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableList(getHistory());
+    }
+
+    private int pickShard() {
+        return (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+    }
+
+    private void lock(int shard) {
+        locks[shard].lock();
+    }
+
+    private void unlock(int shard) {
+        locks[shard].unlock();
+    }
+
+    private <T extends Task> TaskPage<T> page(int cursor, int limit, PageQuery<T> query) {
+        TaskPage.checkLimit(limit);
+        int first = cursor == TaskPage.START ? 0 : shardOf(cursor);
+        if (first < 0) {
+            throw new IllegalArgumentException("Cursor " + cursor + " is no longer valid");
+        }
+
+        ArrayList<T> items = new ArrayList<>(Math.min(limit, 64));
+        int nextCursor = cursor;
+        for (int shard = first; shard < shards.length; shard++) {
+            if (items.size() == limit) {
+                return new TaskPage<>(items, nextCursor, hasMore(shard, query));
+            }
+            TaskPage<T> page;
+            lock(shard);
+            try {
+                page = query.fetch(shards[shard], shard == first ? cursor : TaskPage.START, limit - items.size());
+            } finally {
+                unlock(shard);
+            }
+            items.addAll(page.getItems());
+            if (!page.getItems().isEmpty()) {
+                nextCursor = page.getNextCursor();
+            }
+            if (page.hasNext()) {
+                return new TaskPage<>(items, nextCursor, true);
+            }
+        }
+        return new TaskPage<>(items, nextCursor, false);
+    }
+
+    private <T extends Task> boolean hasMore(int fromShard, PageQuery<T> query) {
+        for (int shard = fromShard; shard < shards.length; shard++) {
+            lock(shard);
+            try {
+                if (!query.fetch(shards[shard], TaskPage.START, 1).getItems().isEmpty()) {
+                    return true;
+                }
+            } finally {
+                unlock(shard);
+            }
+        }
+        return false;
+    }
+
+    private interface PageQuery<T extends Task> {
+        TaskPage<T> fetch(InMemoryTaskManager shard, int cursor, int limit);
+    }
+
+    private static final class Stamped {
+        private final Task task;
+        private final long stamp;
+
+        private Stamped(Task task, long stamp) {
+            this.task = task;
+            this.stamp = stamp;
+        }
+    }
+
+    private static final class ShardHistory implements HistoryManager {
+        private final AtomicLong clock;
+        private final LinkedHashMap<Integer, Stamped> entries;
+        private final int capacity;
+
+        private ShardHistory(AtomicLong clock, int capacity) {
+            this.clock = clock;
+            this.entries = new LinkedHashMap<>();
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void add(Task task) {
+            if (task == null) {
+                return;
+            }
+            entries.remove(task.getId());
+            entries.put(task.getId(), new Stamped(task, clock.incrementAndGet()));
+            if (entries.size() > capacity) {
+                Iterator<Map.Entry<Integer, Stamped>> eldest = entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        @Override
+        public void remove(int id) {
+            entries.remove(id);
+        }
+
+        @Override
+        public List<Task> getHistory() {
+            List<Task> history = new ArrayList<>(entries.size());
+            for (Stamped entry : entries.values()) {
+                history.add(entry.task);
+            }
+            return history;
+        }
+
+        @Override
+        public Collection<Task> getHistoryView() {
+            return Collections.unmodifiableList(getHistory());
+        }
+    }
+}
@@ -0,0 +1,764 @@
+package tracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+public class SnapshottingTaskManager extends ForwardingTaskManager implements AutoCloseable {
+    private static final int MAGIC = 0x4B534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int FOOTER_SIZE = 20;
+    private static final int END_OF_ENTITIES = 0xFF;
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+    private static final byte[] TOMBSTONE = new byte[0];
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final InMemoryTaskManager manager;
+    private final Path snapshotFile;
+    private final int chunkSize;
+    private final ReentrantLock lock;
+    private final ReentrantLock snapshotLock;
+    private final ScheduledExecutorService snapshotExecutor;
+    private final IntSet liveIds;
+    private Capture capture;
+
+    public SnapshottingTaskManager(Path snapshotFile) {
+        this(snapshotFile, Managers.getDefaultHistory());
+    }
+
+    public SnapshottingTaskManager(Path snapshotFile, HistoryManager historyManager) {
+        this(snapshotFile, historyManager, DEFAULT_CHUNK_SIZE);
+    }
+
+    SnapshottingTaskManager(Path snapshotFile, HistoryManager historyManager, int chunkSize) {
+        super(load(snapshotFile, historyManager));
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.manager = (InMemoryTaskManager) delegate;
+        this.snapshotFile = snapshotFile;
+        this.chunkSize = chunkSize;
+        this.lock = new ReentrantLock();
+        this.snapshotLock = new ReentrantLock();
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-" + snapshotFile.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.liveIds = liveIdsOf(manager);
+    }
+
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public CompletableFuture<Void> snapshotAsync() {
+        return CompletableFuture.runAsync(this::snapshot, snapshotExecutor);
+    }
+
+    public void scheduleSnapshots(Duration interval) {
+        long intervalNanos = interval.toNanos();
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        snapshotExecutor.scheduleWithFixedDelay(this::snapshot, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        snapshotExecutor.shutdownNow();
+        try {
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status) {
+        lock.lock();
+        try {
+            Task task = delegate.createTask(title, description, status);
+            liveIds.add(task.getId());
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        lock.lock();
+        try {
+            return delegate.getTask(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        lock.lock();
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getTasksByStatus(TaskStatus status) {
+        lock.lock();
+        try {
+            return delegate.getTasksByStatus(status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit) {
+        lock.lock();
+        try {
+            return delegate.getTasksByStatus(status, cursor, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        lock.lock();
+        try {
+            preserve(task.getId());
+            delegate.updateTask(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        lock.lock();
+        try {
+            preserve(id);
+            delegate.deleteTask(id);
+            forget(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lock.lock();
+        try {
+            int[] ids = idsOf(delegate.getAllTasksView());
+            preserveAll(ids);
+            delegate.deleteAllTasks();
+            forgetAll(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        lock.lock();
+        try {
+            Epic epic = delegate.createEpic(title, description);
+            liveIds.add(epic.getId());
+            return epic;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        lock.lock();
+        try {
+            return delegate.getEpic(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        lock.lock();
+        try {
+            return delegate.getAllEpics();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsByStatus(TaskStatus status) {
+        lock.lock();
+        try {
+            return delegate.getEpicsByStatus(status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit) {
+        lock.lock();
+        try {
+            return delegate.getEpicsByStatus(status, cursor, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        lock.lock();
+        try {
+            preserve(epic.getId());
+            delegate.updateEpic(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        lock.lock();
+        try {
+            int[] subtaskIds = idsOf(delegate.getEpicSubtasksView(id));
+            preserve(id);
+            preserveAll(subtaskIds);
+            delegate.deleteEpic(id);
+            forget(id);
+            forgetAll(subtaskIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lock.lock();
+        try {
+            int[] epicIds = idsOf(delegate.getAllEpicsView());
+            int[] subtaskIds = idsOf(delegate.getAllSubtasksView());
+            preserveAll(epicIds);
+            preserveAll(subtaskIds);
+            delegate.deleteAllEpics();
+            forgetAll(epicIds);
+            forgetAll(subtaskIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+        lock.lock();
+        try {
+            Subtask subtask = delegate.createSubtask(title, description, status, epicId);
+            if (subtask != null) {
+                liveIds.add(subtask.getId());
+            }
+            return subtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        lock.lock();
+        try {
+            return delegate.getSubtask(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        lock.lock();
+        try {
+            return delegate.getAllSubtasks();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByStatus(TaskStatus status) {
+        lock.lock();
+        try {
+            return delegate.getSubtasksByStatus(status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit) {
+        lock.lock();
+        try {
+            return delegate.getSubtasksByStatus(status, cursor, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        lock.lock();
+        try {
+            preserve(subtask.getId());
+            delegate.updateSubtask(subtask);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        lock.lock();
+        try {
+            preserve(id);
+            delegate.deleteSubtask(id);
+            forget(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lock.lock();
+        try {
+            int[] ids = idsOf(delegate.getAllSubtasksView());
+            preserveAll(ids);
+            delegate.deleteAllSubtasks();
+            forgetAll(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+        lock.lock();
+        try {
+            return delegate.getEpicSubtasks(epicId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Task> getAllTasksView() {
+        return Collections.unmodifiableList(getAllTasks());
+    }
+
+    @Override
+    public Collection<Epic> getAllEpicsView() {
+        return Collections.unmodifiableList(getAllEpics());
+    }
+
+    @Override
+    public Collection<Subtask> getAllSubtasksView() {
+        return Collections.unmodifiableList(getAllSubtasks());
+    }
+
+    @Override
+    public Collection<Subtask> getEpicSubtasksView(int epicId) {
+        return Collections.unmodifiableList(getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public StatusCounts getEpicProgress(int epicId) {
+        lock.lock();
+        try {
+            return delegate.getEpicProgress(epicId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StatusCounts getStatusCounts(TaskType type) {
+        lock.lock();
+        try {
+            return delegate.getStatusCounts(type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        lock.lock();
+        try {
+            delegate.subscribe(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        lock.lock();
+        try {
+            delegate.unsubscribe(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int[] applyBatch(TaskBatch batch) {
+        lock.lock();
+        try {
+            return batch.applyTo(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        lock.lock();
+        try {
+            return delegate.getHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Task> getHistoryView() {
+        return Collections.unmodifiableList(getHistory());
+    }
+
+    private void preserve(int id) {
+        if (capture == null || id > capture.lastId || capture.written.contains(id)
+                || capture.preImages.containsKey(id)) {
+            return;
+        }
+        Task current = manager.findById(id);
+        if (current == null) {
+            capture.preImages.put(id, TOMBSTONE);
+        } else {
+            BinaryWriter writer = new BinaryWriter(64);
+            writeEntity(writer, current);
+            capture.preImages.put(id, writer.toByteArray());
+        }
+    }
+
+    private void preserveAll(int[] ids) {
+        if (capture == null) {
+            return;
+        }
+        for (int id : ids) {
+            preserve(id);
+        }
+    }
+
+    private void forget(int id) {
+        if (manager.findById(id) != null || !liveIds.contains(id)) {
+            return;
+        }
+        if (capture != null && capture.cursor == id) {
+            capture.cursor = liveIds.valueBefore(id, 0);
+        }
+        liveIds.remove(id);
+    }
+
+    private void forgetAll(int[] ids) {
+        for (int id : ids) {
+            forget(id);
+        }
+    }
+
+    private static int[] idsOf(Collection<? extends Task> tasks) {
+        int[] ids = new int[tasks.size()];
+        int count = 0;
+        for (Task task : tasks) {
+            ids[count++] = task.getId();
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static IntSet liveIdsOf(InMemoryTaskManager manager) {
+        IntSet ids = new IntSet();
+        for (Collection<? extends Task> source : List.of(manager.getAllTasksView(), manager.getAllEpicsView(),
+                manager.getAllSubtasksView())) {
+            for (Task task : source) {
+                ids.add(task.getId());
+            }
+        }
+        return ids;
+    }
+
+    private void writeSnapshot() {
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        CRC32C checksum = new CRC32C();
+        BinaryWriter chunk = new BinaryWriter(64 * 1024);
+        int[] counts = new int[TYPES.length];
+        List<Integer> historyIds = new ArrayList<>();
+        Capture current;
+
+        lock.lock();
+        try {
+            current = new Capture(manager.getNextId() - 1);
+            for (Task task : delegate.getHistoryView()) {
+                historyIds.add(task.getId());
+            }
+            chunk.writeInt(MAGIC);
+            chunk.writeInt(FORMAT_VERSION);
+            chunk.writeInt(manager.getNextId());
+            capture = current;
+        } finally {
+            lock.unlock();
+        }
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            boolean more = true;
+            while (more) {
+                lock.lock();
+                try {
+                    PrimitiveIterator.OfInt ids = current.cursor == 0
+                            ? liveIds.iterator() : liveIds.iteratorAfter(current.cursor);
+                    for (int i = 0; i < chunkSize && ids.hasNext(); i++) {
+                        int id = ids.nextInt();
+                        current.cursor = id;
+                        if (id <= current.lastId && current.written.add(id)) {
+                            byte[] preImage = current.preImages.remove(id);
+                            writeCaptured(chunk, counts, preImage, id);
+                        }
+                    }
+                    more = ids.hasNext();
+                } finally {
+                    lock.unlock();
+                }
+                if (chunk.size() >= 32 * 1024) {
+                    writeChunk(channel, chunk, checksum);
+                }
+            }
+
+            more = true;
+            while (more) {
+                lock.lock();
+                try {
+                    Iterator<Map.Entry<Integer, byte[]>> preImages = current.preImages.entrySet().iterator();
+                    for (int i = 0; i < chunkSize && preImages.hasNext(); i++) {
+                        Map.Entry<Integer, byte[]> entry = preImages.next();
+                        preImages.remove();
+                        if (current.written.add(entry.getKey())) {
+                            writeCaptured(chunk, counts, entry.getValue(), entry.getKey());
+                        }
+                    }
+                    more = preImages.hasNext();
+                    if (!more) {
+                        capture = null;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (chunk.size() >= 32 * 1024) {
+                    writeChunk(channel, chunk, checksum);
+                }
+            }
+
+            chunk.writeByte(END_OF_ENTITIES);
+            chunk.writeVarInt(historyIds.size());
+            for (int id : historyIds) {
+                chunk.writeVarInt(id);
+            }
+            chunk.writeInt(counts[TaskType.TASK.ordinal()]);
+            chunk.writeInt(counts[TaskType.EPIC.ordinal()]);
+            chunk.writeInt(counts[TaskType.SUBTASK.ordinal()]);
+            writeChunk(channel, chunk, checksum);
+            chunk.writeInt((int) checksum.getValue());
+            chunk.writeInt(MAGIC);
+            writeChunk(channel, chunk, null);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to write snapshot " + snapshotFile, e);
+        } finally {
+            lock.lock();
+            try {
+                capture = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        try {
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to publish snapshot " + snapshotFile, e);
+        }
+    }
+
+    private void writeCaptured(BinaryWriter chunk, int[] counts, byte[] preImage, int id) {
+        if (preImage != null) {
+            if (preImage != TOMBSTONE) {
+                chunk.writeBytes(preImage, 0, preImage.length);
+                counts[preImage[0]]++;
+            }
+            return;
+        }
+        Task task = manager.findById(id);
+        if (task != null) {
+            writeEntity(chunk, task);
+            counts[task.getType().ordinal()]++;
+        }
+    }
+
+    private static void writeChunk(FileChannel channel, BinaryWriter chunk, CRC32C checksum) throws IOException {
+        if (checksum != null) {
+            checksum.update(chunk.array(), 0, chunk.size());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.array(), 0, chunk.size());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        chunk.reset();
+    }
+
+    private static void writeEntity(BinaryWriter writer, Task task) {
+        writer.writeByte(task.getType().ordinal());
+        writer.writeVarInt(task.getId());
+        writer.writeString(task.getTitle());
+        writer.writeString(task.getDescription());
+        writer.writeByte(task.getStatus().ordinal());
+        if (task.getType() == TaskType.SUBTASK) {
+            writer.writeVarInt(((Subtask) task).getEpicId());
+        }
+    }
+
+    static InMemoryTaskManager load(Path snapshotFile, HistoryManager historyManager) {
+        if (!Files.exists(snapshotFile)) {
+            return new InMemoryTaskManager(historyManager);
+        }
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(snapshotFile);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Failed to read snapshot " + snapshotFile, e);
+        }
+        if (data.length < HEADER_SIZE + FOOTER_SIZE) {
+            throw new ManagerLoadException("Snapshot " + snapshotFile + " is truncated");
+        }
+
+        BinaryReader footer = new BinaryReader(data, data.length - FOOTER_SIZE, FOOTER_SIZE);
+        int taskCount = footer.readInt();
+        int epicCount = footer.readInt();
+        int subtaskCount = footer.readInt();
+        int expectedChecksum = footer.readInt();
+        if (footer.readInt() != MAGIC) {
+            throw new ManagerLoadException("Snapshot " + snapshotFile + " is truncated");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(data, 0, data.length - 8);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new ManagerLoadException("Snapshot " + snapshotFile + " is corrupted");
+        }
+
+        BinaryReader reader = new BinaryReader(data, 0, data.length - FOOTER_SIZE);
+        if (reader.readInt() != MAGIC) {
+            throw new ManagerLoadException("File " + snapshotFile + " is not a task snapshot");
+        }
+        int version = reader.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new ManagerLoadException("Unsupported snapshot version " + version);
+        }
+        int nextId = reader.readInt();
+
+        InMemoryTaskManager manager = new InMemoryTaskManager(historyManager, taskCount, epicCount, subtaskCount);
+        while (true) {
+            int type = reader.readByte();
+            if (type == END_OF_ENTITIES) {
+                break;
+            }
+            if (type >= TYPES.length) {
+                throw new ManagerLoadException("Unknown task type " + type);
+            }
+            manager.restore(readEntity(reader, TYPES[type]));
+        }
+
+        int historySize = reader.readVarInt();
+        for (int i = 0; i < historySize; i++) {
+            Task task = manager.findById(reader.readVarInt());
+            if (task != null) {
+                manager.restoreHistory(task);
+            }
+        }
+        manager.setNextId(Math.max(nextId, manager.getNextId()));
+        return manager;
+    }
+
+    private static Task readEntity(BinaryReader reader, TaskType type) {
+        int id = reader.readVarInt();
+        String title = reader.readString();
+        String description = reader.readString();
+        int status = reader.readByte();
+        if (status >= STATUSES.length) {
+            throw new ManagerLoadException("Unknown task status " + status);
+        }
+        switch (type) {
+            case EPIC:
+                return new Epic(title, description, id);
+            case SUBTASK:
+                return new Subtask(title, description, id, STATUSES[status], reader.readVarInt());
+            default:
+                return new Task(title, description, id, STATUSES[status]);
+        }
+    }
+
+    private static final class Capture {
+        private final int lastId;
+        private final IntSet written;
+        private final HashMap<Integer, byte[]> preImages;
+        private int cursor;
+
+        private Capture(int lastId) {
+            this.lastId = lastId;
+            this.written = new IntSet();
+            this.preImages = new HashMap<>();
+        }
+    }
+}
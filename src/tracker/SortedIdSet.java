@@ -0,0 +1,135 @@
+package tracker;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+
+final class SortedIdSet {
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    private static final int PAGE_WORDS = 1 << (PAGE_SHIFT - 6);
+
+    private final TreeMap<Integer, long[]> pages;
+    private int size;
+
+    SortedIdSet() {
+        this.pages = new TreeMap<>();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        long[] page = pages.get(id >>> PAGE_SHIFT);
+        return page != null && (page[(id & PAGE_MASK) >>> 6] & (1L << id)) != 0;
+    }
+
+    boolean add(int id) {
+        long[] page = pages.computeIfAbsent(id >>> PAGE_SHIFT, key -> new long[PAGE_WORDS]);
+        int word = (id & PAGE_MASK) >>> 6;
+        long bit = 1L << id;
+        if ((page[word] & bit) != 0) {
+            return false;
+        }
+        page[word] |= bit;
+        size++;
+        return true;
+    }
+
+    boolean remove(int id) {
+        long[] page = pages.get(id >>> PAGE_SHIFT);
+        if (page == null) {
+            return false;
+        }
+        int word = (id & PAGE_MASK) >>> 6;
+        long bit = 1L << id;
+        if ((page[word] & bit) == 0) {
+            return false;
+        }
+        page[word] &= ~bit;
+        size--;
+        if (page[word] == 0 && isEmpty(page)) {
+            pages.remove(id >>> PAGE_SHIFT);
+        }
+        return true;
+    }
+
+    PrimitiveIterator.OfInt iterator() {
+        return iteratorFrom(0);
+    }
+
+    PrimitiveIterator.OfInt iteratorAfter(int id) {
+        return iteratorFrom(id + 1L);
+    }
+
+    int[] toArray() {
+        int[] result = new int[size];
+        PrimitiveIterator.OfInt ids = iterator();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.nextInt();
+        }
+        return result;
+    }
+
+    private PrimitiveIterator.OfInt iteratorFrom(long first) {
+        return new PrimitiveIterator.OfInt() {
+            private Map.Entry<Integer, long[]> page;
+            private int word;
+            private long bits;
+
+            {
+                if (first <= Integer.MAX_VALUE) {
+                    int start = (int) first;
+                    page = pages.ceilingEntry(start >>> PAGE_SHIFT);
+                    if (page != null && page.getKey() == start >>> PAGE_SHIFT) {
+                        word = (start & PAGE_MASK) >>> 6;
+                        bits = page.getValue()[word] & (-1L << start);
+                    } else if (page != null) {
+                        bits = page.getValue()[0];
+                    }
+                    advance();
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return page != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (page == null) {
+                    throw new NoSuchElementException();
+                }
+                long lowest = Long.lowestOneBit(bits);
+                int id = (page.getKey() << PAGE_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(lowest);
+                bits ^= lowest;
+                advance();
+                return id;
+            }
+
+            private void advance() {
+                while (page != null && bits == 0) {
+                    if (++word == PAGE_WORDS) {
+                        page = pages.higherEntry(page.getKey());
+                        word = 0;
+                    }
+                    if (page != null) {
+                        bits = page.getValue()[word];
+                    }
+                }
+            }
+        };
+    }
+
+    private static boolean isEmpty(long[] page) {
+        for (long word : page) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
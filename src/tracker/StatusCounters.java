@@ -0,0 +1,61 @@
+package tracker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class StatusCounters {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final LongAdder[] counts;
+
+    StatusCounters() {
+        this.counts = new LongAdder[STATUSES.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    void add(TaskStatus status, int delta) {
+        counts[status.ordinal()].add(delta);
+    }
+
+    void change(TaskStatus previous, TaskStatus status) {
+        if (previous != status) {
+            add(previous, -1);
+            add(status, 1);
+        }
+    }
+
+    void move(Task task, TaskStatus status) {
+        TaskStatus previous = task.getIndexedStatus();
+        if (previous == status) {
+            return;
+        }
+        if (previous != null) {
+            add(previous, -1);
+        }
+        add(status, 1);
+        task.setIndexedStatus(status);
+    }
+
+    void remove(Task task) {
+        TaskStatus previous = task.getIndexedStatus();
+        if (previous != null) {
+            add(previous, -1);
+            task.setIndexedStatus(null);
+        }
+    }
+
+    void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+    }
+
+    StatusCounts counts() {
+        int[] snapshot = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].intValue();
+        }
+        return new StatusCounts(snapshot);
+    }
+}
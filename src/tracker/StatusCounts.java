@@ -0,0 +1,76 @@
+package tracker;
+
+import java.util.Arrays;
+
+public final class StatusCounts {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final int[] counts;
+    private final int total;
+
+    StatusCounts(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        this.counts = counts;
+        this.total = sum;
+    }
+
+    static StatusCounts of(Epic epic) {
+        int[] counts = new int[STATUSES.length];
+        for (TaskStatus status : STATUSES) {
+            counts[status.ordinal()] = epic.getSubtaskStatusCount(status);
+        }
+        return new StatusCounts(counts);
+    }
+
+    static StatusCounts of(Iterable<? extends Task> tasks) {
+        int[] counts = new int[STATUSES.length];
+        for (Task task : tasks) {
+            counts[task.getStatus().ordinal()]++;
+        }
+        return new StatusCounts(counts);
+    }
+
+    public int get(TaskStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public double getPercentDone() {
+        return total == 0 ? 0 : 100.0 * get(TaskStatus.DONE) / total;
+    }
+
+    StatusCounts plus(StatusCounts other) {
+        int[] sum = counts.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += other.counts[i];
+        }
+        return new StatusCounts(sum);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return Arrays.equals(counts, ((StatusCounts) obj).counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (TaskStatus status : STATUSES) {
+            result.append(status).append('=').append(counts[status.ordinal()]).append(' ');
+        }
+        return result.append("total=").append(total).toString();
+    }
+}
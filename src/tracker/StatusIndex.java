@@ -0,0 +1,86 @@
+package tracker;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.PrimitiveIterator;
+
+final class StatusIndex {
+    private final int[] counts;
+    private EnumMap<TaskStatus, SortedIdSet> ids;
+
+    StatusIndex() {
+        this.counts = new int[TaskStatus.values().length];
+    }
+
+    void move(Task task, TaskStatus status) {
+        TaskStatus previous = task.getIndexedStatus();
+        if (previous == status) {
+            return;
+        }
+        if (previous != null) {
+            counts[previous.ordinal()]--;
+            if (ids != null) {
+                ids.get(previous).remove(task.getId());
+            }
+        }
+        counts[status.ordinal()]++;
+        if (ids != null) {
+            ids.get(status).add(task.getId());
+        }
+        task.setIndexedStatus(status);
+    }
+
+    void remove(Task task) {
+        TaskStatus previous = task.getIndexedStatus();
+        if (previous != null) {
+            counts[previous.ordinal()]--;
+            if (ids != null) {
+                ids.get(previous).remove(task.getId());
+            }
+            task.setIndexedStatus(null);
+        }
+    }
+
+    void resetTo(TaskStatus status) {
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+            counts[i] = 0;
+        }
+        counts[status.ordinal()] = total;
+        if (ids != null) {
+            SortedIdSet target = ids.get(status);
+            for (TaskStatus other : TaskStatus.values()) {
+                if (other != status) {
+                    PrimitiveIterator.OfInt moved = ids.put(other, new SortedIdSet()).iterator();
+                    while (moved.hasNext()) {
+                        target.add(moved.nextInt());
+                    }
+                }
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        ids = null;
+    }
+
+    StatusCounts counts() {
+        return new StatusCounts(counts.clone());
+    }
+
+    SortedIdSet ids(TaskStatus status, HashMap<Integer, ? extends Task> source) {
+        if (ids == null) {
+            ids = new EnumMap<>(TaskStatus.class);
+            for (TaskStatus each : TaskStatus.values()) {
+                ids.put(each, new SortedIdSet());
+            }
+            for (Task task : source.values()) {
+                ids.get(task.getIndexedStatus()).add(task.getId());
+            }
+        }
+        return ids.get(status);
+    }
+}
@@ -0,0 +1,150 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+final class StripedViewBuffer<T> {
+    static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    private static final Comparator<View<?>> BY_STAMP = Comparator.comparingLong(view -> view.stamp);
+
+    private final Buffer<T>[] buffers;
+    private final long drainMask;
+    private final ReentrantLock drainLock;
+    private final ArrayList<View<T>> pending;
+    private final Consumer<T> sink;
+
+    @SuppressWarnings("unchecked")
+    StripedViewBuffer(int stripes, int bufferCapacity, Consumer<T> sink) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        if (bufferCapacity < 2 || Integer.bitCount(bufferCapacity) != 1) {
+            throw new IllegalArgumentException("bufferCapacity must be a power of two: " + bufferCapacity);
+        }
+        this.buffers = (Buffer<T>[]) new Buffer<?>[stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new Buffer<>(bufferCapacity);
+        }
+        this.drainMask = bufferCapacity / 2 - 1;
+        this.drainLock = new ReentrantLock();
+        this.pending = new ArrayList<>();
+        this.sink = sink;
+    }
+
+    void add(T value) {
+        View<T> view = new View<>(value, System.nanoTime());
+        Buffer<T> buffer = buffers[stripeOf(Thread.currentThread())];
+        long position;
+        while ((position = buffer.offer(view)) < 0) {
+            drainLock.lock();
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        if ((position & drainMask) == drainMask && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    void lock() {
+        drainLock.lock();
+    }
+
+    void unlock() {
+        drainLock.unlock();
+    }
+
+    void drain() {
+        for (Buffer<T> buffer : buffers) {
+            View<T> view;
+            while ((view = buffer.poll()) != null) {
+                pending.add(view);
+            }
+        }
+        if (pending.size() > 1) {
+            pending.sort(BY_STAMP);
+        }
+        for (View<T> view : pending) {
+            sink.accept(view.value);
+        }
+        pending.clear();
+    }
+
+    private int stripeOf(Thread thread) {
+        long id = thread.threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (buffers.length - 1);
+    }
+
+    private static final class View<T> {
+        private final T value;
+        private final long stamp;
+
+        private View(T value, long stamp) {
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+
+    private static final class Buffer<T> {
+        private final View<T>[] slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail;
+        private long head;
+
+        @SuppressWarnings("unchecked")
+        private Buffer(int capacity) {
+            this.slots = (View<T>[]) new View<?>[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+            this.mask = capacity - 1;
+            this.tail = new AtomicLong();
+        }
+
+        private long offer(View<T> view) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots[index] = view;
+                        sequences.set(index, position + 1);
+                        return position;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return -1;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        private View<T> poll() {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            View<T> view = slots[index];
+            slots[index] = null;
+            sequences.lazySet(index, head + slots.length);
+            head++;
+            return view;
+        }
+    }
+}
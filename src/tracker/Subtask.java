@@ -2,12 +2,18 @@ package tracker;
 
 class Subtask extends Task {
     private int epicId;
+    private TaskStatus countedStatus;
 
     public Subtask(String title, String description, int id, TaskStatus status, int epicId) {
         super(title, description, id, status);
         this.epicId = epicId;
     }
 
+    @Override
+    public TaskType getType() {
+        return TaskType.SUBTASK;
+    }
+
     public int getEpicId() {
         return epicId;
     }
@@ -15,4 +21,12 @@ class Subtask extends Task {
     public void setEpicId(int epicId) {
         this.epicId = epicId;
     }
+
+    TaskStatus getCountedStatus() {
+        return countedStatus;
+    }
+
+    void setCountedStatus(TaskStatus countedStatus) {
+        this.countedStatus = countedStatus;
+    }
 }
@@ -5,6 +5,8 @@ class Task {
     protected String description;
     protected int id;
     protected TaskStatus status;
+    private volatile long version;
+    private TaskStatus indexedStatus;
 
     public Task(String title, String description, int id, TaskStatus status) {
         this.title = title;
@@ -33,6 +35,10 @@ class Task {
         return id;
     }
 
+    public TaskType getType() {
+        return TaskType.TASK;
+    }
+
     public TaskStatus getStatus() {
         return status;
     }
@@ -41,6 +47,22 @@ class Task {
         this.status = status;
     }
 
+    long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    TaskStatus getIndexedStatus() {
+        return indexedStatus;
+    }
+
+    void setIndexedStatus(TaskStatus indexedStatus) {
+        this.indexedStatus = indexedStatus;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
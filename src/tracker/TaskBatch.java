@@ -0,0 +1,355 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+public final class TaskBatch {
+    private final List<Operation> operations;
+    private int taskCreates;
+    private int epicCreates;
+    private int subtaskCreates;
+
+    public TaskBatch() {
+        this.operations = new ArrayList<>();
+    }
+
+    public int createTask(String title, String description, TaskStatus status) {
+        Objects.requireNonNull(status, "status");
+        taskCreates++;
+        return add(new Operation(Kind.CREATE_TASK, title, description, status, 0, null));
+    }
+
+    public int createEpic(String title, String description) {
+        epicCreates++;
+        return add(new Operation(Kind.CREATE_EPIC, title, description, null, 0, null));
+    }
+
+    public int createSubtask(String title, String description, TaskStatus status, int epicId) {
+        Objects.requireNonNull(status, "status");
+        checkReference(epicId);
+        subtaskCreates++;
+        return add(new Operation(Kind.CREATE_SUBTASK, title, description, status, epicId, null));
+    }
+
+    public void updateTask(Task task) {
+        Objects.requireNonNull(task, "task");
+        Objects.requireNonNull(task.getStatus(), "status");
+        add(new Operation(Kind.UPDATE_TASK, null, null, null, 0,
+                new Task(task.getTitle(), task.getDescription(), task.getId(), task.getStatus())));
+    }
+
+    public void updateEpic(Epic epic) {
+        Objects.requireNonNull(epic, "epic");
+        Objects.requireNonNull(epic.getStatus(), "status");
+        Epic copy = new Epic(epic.getTitle(), epic.getDescription(), epic.getId());
+        copy.setStatus(epic.getStatus());
+        PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+        while (subtaskIds.hasNext()) {
+            copy.addSubtaskId(subtaskIds.nextInt());
+        }
+        add(new Operation(Kind.UPDATE_EPIC, null, null, null, 0, copy));
+    }
+
+    public void updateSubtask(Subtask subtask) {
+        Objects.requireNonNull(subtask, "subtask");
+        Objects.requireNonNull(subtask.getStatus(), "status");
+        add(new Operation(Kind.UPDATE_SUBTASK, null, null, null, 0, new Subtask(subtask.getTitle(),
+                subtask.getDescription(), subtask.getId(), subtask.getStatus(), subtask.getEpicId())));
+    }
+
+    public void deleteTask(int id) {
+        checkReference(id);
+        add(new Operation(Kind.DELETE_TASK, null, null, null, id, null));
+    }
+
+    public void deleteEpic(int id) {
+        checkReference(id);
+        add(new Operation(Kind.DELETE_EPIC, null, null, null, id, null));
+    }
+
+    public void deleteSubtask(int id) {
+        checkReference(id);
+        add(new Operation(Kind.DELETE_SUBTASK, null, null, null, id, null));
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public int getCreateCount() {
+        return taskCreates + epicCreates + subtaskCreates;
+    }
+
+    int getTaskCreates() {
+        return taskCreates;
+    }
+
+    int getEpicCreates() {
+        return epicCreates;
+    }
+
+    int getSubtaskCreates() {
+        return subtaskCreates;
+    }
+
+    int[] applyTo(TaskManager manager) {
+        return applyTo(new Target() {
+            @Override
+            public Task createTask(String title, String description, TaskStatus status) {
+                return manager.createTask(title, description, status);
+            }
+
+            @Override
+            public Epic createEpic(String title, String description) {
+                return manager.createEpic(title, description);
+            }
+
+            @Override
+            public Subtask createSubtask(String title, String description, TaskStatus status, int epicId) {
+                return manager.createSubtask(title, description, status, epicId);
+            }
+
+            @Override
+            public void updateTask(Task task) {
+                manager.updateTask(task);
+            }
+
+            @Override
+            public void updateEpic(Epic epic) {
+                manager.updateEpic(epic);
+            }
+
+            @Override
+            public void updateSubtask(Subtask subtask) {
+                manager.updateSubtask(subtask);
+            }
+
+            @Override
+            public void deleteTask(int id) {
+                manager.deleteTask(id);
+            }
+
+            @Override
+            public void deleteEpic(int id) {
+                manager.deleteEpic(id);
+            }
+
+            @Override
+            public void deleteSubtask(int id) {
+                manager.deleteSubtask(id);
+            }
+        });
+    }
+
+    int[] applyTo(Target manager) {
+        int[] createdIds = new int[getCreateCount()];
+        int created = 0;
+        for (Operation operation : operations) {
+            switch (operation.kind) {
+                case CREATE_TASK:
+                    Task task = manager.createTask(operation.title, operation.description, operation.status);
+                    createdIds[created++] = task.getId();
+                    break;
+                case CREATE_EPIC:
+                    Epic epic = manager.createEpic(operation.title, operation.description);
+                    createdIds[created++] = epic.getId();
+                    break;
+                case CREATE_SUBTASK:
+                    int epicId = resolve(operation.id, createdIds);
+                    Subtask subtask = epicId == 0 ? null
+                            : manager.createSubtask(operation.title, operation.description, operation.status, epicId);
+                    createdIds[created++] = subtask == null ? 0 : subtask.getId();
+                    break;
+                case UPDATE_TASK:
+                    manager.updateTask(operation.task);
+                    break;
+                case UPDATE_EPIC:
+                    manager.updateEpic((Epic) operation.task);
+                    break;
+                case UPDATE_SUBTASK:
+                    manager.updateSubtask((Subtask) operation.task);
+                    break;
+                case DELETE_TASK:
+                    manager.deleteTask(resolve(operation.id, createdIds));
+                    break;
+                case DELETE_EPIC:
+                    manager.deleteEpic(resolve(operation.id, createdIds));
+                    break;
+                case DELETE_SUBTASK:
+                    manager.deleteSubtask(resolve(operation.id, createdIds));
+                    break;
+            }
+        }
+        return createdIds;
+    }
+
+    void writeTo(BinaryWriter writer) {
+        for (Operation operation : operations) {
+            writer.writeByte(operation.kind.ordinal());
+            switch (operation.kind) {
+                case CREATE_TASK:
+                    writer.writeString(operation.title);
+                    writer.writeString(operation.description);
+                    writer.writeByte(operation.status.ordinal());
+                    break;
+                case CREATE_EPIC:
+                    writer.writeString(operation.title);
+                    writer.writeString(operation.description);
+                    break;
+                case CREATE_SUBTASK:
+                    writer.writeString(operation.title);
+                    writer.writeString(operation.description);
+                    writer.writeByte(operation.status.ordinal());
+                    writer.writeVarInt(operation.id);
+                    break;
+                case UPDATE_TASK:
+                    writeFields(writer, operation.task);
+                    break;
+                case UPDATE_EPIC:
+                    Epic epic = (Epic) operation.task;
+                    writeFields(writer, epic);
+                    writer.writeVarInt(epic.getSubtaskIds().size());
+                    PrimitiveIterator.OfInt subtaskIds = epic.getSubtaskIds().iterator();
+                    while (subtaskIds.hasNext()) {
+                        writer.writeVarInt(subtaskIds.nextInt());
+                    }
+                    break;
+                case UPDATE_SUBTASK:
+                    writeFields(writer, operation.task);
+                    writer.writeVarInt(((Subtask) operation.task).getEpicId());
+                    break;
+                default:
+                    writer.writeVarInt(operation.id);
+            }
+        }
+    }
+
+    static TaskBatch readFrom(BinaryReader reader, int size) {
+        TaskBatch batch = new TaskBatch();
+        for (int i = 0; i < size; i++) {
+            int ordinal = reader.readByte();
+            if (ordinal >= KINDS.length) {
+                throw new ManagerLoadException("Unknown batch operation " + ordinal);
+            }
+            switch (KINDS[ordinal]) {
+                case CREATE_TASK:
+                    batch.createTask(reader.readString(), reader.readString(),
+                            FileBackedTaskManager.readStatus(reader));
+                    break;
+                case CREATE_EPIC:
+                    batch.createEpic(reader.readString(), reader.readString());
+                    break;
+                case CREATE_SUBTASK:
+                    batch.createSubtask(reader.readString(), reader.readString(),
+                            FileBackedTaskManager.readStatus(reader), reader.readVarInt());
+                    break;
+                case UPDATE_TASK:
+                    int taskId = reader.readVarInt();
+                    batch.updateTask(new Task(reader.readString(), reader.readString(), taskId,
+                            FileBackedTaskManager.readStatus(reader)));
+                    break;
+                case UPDATE_EPIC:
+                    int epicId = reader.readVarInt();
+                    Epic epic = new Epic(reader.readString(), reader.readString(), epicId);
+                    epic.setStatus(FileBackedTaskManager.readStatus(reader));
+                    int subtaskCount = reader.readVarInt();
+                    for (int j = 0; j < subtaskCount; j++) {
+                        epic.addSubtaskId(reader.readVarInt());
+                    }
+                    batch.updateEpic(epic);
+                    break;
+                case UPDATE_SUBTASK:
+                    int subtaskId = reader.readVarInt();
+                    batch.updateSubtask(new Subtask(reader.readString(), reader.readString(), subtaskId,
+                            FileBackedTaskManager.readStatus(reader), reader.readVarInt()));
+                    break;
+                case DELETE_TASK:
+                    batch.deleteTask(reader.readVarInt());
+                    break;
+                case DELETE_EPIC:
+                    batch.deleteEpic(reader.readVarInt());
+                    break;
+                case DELETE_SUBTASK:
+                    batch.deleteSubtask(reader.readVarInt());
+                    break;
+            }
+        }
+        return batch;
+    }
+
+    private static void writeFields(BinaryWriter writer, Task task) {
+        writer.writeVarInt(task.getId());
+        writer.writeString(task.getTitle());
+        writer.writeString(task.getDescription());
+        writer.writeByte(task.getStatus().ordinal());
+    }
+
+    private int add(Operation operation) {
+        operations.add(operation);
+        return -getCreateCount();
+    }
+
+    private void checkReference(int id) {
+        if (id < 0 && -id > getCreateCount()) {
+            throw new IllegalArgumentException("Unknown batch reference " + id);
+        }
+    }
+
+    private static int resolve(int id, int[] createdIds) {
+        return id >= 0 ? id : createdIds[-id - 1];
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    interface Target {
+        Task createTask(String title, String description, TaskStatus status);
+
+        Epic createEpic(String title, String description);
+
+        Subtask createSubtask(String title, String description, TaskStatus status, int epicId);
+
+        void updateTask(Task task);
+
+        void updateEpic(Epic epic);
+
+        void updateSubtask(Subtask subtask);
+
+        void deleteTask(int id);
+
+        void deleteEpic(int id);
+
+        void deleteSubtask(int id);
+    }
+
+    private enum Kind {
+        CREATE_TASK,
+        CREATE_EPIC,
+        CREATE_SUBTASK,
+        UPDATE_TASK,
+        UPDATE_EPIC,
+        UPDATE_SUBTASK,
+        DELETE_TASK,
+        DELETE_EPIC,
+        DELETE_SUBTASK
+    }
+
+    private static final class Operation {
+        private final Kind kind;
+        private final String title;
+        private final String description;
+        private final TaskStatus status;
+        private final int id;
+        private final Task task;
+
+        private Operation(Kind kind, String title, String description, TaskStatus status, int id, Task task) {
+            this.kind = kind;
+            this.title = title;
+            this.description = description;
+            this.status = status;
+            this.id = id;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package tracker;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class TaskChanges {
+    private final List<Task> tasks;
+    private final List<Epic> epics;
+    private final List<Subtask> subtasks;
+    private final int[] deletedIds;
+    private final long version;
+    private final boolean resyncRequired;
+
+    TaskChanges(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks, int[] deletedIds, long version) {
+        this(tasks, epics, subtasks, deletedIds, version, false);
+    }
+
+    private TaskChanges(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks, int[] deletedIds, long version,
+                        boolean resyncRequired) {
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.epics = Collections.unmodifiableList(epics);
+        this.subtasks = Collections.unmodifiableList(subtasks);
+        this.deletedIds = deletedIds;
+        this.version = version;
+        this.resyncRequired = resyncRequired;
+    }
+
+    static TaskChanges resync(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks, long version) {
+        return new TaskChanges(tasks, epics, subtasks, new int[0], version, true);
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<Epic> getEpics() {
+        return epics;
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks;
+    }
+
+    public int[] getDeletedIds() {
+        return deletedIds.clone();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    public boolean isEmpty() {
+        return tasks.isEmpty() && epics.isEmpty() && subtasks.isEmpty() && deletedIds.length == 0;
+    }
+}
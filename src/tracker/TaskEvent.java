@@ -0,0 +1,50 @@
+package tracker;
+
+public final class TaskEvent {
+    private final Kind kind;
+    private final TaskType type;
+    private final int id;
+    private final TaskStatus status;
+    private final TaskStatus previousStatus;
+
+    TaskEvent(Kind kind, TaskType type, int id, TaskStatus status, TaskStatus previousStatus) {
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+        this.status = status;
+        this.previousStatus = previousStatus;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public TaskStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + type + " " + id + (status == null ? "" : " " + status);
+    }
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        CLEARED,
+        EPIC_STATUS_CHANGED
+    }
+}
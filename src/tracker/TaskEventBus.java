@@ -0,0 +1,181 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+class TaskEventBus {
+    static final int DEFAULT_CAPACITY = 1 << 14;
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TaskEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int batchSize;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private final CopyOnWriteArrayList<TaskEventListener> listeners;
+    private long head;
+    private long reportedDropped;
+    private volatile Thread dispatcher;
+    private volatile boolean idle;
+
+    TaskEventBus() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    TaskEventBus(int capacity, int batchSize) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.slots = new TaskEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    synchronized void subscribe(TaskEventListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener);
+        if (dispatcher == null) {
+            Thread thread = new Thread(this::dispatch, "task-events");
+            thread.setDaemon(true);
+            dispatcher = thread;
+            thread.start();
+        }
+    }
+
+    synchronized void unsubscribe(TaskEventListener listener) {
+        listeners.remove(listener);
+        Thread thread = dispatcher;
+        if (listeners.isEmpty() && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    void publish(TaskEvent.Kind kind, TaskType type, int id, TaskStatus status, TaskStatus previousStatus) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (!offer(new TaskEvent(kind, type, id, status, previousStatus))) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private boolean offer(TaskEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private TaskEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        TaskEvent event = slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        return event;
+    }
+
+    private void dispatch() {
+        List<TaskEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            TaskEvent event;
+            while (batch.size() < batchSize && (event = poll()) != null) {
+                batch.add(event);
+            }
+            long droppedNow = dropped.get();
+            if (!batch.isEmpty() || droppedNow != reportedDropped) {
+                deliver(batch, droppedNow - reportedDropped);
+                reportedDropped = droppedNow;
+                batch.clear();
+                continue;
+            }
+            if (listeners.isEmpty() && retire()) {
+                return;
+            }
+            idle = true;
+            if (sequences.get((int) (head & mask)) != head + 1) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private void deliver(List<TaskEvent> batch, long droppedSinceLastBatch) {
+        List<TaskEvent> events = Collections.unmodifiableList(batch);
+        for (TaskEventListener listener : listeners) {
+            try {
+                if (droppedSinceLastBatch > 0) {
+                    listener.onOverflow(droppedSinceLastBatch);
+                }
+                if (!batch.isEmpty()) {
+                    listener.onEvents(events);
+                }
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    private synchronized boolean retire() {
+        if (!listeners.isEmpty()) {
+            return false;
+        }
+        TaskEvent stale = poll();
+        while (stale != null) {
+            stale = poll();
+        }
+        reportedDropped = dropped.get();
+        dispatcher = null;
+        return true;
+    }
+}
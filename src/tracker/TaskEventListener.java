@@ -0,0 +1,11 @@
+package tracker;
+
+import java.util.List;
+
+public interface TaskEventListener {
+
+    void onEvents(List<TaskEvent> events);
+
+    default void onOverflow(long droppedEvents) {
+    }
+}
@@ -1,12 +1,16 @@
 package tracker;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public interface TaskManager {
 
     Task createTask(String title, String description, TaskStatus status);
     Task getTask(int id);
     ArrayList<Task> getAllTasks();
+    Collection<Task> getAllTasksView();
+    ArrayList<Task> getTasksByStatus(TaskStatus status);
+    TaskPage<Task> getTasksByStatus(TaskStatus status, int cursor, int limit);
     void updateTask(Task task);
     void deleteTask(int id);
     void deleteAllTasks();
@@ -14,6 +18,9 @@ public interface TaskManager {
     Epic createEpic(String title, String description);
     Epic getEpic(int id);
     ArrayList<Epic> getAllEpics();
+    Collection<Epic> getAllEpicsView();
+    ArrayList<Epic> getEpicsByStatus(TaskStatus status);
+    TaskPage<Epic> getEpicsByStatus(TaskStatus status, int cursor, int limit);
     void updateEpic(Epic epic);
     void deleteEpic(int id);
     void deleteAllEpics();
@@ -21,11 +28,24 @@ public interface TaskManager {
     Subtask createSubtask(String title, String description, TaskStatus status, int epicId);
     Subtask getSubtask(int id);
     ArrayList<Subtask> getAllSubtasks();
+    Collection<Subtask> getAllSubtasksView();
+    ArrayList<Subtask> getSubtasksByStatus(TaskStatus status);
+    TaskPage<Subtask> getSubtasksByStatus(TaskStatus status, int cursor, int limit);
     void updateSubtask(Subtask subtask);
     void deleteSubtask(int id);
     void deleteAllSubtasks();
 
     ArrayList<Subtask> getEpicSubtasks(int epicId);
+    Collection<Subtask> getEpicSubtasksView(int epicId);
+
+    StatusCounts getEpicProgress(int epicId);
+    StatusCounts getStatusCounts(TaskType type);
+
+    int[] applyBatch(TaskBatch batch);
+
+    void subscribe(TaskEventListener listener);
+    void unsubscribe(TaskEventListener listener);
 
     ArrayList<Task> getHistory();
+    Collection<Task> getHistoryView();
 }
\ No newline at end of file
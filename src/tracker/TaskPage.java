@@ -0,0 +1,71 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public final class TaskPage<T extends Task> {
+    public static final int START = 0;
+
+    private final List<T> items;
+    private final int nextCursor;
+    private final boolean hasNext;
+
+    TaskPage(List<T> items, int nextCursor, boolean hasNext) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+    }
+
+    static <T extends Task> ArrayList<T> filter(Collection<T> source, TaskStatus status) {
+        ArrayList<T> result = new ArrayList<>();
+        for (T task : source) {
+            if (task.getStatus() == status) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    static <T extends Task> TaskPage<T> scan(Collection<T> source, TaskStatus status, int cursor, int limit) {
+        checkLimit(limit);
+        ArrayList<T> items = new ArrayList<>(Math.min(limit, 64));
+        boolean started = cursor == START;
+        for (T task : source) {
+            if (!started) {
+                started = task.getId() == cursor;
+                continue;
+            }
+            if (task.getStatus() != status) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new TaskPage<>(items, items.get(limit - 1).getId(), true);
+            }
+            items.add(task);
+        }
+        if (!started) {
+            throw new IllegalArgumentException("Cursor " + cursor + " is no longer valid");
+        }
+        return new TaskPage<>(items, items.isEmpty() ? cursor : items.get(items.size() - 1).getId(), false);
+    }
+}
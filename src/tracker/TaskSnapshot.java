@@ -0,0 +1,159 @@
+package tracker;
+
+import java.util.Arrays;
+
+final class TaskSnapshot {
+    private static final int[] NO_SUBTASKS = new int[0];
+
+    private final TaskType type;
+    private final int id;
+    private final String title;
+    private final String description;
+    private final TaskStatus status;
+    private final int epicId;
+    private final int[] subtaskIds;
+    private final int subtaskCount;
+    private final int[] subtaskStatusCounts;
+
+    private TaskSnapshot(TaskType type, int id, String title, String description, TaskStatus status,
+                         int epicId, int[] subtaskIds, int subtaskCount, int[] subtaskStatusCounts) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.epicId = epicId;
+        this.subtaskIds = subtaskIds;
+        this.subtaskCount = subtaskCount;
+        this.subtaskStatusCounts = subtaskStatusCounts;
+    }
+
+    public static TaskSnapshot of(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                Epic epic = (Epic) task;
+                int[] subtaskIds = epic.getSubtaskIds().toArray();
+                return ofEpic(epic, subtaskIds, subtaskIds.length);
+            case SUBTASK:
+                Subtask subtask = (Subtask) task;
+                return new TaskSnapshot(TaskType.SUBTASK, subtask.getId(), subtask.getTitle(),
+                        subtask.getDescription(), subtask.getStatus(), subtask.getEpicId(), NO_SUBTASKS, 0, null);
+            default:
+                return new TaskSnapshot(TaskType.TASK, task.getId(), task.getTitle(), task.getDescription(),
+                        task.getStatus(), 0, NO_SUBTASKS, 0, null);
+        }
+    }
+
+    public TaskSnapshot withEpicId(int epicId) {
+        return new TaskSnapshot(type, id, title, description, status, epicId, subtaskIds, subtaskCount,
+                subtaskStatusCounts);
+    }
+
+    TaskSnapshot withEpicState(Epic epic) {
+        return ofEpic(epic, subtaskIds, subtaskCount);
+    }
+
+    TaskSnapshot withSubtaskAdded(Epic epic, int subtaskId) {
+        int[] ids = subtaskIds;
+        if (subtaskCount == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, ids.length * 2));
+        }
+        ids[subtaskCount] = subtaskId;
+        return ofEpic(epic, ids, subtaskCount + 1);
+    }
+
+    private static TaskSnapshot ofEpic(Epic epic, int[] subtaskIds, int subtaskCount) {
+        TaskStatus[] statuses = TaskStatus.values();
+        int[] counts = new int[statuses.length];
+        for (TaskStatus status : statuses) {
+            counts[status.ordinal()] = epic.getSubtaskStatusCount(status);
+        }
+        return new TaskSnapshot(TaskType.EPIC, epic.getId(), epic.getTitle(), epic.getDescription(),
+                epic.getStatus(), 0, subtaskIds, subtaskCount, counts);
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public int getEpicId() {
+        return epicId;
+    }
+
+    public int getSubtaskCount() {
+        return subtaskCount;
+    }
+
+    public int getSubtaskId(int index) {
+        if (index >= subtaskCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + subtaskCount);
+        }
+        return subtaskIds[index];
+    }
+
+    public int[] getSubtaskIds() {
+        return Arrays.copyOf(subtaskIds, subtaskCount);
+    }
+
+    public int getSubtaskStatusCount(TaskStatus status) {
+        return subtaskStatusCounts == null ? 0 : subtaskStatusCounts[status.ordinal()];
+    }
+
+    public Task toTask() {
+        switch (type) {
+            case EPIC:
+                return toEpic();
+            case SUBTASK:
+                return toSubtask();
+            default:
+                return new Task(title, description, id, status);
+        }
+    }
+
+    public Epic toEpic() {
+        Epic epic = new Epic(title, description, id);
+        for (int i = 0; i < subtaskCount; i++) {
+            epic.addSubtaskId(subtaskIds[i]);
+        }
+        for (TaskStatus subtaskStatus : TaskStatus.values()) {
+            epic.setSubtaskStatusCount(subtaskStatus, getSubtaskStatusCount(subtaskStatus));
+        }
+        epic.setStatus(status);
+        return epic;
+    }
+
+    public Subtask toSubtask() {
+        Subtask subtask = new Subtask(title, description, id, status, epicId);
+        subtask.setCountedStatus(status);
+        return subtask;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        TaskSnapshot snapshot = (TaskSnapshot) obj;
+        return id == snapshot.id && type == snapshot.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package tracker;
+
+enum TaskType {
+    TASK,
+    EPIC,
+    SUBTASK
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package tracker;
+
+public class TransactionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TransactionConflictException(String message) {
+        super(message);
+    }
+
+    public TransactionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+package tracker;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+class WriteAheadLog implements Closeable {
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final CRC32C checksum;
+    private final Object appendLock;
+    private final Object syncLock;
+    private final ScheduledExecutorService flusher;
+    private BinaryWriter pending;
+    private BinaryWriter flushing;
+    private long appendedSequence;
+    private volatile long durableSequence;
+    private volatile IOException failure;
+    private boolean closed;
+
+    private WriteAheadLog(Path path, FileChannel channel, Duration groupCommitInterval) {
+        this.path = path;
+        this.channel = channel;
+        this.checksum = new CRC32C();
+        this.appendLock = new Object();
+        this.syncLock = new Object();
+        this.pending = new BinaryWriter(64 * 1024);
+        this.flushing = new BinaryWriter(64 * 1024);
+
+        if (groupCommitInterval.isZero()) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-flusher-" + path.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = groupCommitInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static WriteAheadLog open(Path path, Consumer<BinaryReader> replayer, Duration groupCommitInterval) {
+        if (groupCommitInterval.isNegative()) {
+            throw new IllegalArgumentException("groupCommitInterval must not be negative: " + groupCommitInterval);
+        }
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                long validLength = replay(channel, replayer);
+                if (validLength < channel.size()) {
+                    channel.truncate(validLength);
+                    channel.force(true);
+                }
+                channel.position(validLength);
+                return new WriteAheadLog(path, channel, groupCommitInterval);
+            } catch (RuntimeException | IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Failed to open log " + path, e);
+        }
+    }
+
+    public long append(BinaryWriter record) {
+        if (record.size() > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Record of " + record.size() + " bytes exceeds the log limit");
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Log " + path + " is closed");
+            }
+            checkHealthy();
+            checksum.reset();
+            checksum.update(record.array(), 0, record.size());
+            pending.writeVarInt(record.size());
+            pending.writeInt((int) checksum.getValue());
+            pending.writeBytes(record.array(), 0, record.size());
+            return ++appendedSequence;
+        }
+    }
+
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            checkHealthy();
+
+            long batchSequence;
+            synchronized (appendLock) {
+                BinaryWriter batch = pending;
+                pending = flushing;
+                flushing = batch;
+                batchSequence = appendedSequence;
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(flushing.array(), 0, flushing.size());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw new ManagerSaveException("Failed to write log " + path, e);
+            }
+            flushing.reset();
+            durableSequence = batchSequence;
+        }
+    }
+
+    public void flush() {
+        long sequence;
+        synchronized (appendLock) {
+            sequence = appendedSequence;
+        }
+        sync(sequence);
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to read size of log " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            awaitFlusher();
+        }
+        try {
+            if (failure == null) {
+                flush();
+            }
+        } finally {
+            synchronized (appendLock) {
+                closed = true;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Failed to close log " + path, e);
+            }
+        }
+    }
+
+    private void awaitFlusher() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (flusher.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkHealthy() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new ManagerSaveException("Log " + path + " failed earlier and no longer accepts writes", cause);
+        }
+    }
+
+    private static long replay(FileChannel channel, Consumer<BinaryReader> replayer) throws IOException {
+        CRC32C checksum = new CRC32C();
+        byte[] payload = new byte[256];
+        long validLength = 0;
+
+        InputStream input = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16);
+        while (true) {
+            int length;
+            int expectedChecksum;
+            int headerSize;
+            try {
+                long header = readVarInt(input);
+                if (header < 0 || header > MAX_RECORD_SIZE) {
+                    break;
+                }
+                length = (int) header;
+                headerSize = varIntSize(length) + 4;
+                expectedChecksum = readInt(input);
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                if (input.readNBytes(payload, 0, length) < length) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+
+            checksum.reset();
+            checksum.update(payload, 0, length);
+            if ((int) checksum.getValue() != expectedChecksum) {
+                break;
+            }
+
+            replayer.accept(new BinaryReader(payload, 0, length));
+            validLength += headerSize + length;
+        }
+        return validLength;
+    }
+
+    private static long readVarInt(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static int readInt(InputStream input) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,163 @@
+package tracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTaskManagerTest {
+
+    private static final int CLIENTS = 8;
+    private static final int OPERATIONS_PER_CLIENT = 5_000;
+
+    private AsyncTaskManager taskManager;
+
+    @AfterEach
+    void tearDown() {
+        if (taskManager != null) {
+            taskManager.close();
+        }
+    }
+
+    @Test
+    void shouldApplyWritesInSubmissionOrder() {
+        taskManager = Managers.getAsync();
+        Epic epic = taskManager.createEpic("Эпик", "Описание").join();
+        CompletableFuture<Subtask> first = taskManager.createSubtask("Первая", "Описание", TaskStatus.NEW, epic.getId());
+        CompletableFuture<Subtask> second = taskManager.createSubtask("Вторая", "Описание", TaskStatus.DONE, epic.getId());
+        CompletableFuture<Void> deleted = taskManager.deleteSubtask(first.join().getId());
+
+        deleted.join();
+        assertEquals(List.of(second.join()), taskManager.getEpicSubtasks(epic.getId()).join());
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).join().getStatus());
+    }
+
+    @Test
+    void shouldRejectOperationsBeyondInFlightBound() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TaskManager blocking = new ForwardingTaskManager(new ConcurrentTaskManager()) {
+            @Override
+            public Task createTask(String title, String description, TaskStatus status) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.createTask(title, description, status);
+            }
+        };
+        taskManager = new AsyncTaskManager(blocking, 2);
+
+        CompletableFuture<Task> first = taskManager.createTask("Первая", "Описание", TaskStatus.NEW);
+        CompletableFuture<Task> second = taskManager.createTask("Вторая", "Описание", TaskStatus.NEW);
+        CompletableFuture<ArrayList<Task>> rejected = taskManager.getAllTasks();
+
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(2, taskManager.getInFlightCount());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, taskManager.getAllTasks().get(5, TimeUnit.SECONDS).size());
+        assertEquals(0, taskManager.getInFlightCount());
+    }
+
+    @Test
+    void shouldRunReadsOnWriterUnlessDelegateIsThreadSafe() {
+        Set<String> readThreads = ConcurrentHashMap.newKeySet();
+        TaskManager recording = new ForwardingTaskManager(Managers.getDefault()) {
+            @Override
+            public Task getTask(int id) {
+                readThreads.add(Thread.currentThread().getName());
+                return super.getTask(id);
+            }
+        };
+        taskManager = new AsyncTaskManager(recording, 64);
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW).join();
+        List<CompletableFuture<Task>> reads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            reads.add(taskManager.getTask(task.getId()));
+        }
+        reads.forEach(read -> assertEquals(task, read.join()));
+
+        assertEquals(Set.of("task-manager-writer"), readThreads);
+        assertEquals(1, taskManager.getHistory().join().size());
+
+        taskManager.close();
+        readThreads.clear();
+        taskManager = new AsyncTaskManager(new ForwardingTaskManager(Managers.getConcurrent()) {
+            @Override
+            public Task getTask(int id) {
+                readThreads.add(Thread.currentThread().getName());
+                return super.getTask(id);
+            }
+        }, 64, true);
+        taskManager.getTask(1).join();
+
+        assertTrue(readThreads.iterator().next().startsWith("task-manager-reader-"), readThreads.toString());
+    }
+
+    @Test
+    void shouldCompleteMixedLoadAndReportLatencyPercentiles(TestReporter reporter) throws Exception {
+        taskManager = new AsyncTaskManager(new ConcurrentTaskManager(), CLIENTS * 64, true);
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            epics.add(taskManager.createEpic("Эпик " + i, "Описание").join());
+        }
+
+        long[][] latencies = new long[CLIENTS][OPERATIONS_PER_CLIENT];
+        List<Thread> clients = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            int clientIndex = client;
+            clients.add(Thread.ofPlatform().start(() -> {
+                Random random = new Random(clientIndex);
+                for (int i = 0; i < OPERATIONS_PER_CLIENT; i++) {
+                    Epic epic = epics.get(random.nextInt(epics.size()));
+                    long start = System.nanoTime();
+                    if (random.nextInt(10) < 2) {
+                        taskManager.createSubtask("Подзадача", "Описание", TaskStatus.IN_PROGRESS, epic.getId()).join();
+                    } else {
+                        taskManager.getEpic(epic.getId()).join();
+                    }
+                    latencies[clientIndex][i] = System.nanoTime() - start;
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join(TimeUnit.SECONDS.toMillis(60));
+            assertFalse(client.isAlive());
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long p50 = percentile(all, 0.50);
+        long p99 = percentile(all, 0.99);
+        long p999 = percentile(all, 0.999);
+        assertTrue(p50 <= p99 && p99 <= p999);
+        reporter.publishEntry(Map.of(
+                "p50", TimeUnit.NANOSECONDS.toMicros(p50) + " мкс",
+                "p99", TimeUnit.NANOSECONDS.toMicros(p99) + " мкс",
+                "p999", TimeUnit.NANOSECONDS.toMicros(p999) + " мкс"));
+        assertEquals(0, taskManager.getInFlightCount());
+        assertEquals(taskManager.getAllSubtasks().join().size(),
+                epics.stream().mapToInt(epic -> taskManager.getEpicSubtasks(epic.getId()).join().size()).sum());
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,150 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskManagerTest {
+
+    @Test
+    void shouldMatchInMemoryManagerOnRandomOperations() {
+        Random random = new Random(7);
+        ColumnarTaskManager columnar = new ColumnarTaskManager();
+        InMemoryTaskManager expected = new InMemoryTaskManager();
+        TaskStatus[] statuses = TaskStatus.values();
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = 1 + random.nextInt(i + 1);
+            TaskStatus status = statuses[random.nextInt(statuses.length)];
+            switch (random.nextInt(10)) {
+                case 0, 1 -> {
+                    columnar.createTask("Задача " + i, "Описание", status);
+                    expected.createTask("Задача " + i, "Описание", status);
+                }
+                case 2 -> {
+                    columnar.createEpic("Эпик " + i, "Описание");
+                    expected.createEpic("Эпик " + i, "Описание");
+                }
+                case 3, 4 -> {
+                    Subtask created = columnar.createSubtask("Подзадача " + i, "Описание", status, id);
+                    assertEquals(created, expected.createSubtask("Подзадача " + i, "Описание", status, id));
+                    if (created == null) {
+                        columnar.createTask("Задача " + i, "Описание", status);
+                        expected.createTask("Задача " + i, "Описание", status);
+                    }
+                }
+                case 5 -> {
+                    columnar.updateTask(new Task("Обновлённая", "Описание", id, status));
+                    expected.updateTask(new Task("Обновлённая", "Описание", id, status));
+                    Subtask subtask = expected.getSubtask(id);
+                    if (subtask != null) {
+                        int epicId = subtask.getEpicId();
+                        columnar.updateSubtask(new Subtask("Обновлённая", "Описание", id, status, epicId));
+                        expected.updateSubtask(new Subtask("Обновлённая", "Описание", id, status, epicId));
+                    }
+                }
+                case 6 -> {
+                    columnar.deleteTask(id);
+                    expected.deleteTask(id);
+                    columnar.deleteSubtask(id);
+                    expected.deleteSubtask(id);
+                }
+                case 7 -> {
+                    columnar.deleteEpic(id);
+                    expected.deleteEpic(id);
+                }
+                default -> {
+                    if (random.nextInt(200) == 0) {
+                        columnar.deleteAllSubtasks();
+                        expected.deleteAllSubtasks();
+                    }
+                }
+            }
+        }
+
+        assertSameTasks(expected.getAllTasks(), columnar.getAllTasks());
+        assertSameTasks(expected.getAllEpics(), columnar.getAllEpics());
+        assertSameTasks(expected.getAllSubtasks(), columnar.getAllSubtasks());
+        for (Epic epic : expected.getAllEpics()) {
+            assertEquals(epic.getStatus(), columnar.getEpic(epic.getId()).getStatus());
+            assertEquals(expected.getEpicSubtasks(epic.getId()), columnar.getEpicSubtasks(epic.getId()));
+            assertEquals(expected.getEpicProgress(epic.getId()), columnar.getEpicProgress(epic.getId()));
+        }
+        for (TaskStatus status : statuses) {
+            assertEquals(expected.getSubtasksByStatus(status).size(),
+                    columnar.countByStatus(TaskType.SUBTASK)[status.ordinal()]);
+            assertEquals(expected.getSubtasksByStatus(status).size(),
+                    columnar.getStatusCounts(TaskType.SUBTASK).get(status));
+            assertEquals(expected.getEpicsByStatus(status).size(), columnar.getStatusCounts(TaskType.EPIC).get(status));
+        }
+    }
+
+    @Test
+    void shouldPageInCreationOrderAcrossCompaction() {
+        ColumnarTaskManager taskManager = new ColumnarTaskManager();
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Task task = taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW);
+            if (i % 3 == 0) {
+                kept.add(task.getId());
+            }
+        }
+        for (Task task : taskManager.getAllTasks()) {
+            if (!kept.contains(task.getId())) {
+                taskManager.deleteTask(task.getId());
+            }
+        }
+
+        List<Integer> paged = new ArrayList<>();
+        TaskPage<Task> page = taskManager.getTasksByStatus(TaskStatus.NEW, TaskPage.START, 30);
+        page.getItems().forEach(task -> paged.add(task.getId()));
+        while (page.hasNext()) {
+            page = taskManager.getTasksByStatus(TaskStatus.NEW, page.getNextCursor(), 30);
+            page.getItems().forEach(task -> paged.add(task.getId()));
+        }
+
+        assertEquals(kept, paged);
+        assertEquals(100, taskManager.getAllTasksView().size());
+        Task created = taskManager.createTask("Новая", "Описание", TaskStatus.DONE);
+        assertEquals(301, created.getId());
+        assertArrayEquals(new int[]{100, 0, 1}, taskManager.countByStatus(TaskType.TASK));
+        assertEquals(101, taskManager.getStatusCounts(TaskType.TASK).getTotal());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.TASK).get(TaskStatus.DONE));
+    }
+
+    @Test
+    void shouldMaterializeDetachedCopies() {
+        ColumnarTaskManager taskManager = new ColumnarTaskManager();
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+        subtask.setStatus(TaskStatus.DONE);
+        assertEquals(TaskStatus.NEW, taskManager.getSubtask(subtask.getId()).getStatus());
+        taskManager.updateSubtask(subtask);
+
+        Epic stored = taskManager.getEpic(epic.getId());
+        assertNotSame(stored, taskManager.getEpic(epic.getId()));
+        assertEquals(TaskStatus.DONE, stored.getStatus());
+        assertEquals(1, stored.getSubtaskStatusCount(TaskStatus.DONE));
+        assertEquals(List.of(subtask, epic), taskManager.getHistory());
+
+        taskManager.deleteEpic(epic.getId());
+        assertNull(taskManager.getSubtask(subtask.getId()));
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    private static void assertSameTasks(List<? extends Task> expected, List<? extends Task> actual) {
+        expected.sort(Comparator.comparingInt(Task::getId));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getTitle(), actual.get(i).getTitle());
+            assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    @Test
+    void shouldKeepOrderedDeduplicatedHistoryAcrossBufferOverflow() {
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(3, 1, 2);
+        Task[] tasks = new Task[6];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", i + 1, TaskStatus.NEW);
+        }
+
+        for (int index : new int[]{0, 1, 2, 3, 1, 4, 5, 4}) {
+            historyManager.add(tasks[index]);
+        }
+
+        assertEquals(List.of(tasks[1], tasks[5], tasks[4]), historyManager.getHistory());
+        assertEquals(3, historyManager.getEvictionCount());
+    }
+
+    @Test
+    void shouldNotLoseViewsRecordedConcurrently() throws InterruptedException {
+        int threads = 8;
+        int viewsPerThread = 5_000;
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(threads * viewsPerThread, 4, 64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * viewsPerThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 1; i <= viewsPerThread; i++) {
+                    historyManager.add(new Task("Задача", "Описание", offset + i, TaskStatus.NEW));
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(threads * viewsPerThread, history.size());
+        Set<Integer> ids = new HashSet<>();
+        int[] lastSeen = new int[threads];
+        for (Task task : history) {
+            assertTrue(ids.add(task.getId()));
+            int thread = (task.getId() - 1) / viewsPerThread;
+            assertTrue(task.getId() > lastSeen[thread]);
+            lastSeen[thread] = task.getId();
+        }
+    }
+}
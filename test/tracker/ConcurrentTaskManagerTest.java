@@ -0,0 +1,337 @@
+package tracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+
+    private static final int THREADS = 8;
+    private static final int EPICS = 16;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    private TaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = Managers.getConcurrent();
+    }
+
+    @Test
+    void shouldGenerateUniqueIdsUnderConcurrentCreation() throws Exception {
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < 5_000; i++) {
+                if (i % 2 == 0) {
+                    taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+                } else {
+                    taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+                }
+            }
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        ids.add(epic.getId());
+        for (Task task : taskManager.getAllTasks()) {
+            assertTrue(ids.add(task.getId()));
+        }
+        for (Subtask subtask : taskManager.getAllSubtasks()) {
+            assertTrue(ids.add(subtask.getId()));
+        }
+        assertEquals(1 + THREADS * 5_000, ids.size());
+        assertEquals(THREADS * 2_500, taskManager.getEpicSubtasks(epic.getId()).size());
+    }
+
+    @Test
+    void shouldKeepEpicStatusConsistentUnderConcurrentSubtaskChanges() throws Exception {
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epics.add(taskManager.createEpic("Эпик " + i, "Описание"));
+        }
+
+        runConcurrently(threadIndex -> {
+            Random random = new Random(threadIndex);
+            List<Subtask> ownSubtasks = new ArrayList<>();
+            TaskStatus[] statuses = TaskStatus.values();
+
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int operation = random.nextInt(10);
+                if (operation < 4 || ownSubtasks.isEmpty()) {
+                    Epic epic = epics.get(random.nextInt(EPICS));
+                    Subtask subtask = taskManager.createSubtask("Подзадача", "Описание",
+                            statuses[random.nextInt(statuses.length)], epic.getId());
+                    ownSubtasks.add(subtask);
+                } else if (operation < 8) {
+                    Subtask subtask = ownSubtasks.get(random.nextInt(ownSubtasks.size()));
+                    subtask.setStatus(statuses[random.nextInt(statuses.length)]);
+                    taskManager.updateSubtask(subtask);
+                } else if (operation < 9) {
+                    Subtask subtask = ownSubtasks.remove(random.nextInt(ownSubtasks.size()));
+                    taskManager.deleteSubtask(subtask.getId());
+                } else {
+                    Epic epic = epics.get(random.nextInt(EPICS));
+                    taskManager.getEpicSubtasks(epic.getId());
+                    taskManager.getEpic(epic.getId());
+                }
+            }
+        });
+
+        int linkedSubtasks = 0;
+        for (Epic epic : epics) {
+            List<Subtask> epicSubtasks = taskManager.getEpicSubtasks(epic.getId());
+            linkedSubtasks += epicSubtasks.size();
+
+            for (Subtask subtask : epicSubtasks) {
+                assertEquals(epic.getId(), subtask.getEpicId());
+                assertSame(subtask, taskManager.getSubtask(subtask.getId()));
+            }
+            assertEquals(expectedStatus(epicSubtasks), taskManager.getEpic(epic.getId()).getStatus());
+        }
+        assertEquals(taskManager.getAllSubtasks().size(), linkedSubtasks);
+        assertEquals(StatusCounts.of(taskManager.getAllSubtasks()), taskManager.getStatusCounts(TaskType.SUBTASK));
+        assertEquals(StatusCounts.of(taskManager.getAllEpics()), taskManager.getStatusCounts(TaskType.EPIC));
+    }
+
+    @Test
+    void shouldNotLeaveOrphanSubtasksWhenEpicsAreDeletedConcurrently() throws Exception {
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epics.add(taskManager.createEpic("Эпик " + i, "Описание"));
+        }
+
+        runConcurrently(threadIndex -> {
+            Random random = new Random(threadIndex);
+            for (int i = 0; i < 2_000; i++) {
+                Epic epic = epics.get(random.nextInt(EPICS));
+                if (threadIndex == 0 && i % 200 == 0) {
+                    taskManager.deleteEpic(epic.getId());
+                } else {
+                    taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+                }
+            }
+        });
+
+        for (Subtask subtask : taskManager.getAllSubtasks()) {
+            Epic epic = taskManager.getEpic(subtask.getEpicId());
+            assertNotNull(epic);
+            assertTrue(epic.getSubtaskIds().contains(subtask.getId()));
+        }
+    }
+
+    @Test
+    void shouldMoveSubtasksBetweenEpicsAtomically() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic source = manager.createEpic("Источник", "Описание");
+        Epic target = manager.createEpic("Цель", "Описание");
+        Subtask first = manager.createSubtask("Первая", "Описание", TaskStatus.DONE, source.getId());
+        Subtask second = manager.createSubtask("Вторая", "Описание", TaskStatus.NEW, source.getId());
+
+        ConcurrentTaskManager.Transaction transaction = manager.beginTransaction();
+        transaction.moveSubtask(first.getId(), target.getId());
+        Subtask renamed = transaction.getSubtask(second.getId());
+        renamed.setStatus(TaskStatus.DONE);
+        transaction.updateSubtask(renamed);
+        transaction.commit();
+
+        assertEquals(target.getId(), manager.getSubtask(first.getId()).getEpicId());
+        assertEquals(List.of(second), manager.getEpicSubtasks(source.getId()));
+        assertEquals(List.of(first), manager.getEpicSubtasks(target.getId()));
+        assertEquals(TaskStatus.DONE, manager.getEpic(source.getId()).getStatus());
+        assertEquals(TaskStatus.DONE, manager.getEpic(target.getId()).getStatus());
+        assertThrows(IllegalStateException.class, transaction::commit);
+    }
+
+    @Test
+    void shouldRejectTransactionWhenReadSetChanged() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+
+        ConcurrentTaskManager.Transaction transaction = manager.beginTransaction();
+        Task read = transaction.getTask(task.getId());
+        manager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        transaction.getEpic(epic.getId());
+        manager.updateTask(new Task("Чужая правка", "Описание", task.getId(), TaskStatus.DONE));
+        transaction.updateTask(new Task("Моя правка", read.getDescription(), task.getId(), TaskStatus.IN_PROGRESS));
+
+        assertThrows(TransactionConflictException.class, transaction::commit);
+        assertEquals("Чужая правка", manager.getTask(task.getId()).getTitle());
+    }
+
+    @Test
+    void shouldRollBackAppliedWritesWhenTransactionFails() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic source = manager.createEpic("Источник", "Описание");
+        Epic target = manager.createEpic("Цель", "Описание");
+        Epic removed = manager.createEpic("Удаляемый", "Описание");
+        Subtask first = manager.createSubtask("Первая", "Описание", TaskStatus.NEW, source.getId());
+        Subtask second = manager.createSubtask("Вторая", "Описание", TaskStatus.IN_PROGRESS, source.getId());
+        Subtask third = manager.createSubtask("Третья", "Описание", TaskStatus.NEW, source.getId());
+
+        ConcurrentTaskManager.Transaction transaction = manager.beginTransaction();
+        transaction.moveSubtask(second.getId(), target.getId());
+        transaction.deleteSubtask(first.getId());
+        transaction.moveSubtask(third.getId(), removed.getId());
+        manager.deleteEpic(removed.getId());
+
+        assertThrows(TransactionConflictException.class, transaction::commit);
+        assertEquals(List.of(first, second, third), manager.getEpicSubtasks(source.getId()));
+        assertSame(second, manager.getSubtask(second.getId()));
+        assertEquals(source.getId(), second.getEpicId());
+        assertTrue(manager.getEpicSubtasks(target.getId()).isEmpty());
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpic(source.getId()).getStatus());
+        assertEquals(TaskStatus.NEW, manager.getEpic(target.getId()).getStatus());
+        assertEquals(1, source.getSubtaskStatusCount(TaskStatus.IN_PROGRESS));
+        assertEquals(2, source.getSubtaskStatusCount(TaskStatus.NEW));
+        assertEquals(2, manager.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.NEW));
+        assertEquals(1, manager.getStatusCounts(TaskType.EPIC).get(TaskStatus.IN_PROGRESS));
+        assertEquals(1, manager.getStatusCounts(TaskType.EPIC).get(TaskStatus.NEW));
+    }
+
+    @Test
+    void shouldNotLoseUpdatesWhenTransactionsAreRetried() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task counter = manager.createTask("0", "Счётчик", TaskStatus.NEW);
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = manager.createEpic("Эпик " + i, "Описание");
+            manager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+            epics.add(epic);
+        }
+
+        runConcurrently(threadIndex -> {
+            Epic own = epics.get(threadIndex);
+            Epic next = epics.get((threadIndex + 1) % THREADS);
+            for (int i = 0; i < 1_000; i++) {
+                while (true) {
+                    ConcurrentTaskManager.Transaction transaction = manager.beginTransaction();
+                    Task task = transaction.getTask(counter.getId());
+                    transaction.updateTask(new Task(String.valueOf(Integer.parseInt(task.getTitle()) + 1),
+                            task.getDescription(), task.getId(), task.getStatus()));
+                    try {
+                        transaction.commit();
+                        break;
+                    } catch (TransactionConflictException e) {
+                        // повторяем с новым снимком
+                    }
+                }
+                Subtask subtask = manager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, own.getId());
+                ConcurrentTaskManager.Transaction transaction = manager.beginTransaction();
+                transaction.moveSubtask(subtask.getId(), next.getId());
+                transaction.commit();
+            }
+        });
+
+        assertEquals(String.valueOf(THREADS * 1_000), manager.getTask(counter.getId()).getTitle());
+        for (Epic epic : epics) {
+            List<Subtask> epicSubtasks = manager.getEpicSubtasks(epic.getId());
+            assertEquals(1_001, epicSubtasks.size());
+            for (Subtask subtask : epicSubtasks) {
+                assertEquals(epic.getId(), subtask.getEpicId());
+            }
+            assertEquals(TaskStatus.IN_PROGRESS, manager.getEpic(epic.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void shouldApplyBatchAsOneTransaction() throws InterruptedException {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic existing = manager.createEpic("Эпик", "Описание");
+        Subtask kept = manager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, existing.getId());
+        LinkedBlockingQueue<TaskEvent> received = new LinkedBlockingQueue<>();
+        manager.subscribe(received::addAll);
+
+        TaskBatch batch = new TaskBatch();
+        Epic renamed = manager.getEpic(existing.getId());
+        renamed.setTitle("Переименованный");
+        batch.updateEpic(renamed);
+        int epic = batch.createEpic("Новый эпик", "Описание");
+        int removed = batch.createSubtask("Первая", "Описание", TaskStatus.NEW, epic);
+        batch.createSubtask("Вторая", "Описание", TaskStatus.DONE, epic);
+        batch.deleteSubtask(removed);
+        batch.deleteTask(task.getId());
+        batch.deleteTask(Integer.MAX_VALUE);
+        int[] ids = manager.applyBatch(batch);
+
+        assertEquals(3, ids.length);
+        assertNull(manager.getTask(task.getId()));
+        assertEquals("Переименованный", manager.getEpic(existing.getId()).getTitle());
+        assertEquals(List.of(kept), manager.getEpicSubtasks(existing.getId()));
+        assertNull(manager.getSubtask(ids[1]));
+        assertEquals(List.of(manager.getSubtask(ids[2])), manager.getEpicSubtasks(ids[0]));
+        assertEquals(TaskStatus.DONE, manager.getEpic(ids[0]).getStatus());
+        assertEquals(2, manager.getStatusCounts(TaskType.EPIC).get(TaskStatus.DONE));
+        assertEquals(2, manager.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.DONE));
+        assertEquals(0, manager.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.NEW));
+        assertEquals(0, manager.getStatusCounts(TaskType.TASK).get(TaskStatus.NEW));
+
+        List<String> expected = List.of(
+                "UPDATED EPIC " + existing.getId() + " DONE",
+                "CREATED EPIC " + ids[0] + " DONE",
+                "CREATED SUBTASK " + ids[2] + " DONE",
+                "DELETED TASK " + task.getId() + " NEW",
+                "EPIC_STATUS_CHANGED EPIC " + ids[0] + " DONE");
+        List<String> actual = new ArrayList<>();
+        while (actual.size() < expected.size()) {
+            TaskEvent event = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "События не доставлены: " + actual);
+            actual.add(event.toString());
+        }
+        assertEquals(expected, actual);
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static TaskStatus expectedStatus(List<Subtask> epicSubtasks) {
+        boolean allNew = true;
+        boolean allDone = true;
+        for (Subtask subtask : epicSubtasks) {
+            allNew &= subtask.getStatus() == TaskStatus.NEW;
+            allDone &= subtask.getStatus() == TaskStatus.DONE;
+        }
+        if (allNew) {
+            return TaskStatus.NEW;
+        }
+        return allDone ? TaskStatus.DONE : TaskStatus.IN_PROGRESS;
+    }
+
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int threadIndex = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(threadIndex);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int threadIndex);
+    }
+}
@@ -0,0 +1,229 @@
+package tracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyOnWriteTaskManagerTest {
+
+    private CopyOnWriteTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = new CopyOnWriteTaskManager();
+    }
+
+    @Test
+    void shouldNotExposeStoredInstances() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+
+        Task retrievedTask = taskManager.getTask(task.getId());
+        retrievedTask.setTitle("Изменено без обновления");
+
+        assertEquals("Задача", taskManager.getTask(task.getId()).getTitle());
+        assertNotSame(taskManager.getTask(task.getId()), taskManager.getTask(task.getId()));
+    }
+
+    @Test
+    void shouldPublishNewVersionOnUpdate() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        TaskSnapshot before = taskManager.getTaskSnapshot(task.getId());
+
+        task.setStatus(TaskStatus.DONE);
+        taskManager.updateTask(task);
+
+        assertEquals(TaskStatus.NEW, before.getStatus());
+        assertEquals(TaskStatus.DONE, taskManager.getTaskSnapshot(task.getId()).getStatus());
+    }
+
+    @Test
+    void shouldPublishEpicStatusWithSubtaskChanges() {
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask subtask2 = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+
+        subtask1.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask1);
+        TaskSnapshot inProgress = taskManager.getEpicSnapshot(epic.getId());
+
+        subtask2.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask2);
+
+        assertEquals(TaskStatus.IN_PROGRESS, inProgress.getStatus());
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).getStatus());
+        assertEquals(2, taskManager.getEpic(epic.getId()).getSubtaskStatusCount(TaskStatus.DONE));
+        assertEquals(List.of(subtask1, subtask2), taskManager.getEpicSubtasks(epic.getId()));
+
+        taskManager.deleteSubtask(subtask1.getId());
+
+        assertArrayEquals(new int[]{subtask2.getId()}, taskManager.getEpicSnapshot(epic.getId()).getSubtaskIds());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.SUBTASK).getTotal());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.EPIC).get(TaskStatus.DONE));
+
+        taskManager.deleteAllSubtasks();
+
+        assertEquals(0, taskManager.getStatusCounts(TaskType.SUBTASK).getTotal());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.EPIC).get(TaskStatus.NEW));
+    }
+
+    @Test
+    void shouldKeepEarlierEpicSnapshotsWhenSubtasksAreAdded() {
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        List<TaskSnapshot> versions = new ArrayList<>();
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId()).getId();
+            versions.add(taskManager.getEpicSnapshot(epic.getId()));
+        }
+        Subtask first = taskManager.getSubtask(ids[0]);
+        first.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(first);
+        taskManager.deleteSubtask(ids[1]);
+        taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertArrayEquals(Arrays.copyOf(ids, i + 1), versions.get(i).getSubtaskIds());
+        }
+        TaskSnapshot latest = taskManager.getEpicSnapshot(epic.getId());
+        assertEquals(100, latest.getSubtaskCount());
+        assertEquals(ids[0], latest.getSubtaskId(0));
+        assertEquals(ids[2], latest.getSubtaskId(1));
+        assertEquals(TaskStatus.IN_PROGRESS, latest.getStatus());
+        assertThrows(IndexOutOfBoundsException.class, () -> versions.get(0).getSubtaskId(1));
+    }
+
+    @Test
+    void shouldRemoveDeletedEntitiesFromHistory() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Task other = taskManager.createTask("Другая задача", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask kept = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        taskManager.getTask(task.getId());
+        taskManager.getSubtask(subtask.getId());
+        taskManager.getSubtask(kept.getId());
+        taskManager.getEpic(epic.getId());
+        taskManager.getTask(other.getId());
+
+        taskManager.deleteTask(task.getId());
+        taskManager.deleteSubtask(subtask.getId());
+        assertEquals(List.of(kept.getId(), epic.getId(), other.getId()), historyIds(taskManager));
+
+        taskManager.deleteAllSubtasks();
+        assertEquals(List.of(epic.getId(), other.getId()), historyIds(taskManager));
+
+        taskManager.deleteAllTasks();
+        assertEquals(List.of(epic.getId()), historyIds(taskManager));
+
+        taskManager.getSubtask(taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW,
+                epic.getId()).getId());
+        taskManager.deleteAllEpics();
+        assertTrue(taskManager.getHistory().isEmpty());
+
+        Epic second = taskManager.createEpic("Эпик", "Описание");
+        Subtask child = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, second.getId());
+        taskManager.getSubtask(child.getId());
+        taskManager.getEpic(second.getId());
+        taskManager.deleteEpic(second.getId());
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void shouldKeepHistoryOfImmutableVersions() {
+        Task task = taskManager.createTask("Версия 1", "Описание", TaskStatus.NEW);
+        taskManager.getTask(task.getId());
+        List<TaskSnapshot> historyBefore = taskManager.getHistorySnapshots();
+
+        task.setTitle("Версия 2");
+        taskManager.updateTask(task);
+        taskManager.getTask(task.getId());
+
+        assertEquals("Версия 1", historyBefore.get(0).getTitle());
+        assertEquals(1, taskManager.getHistory().size());
+        assertEquals("Версия 2", taskManager.getHistory().get(0).getTitle());
+    }
+
+    @Test
+    void shouldNeverExposeTornStateToConcurrentReaders() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            tasks.add(taskManager.createTask("0", "0", TaskStatus.NEW));
+        }
+        Epic epic = taskManager.createEpic("0", "0");
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            subtasks.add(taskManager.createSubtask("0", "0", TaskStatus.NEW, epic.getId()));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    TaskStatus[] statuses = TaskStatus.values();
+                    for (int version = 1; version <= 20_000; version++) {
+                        Task task = tasks.get((version + writer) % tasks.size());
+                        Task update = new Task(String.valueOf(version), String.valueOf(version), task.getId(),
+                                statuses[version % statuses.length]);
+                        taskManager.updateTask(update);
+
+                        Subtask subtask = subtasks.get((version + writer) % subtasks.size());
+                        taskManager.updateSubtask(new Subtask(String.valueOf(version), String.valueOf(version),
+                                subtask.getId(), statuses[version % statuses.length], epic.getId()));
+                    }
+                }));
+            }
+
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        for (Task task : taskManager.getAllTasks()) {
+                            assertEquals(task.getTitle(), task.getDescription());
+                        }
+                        for (Task task : taskManager.getHistory()) {
+                            assertEquals(task.getTitle(), task.getDescription());
+                        }
+                        for (Subtask subtask : taskManager.getEpicSubtasks(epic.getId())) {
+                            assertEquals(subtask.getTitle(), subtask.getDescription());
+                        }
+                        TaskSnapshot epicSnapshot = taskManager.getEpicSnapshot(epic.getId());
+                        int counted = 0;
+                        for (TaskStatus status : TaskStatus.values()) {
+                            counted += epicSnapshot.getSubtaskStatusCount(status);
+                        }
+                        assertEquals(epicSnapshot.getSubtaskCount(), counted);
+                        taskManager.getTask(tasks.get(0).getId());
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Integer> historyIds(TaskManager taskManager) {
+        return taskManager.getHistory().stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpicStatusTest {
+
+    private static final int EPICS = 8;
+    private static final int OPERATIONS = 20_000;
+
+    @Test
+    void shouldMatchFullScanForInMemoryTaskManager() {
+        for (long seed = 0; seed < 5; seed++) {
+            checkRandomOperations(Managers.getDefault(), seed);
+        }
+    }
+
+    @Test
+    void shouldMatchFullScanForConcurrentTaskManager() {
+        for (long seed = 0; seed < 5; seed++) {
+            checkRandomOperations(Managers.getConcurrent(), seed);
+        }
+    }
+
+    @Test
+    void shouldCountSubtaskStatusesOfEpic() {
+        TaskManager taskManager = Managers.getDefault();
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask subtask = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+
+        subtask.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask);
+
+        assertEquals(1, epic.getSubtaskStatusCount(TaskStatus.NEW));
+        assertEquals(0, epic.getSubtaskStatusCount(TaskStatus.IN_PROGRESS));
+        assertEquals(1, epic.getSubtaskStatusCount(TaskStatus.DONE));
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+
+        taskManager.deleteSubtask(subtask.getId());
+
+        assertEquals(0, epic.getSubtaskStatusCount(TaskStatus.DONE));
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+    }
+
+    @Test
+    void shouldRecountStatusWhenEpicIsReplacedByAnotherInstance() {
+        TaskManager taskManager = Managers.getDefault();
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+
+        Epic replacement = new Epic("Новый эпик", "Описание", epic.getId());
+        replacement.addSubtaskId(subtask.getId());
+        replacement.setStatus(TaskStatus.NEW);
+        taskManager.updateEpic(replacement);
+
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).getStatus());
+        assertEquals(List.of(replacement), taskManager.getEpicsByStatus(TaskStatus.DONE));
+
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateSubtask(subtask);
+
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getEpic(epic.getId()).getStatus());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.EPIC).getTotal());
+        assertEquals(1, taskManager.getStatusCounts(TaskType.EPIC).get(TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void shouldIgnoreEpicIdChangeOnSubtaskUpdate() {
+        for (TaskManager taskManager : List.of(Managers.getDefault(), Managers.getConcurrent(),
+                Managers.getCopyOnWrite(), Managers.getSharded(), Managers.getColumnar())) {
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            Epic emptyEpic = taskManager.createEpic("Пустой эпик", "Описание");
+            Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+            Subtask moved = new Subtask("Подзадача", "Описание", subtask.getId(), TaskStatus.DONE,
+                    emptyEpic.getId());
+            taskManager.updateSubtask(moved);
+
+            assertEquals(epic.getId(), taskManager.getSubtask(subtask.getId()).getEpicId());
+            assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).getStatus());
+            assertEquals(1, taskManager.getEpicProgress(epic.getId()).get(TaskStatus.DONE));
+            assertEquals(TaskStatus.NEW, taskManager.getEpic(emptyEpic.getId()).getStatus());
+            assertEquals(0, taskManager.getEpicProgress(emptyEpic.getId()).getTotal());
+        }
+    }
+
+    private static void checkRandomOperations(TaskManager taskManager, long seed) {
+        Random random = new Random(seed);
+        TaskStatus[] statuses = TaskStatus.values();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epics.add(taskManager.createEpic("Эпик " + i, "Описание"));
+        }
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = random.nextInt(100);
+            if (operation < 35 || subtasks.isEmpty()) {
+                Epic epic = epics.get(random.nextInt(EPICS));
+                subtasks.add(taskManager.createSubtask("Подзадача", "Описание",
+                        statuses[random.nextInt(statuses.length)], epic.getId()));
+            } else if (operation < 65) {
+                Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                subtask.setStatus(statuses[random.nextInt(statuses.length)]);
+                taskManager.updateSubtask(subtask);
+            } else if (operation < 80) {
+                int index = random.nextInt(subtasks.size());
+                Subtask stored = subtasks.get(index);
+                Subtask replacement = new Subtask(stored.getTitle(), stored.getDescription(), stored.getId(),
+                        statuses[random.nextInt(statuses.length)], stored.getEpicId());
+                taskManager.updateSubtask(replacement);
+                subtasks.set(index, replacement);
+            } else if (operation < 95) {
+                Subtask subtask = subtasks.remove(random.nextInt(subtasks.size()));
+                taskManager.deleteSubtask(subtask.getId());
+            } else if (operation < 99) {
+                Epic epic = epics.get(random.nextInt(EPICS));
+                epic.setStatus(statuses[random.nextInt(statuses.length)]);
+                taskManager.updateEpic(epic);
+            } else {
+                taskManager.deleteAllSubtasks();
+                subtasks.clear();
+            }
+
+            Epic epic = epics.get(random.nextInt(EPICS));
+            assertEquals(fullScanStatus(taskManager, epic), epic.getStatus(),
+                    "seed " + seed + ", operation " + i);
+        }
+
+        for (Epic epic : epics) {
+            assertEquals(fullScanStatus(taskManager, epic), epic.getStatus());
+        }
+        assertEquals(StatusCounts.of(taskManager.getAllEpicsView()), taskManager.getStatusCounts(TaskType.EPIC));
+        assertEquals(StatusCounts.of(taskManager.getAllSubtasksView()),
+                taskManager.getStatusCounts(TaskType.SUBTASK));
+        for (TaskStatus status : statuses) {
+            assertEquals(TaskPage.filter(taskManager.getAllEpicsView(), status).size(),
+                    taskManager.getEpicsByStatus(status).size());
+        }
+    }
+
+    private static TaskStatus fullScanStatus(TaskManager taskManager, Epic epic) {
+        List<Subtask> epicSubtasks = taskManager.getEpicSubtasks(epic.getId());
+        if (epicSubtasks.isEmpty()) {
+            return TaskStatus.NEW;
+        }
+
+        boolean allNew = true;
+        boolean allDone = true;
+
+        for (Subtask subtask : epicSubtasks) {
+            TaskStatus status = subtask.getStatus();
+            if (status != TaskStatus.NEW) {
+                allNew = false;
+            }
+            if (status != TaskStatus.DONE) {
+                allDone = false;
+            }
+        }
+
+        if (allNew) {
+            return TaskStatus.NEW;
+        } else if (allDone) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,266 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBackedTaskManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldStartEmptyWithNewLog() {
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(directory.resolve("tasks.log"))) {
+            assertTrue(taskManager.getAllTasks().isEmpty());
+            assertTrue(taskManager.getAllEpics().isEmpty());
+            assertTrue(taskManager.getAllSubtasks().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldRestoreStateByReplayingLog() {
+        Path logFile = directory.resolve("tasks.log");
+        Task task;
+        Epic epic;
+        Subtask subtask1;
+        Subtask subtask2;
+
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+            epic = taskManager.createEpic("Эпик", "Описание эпика");
+            subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+            subtask2 = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+            Subtask removed = taskManager.createSubtask("Подзадача 3", "Описание", TaskStatus.NEW, epic.getId());
+            Task removedTask = taskManager.createTask("Удаляемая", "Описание", TaskStatus.NEW);
+
+            task.setTitle("Новое название");
+            task.setStatus(TaskStatus.IN_PROGRESS);
+            taskManager.updateTask(task);
+            subtask1.setStatus(TaskStatus.DONE);
+            taskManager.updateSubtask(subtask1);
+            epic.setDescription("Новое описание эпика");
+            taskManager.updateEpic(epic);
+            taskManager.deleteSubtask(removed.getId());
+            taskManager.deleteTask(removedTask.getId());
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            Task restoredTask = restored.getTask(task.getId());
+            assertEquals("Новое название", restoredTask.getTitle());
+            assertEquals(TaskStatus.IN_PROGRESS, restoredTask.getStatus());
+            assertEquals(1, restored.getAllTasks().size());
+
+            Epic restoredEpic = restored.getEpic(epic.getId());
+            assertEquals("Новое описание эпика", restoredEpic.getDescription());
+            assertEquals(TaskStatus.IN_PROGRESS, restoredEpic.getStatus());
+            assertEquals(List.of(subtask1, subtask2), restored.getEpicSubtasks(epic.getId()));
+            assertEquals(TaskStatus.DONE, restored.getSubtask(subtask1.getId()).getStatus());
+
+            Task next = restored.createTask("Следующая", "Описание", TaskStatus.NEW);
+            assertEquals(subtask2.getId() + 3, next.getId());
+        }
+    }
+
+    @Test
+    void shouldReplayBulkDeletes() {
+        Path logFile = directory.resolve("tasks.log");
+
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+            taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+            taskManager.deleteAllSubtasks();
+            taskManager.deleteAllTasks();
+            taskManager.createEpic("Второй эпик", "Описание");
+            taskManager.deleteEpic(epic.getId());
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertTrue(restored.getAllTasks().isEmpty());
+            assertTrue(restored.getAllSubtasks().isEmpty());
+            assertEquals(1, restored.getAllEpics().size());
+            assertEquals(TaskStatus.NEW, restored.getAllEpics().get(0).getStatus());
+        }
+    }
+
+    @Test
+    void shouldNotRecordReplayInHistory() {
+        Path logFile = directory.resolve("tasks.log");
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertTrue(restored.getHistory().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldDropTornRecordAtEndOfLog() throws IOException {
+        Path logFile = directory.resolve("tasks.log");
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+            taskManager.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        }
+        long size = Files.size(logFile);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertEquals(1, restored.getAllTasks().size());
+            Task task = restored.createTask("Задача 3", "Описание", TaskStatus.NEW);
+            assertEquals(2, task.getId());
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertEquals(2, restored.getAllTasks().size());
+        }
+    }
+
+    @Test
+    void shouldReplayBatchFromSingleRecord() throws IOException {
+        Path logFile = directory.resolve("tasks.log");
+        Epic existing;
+        Subtask replaced;
+        int[] ids;
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            existing = taskManager.createEpic("Эпик", "Описание");
+            Subtask removed = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, existing.getId());
+            replaced = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, existing.getId());
+            long sizeBeforeBatch = Files.size(logFile);
+
+            TaskBatch batch = new TaskBatch();
+            int epic = batch.createEpic("Новый эпик", "Описание");
+            batch.createSubtask("Подзадача 3", "Описание", TaskStatus.DONE, epic);
+            int task = batch.createTask("Задача", "Описание", TaskStatus.NEW);
+            batch.deleteTask(task);
+            batch.deleteSubtask(removed.getId());
+            batch.updateSubtask(new Subtask("Обновлённая", "Описание", replaced.getId(), TaskStatus.DONE,
+                    existing.getId()));
+            taskManager.applyBatch(batch);
+
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(sizeBeforeBatch + (Files.size(logFile) - sizeBeforeBatch) / 2);
+            }
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertTrue(restored.getAllTasks().isEmpty());
+            assertEquals(1, restored.getAllEpics().size());
+            assertEquals(2, restored.getEpicSubtasks(existing.getId()).size());
+            assertEquals(TaskStatus.NEW, restored.getEpic(existing.getId()).getStatus());
+        }
+
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            TaskBatch batch = new TaskBatch();
+            int epic = batch.createEpic("Новый эпик", "Описание");
+            batch.createSubtask("Подзадача 3", "Описание", TaskStatus.DONE, epic);
+            batch.updateSubtask(new Subtask("Обновлённая", "Описание", replaced.getId(), TaskStatus.DONE,
+                    existing.getId()));
+            ids = taskManager.applyBatch(batch);
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertEquals(TaskStatus.DONE, restored.getEpic(ids[0]).getStatus());
+            assertEquals(ids[1], restored.getEpicSubtasks(ids[0]).get(0).getId());
+            assertEquals("Обновлённая", restored.getSubtask(replaced.getId()).getTitle());
+            assertEquals(TaskStatus.IN_PROGRESS, restored.getEpic(existing.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void shouldRefuseWritesAfterFailedSync() {
+        Path logFile = directory.resolve("tasks.log");
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(logFile)) {
+            Task durable = taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(ManagerSaveException.class,
+                        () -> taskManager.createTask("Задача 2", "Описание", TaskStatus.NEW));
+            } finally {
+                Thread.interrupted();
+            }
+            int inMemory = taskManager.getAllTasks().size();
+
+            assertThrows(ManagerSaveException.class,
+                    () -> taskManager.createTask("Задача 3", "Описание", TaskStatus.NEW));
+            assertThrows(ManagerSaveException.class, () -> taskManager.deleteTask(durable.getId()));
+            assertEquals(inMemory, taskManager.getAllTasks().size());
+            assertEquals(durable, taskManager.getTask(durable.getId()));
+        }
+
+        try (FileBackedTaskManager restored = Managers.getFileBacked(logFile)) {
+            assertEquals(1, restored.getAllTasks().size());
+            assertEquals("Задача 1", restored.getAllTasks().get(0).getTitle());
+        }
+    }
+
+    @Test
+    void shouldFlushPendingRecordsWithGroupCommit() {
+        Path logFile = directory.resolve("tasks.log");
+        try (FileBackedTaskManager taskManager = new FileBackedTaskManager(new InMemoryTaskManager(), logFile,
+                Duration.ofSeconds(10))) {
+            taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+            assertEquals(0, taskManager.getLogSize());
+
+            taskManager.flush();
+            assertTrue(taskManager.getLogSize() > 0);
+        }
+    }
+
+    @Test
+    void shouldServeReadsWhileWritesAreLoggedByDefault() throws Exception {
+        try (FileBackedTaskManager taskManager = Managers.getFileBacked(directory.resolve("tasks.log"))) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> reader = executor.submit(() -> {
+                    int seen = 0;
+                    while (seen < 2_000) {
+                        seen = taskManager.getAllTasks().size();
+                        taskManager.getTasksByStatus(TaskStatus.NEW);
+                        taskManager.getStatusCounts(TaskType.TASK);
+                    }
+                    return null;
+                });
+                for (int i = 0; i < 2_000; i++) {
+                    taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW);
+                }
+                reader.get(60, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(2_000, taskManager.getStatusCounts(TaskType.TASK).get(TaskStatus.NEW));
+        }
+    }
+
+    @Test
+    void shouldWorkOverConcurrentDelegate() {
+        Path logFile = directory.resolve("tasks.log");
+        try (FileBackedTaskManager taskManager = new FileBackedTaskManager(Managers.getConcurrent(), logFile,
+                Duration.ZERO)) {
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+        }
+
+        try (FileBackedTaskManager restored = new FileBackedTaskManager(Managers.getConcurrent(), logFile,
+                Duration.ZERO)) {
+            assertEquals(TaskStatus.DONE, restored.getAllEpics().get(0).getStatus());
+        }
+    }
+}
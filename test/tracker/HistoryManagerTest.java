@@ -3,6 +3,8 @@ package tracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -135,7 +137,7 @@ class HistoryManagerTest {
     }
 
     @Test
-    void shouldAllowDuplicatesInHistory() {
+    void shouldNotKeepDuplicatesInHistory() {
         Task task = new Task("Задача", "Описание", 1, TaskStatus.NEW);
 
         historyManager.add(task);
@@ -143,6 +145,94 @@ class HistoryManagerTest {
         historyManager.add(task);
 
         List<Task> history = historyManager.getHistory();
-        assertEquals(3, history.size());
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    void shouldMoveRepeatedlyViewedTaskToEnd() {
+        Task task1 = new Task("Задача 1", "Описание 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Задача 2", "Описание 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Задача 3", "Описание 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(List.of(task2, task3, task1), history);
+    }
+
+    @Test
+    void shouldNotEvictWhenRepeatedViewFitsCapacity() {
+        for (int i = 1; i <= 10; i++) {
+            historyManager.add(new Task("Задача " + i, "Описание " + i, i, TaskStatus.NEW));
+        }
+
+        historyManager.add(new Task("Задача 1", "Описание 1", 1, TaskStatus.NEW));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(10, history.size());
+        assertEquals(2, history.get(0).getId());
+        assertEquals(1, history.get(9).getId());
+    }
+
+    @Test
+    void shouldKeepLatestVersionOfRepeatedlyViewedTask() {
+        Task task = new Task("Старое название", "Описание", 1, TaskStatus.NEW);
+        Task updatedTask = new Task("Новое название", "Описание", 1, TaskStatus.DONE);
+
+        historyManager.add(task);
+        historyManager.add(updatedTask);
+
+        assertSame(updatedTask, historyManager.getHistory().get(0));
+    }
+
+    @Test
+    void shouldUseConfiguredCapacity() {
+        HistoryManager largeHistory = Managers.getDefaultHistory(50_000);
+
+        for (int i = 1; i <= 60_000; i++) {
+            largeHistory.add(new Task("Задача " + i, "Описание " + i, i, TaskStatus.NEW));
+        }
+
+        List<Task> history = largeHistory.getHistory();
+        assertEquals(50_000, history.size());
+        assertEquals(10_001, history.get(0).getId());
+        assertEquals(60_000, history.get(49_999).getId());
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(0));
+    }
+
+    @Test
+    void shouldExposeLiveHistoryView() {
+        Task task1 = new Task("Задача 1", "Описание 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Задача 2", "Описание 2", 2, TaskStatus.NEW);
+
+        Collection<Task> view = historyManager.getHistoryView();
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+
+        assertEquals(2, view.size());
+        assertEquals(List.of(task2, task1), new ArrayList<>(view));
+    }
+
+    @Test
+    void shouldRemoveTaskFromHistory() {
+        Task task1 = new Task("Задача 1", "Описание 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Задача 2", "Описание 2", 2, TaskStatus.NEW);
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        historyManager.remove(1);
+        historyManager.remove(3);
+
+        assertEquals(List.of(task2), historyManager.getHistory());
+        historyManager.add(task1);
+        assertEquals(List.of(task2, task1), historyManager.getHistory());
     }
 }
@@ -0,0 +1,81 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryRegistryTest {
+
+    @Test
+    void shouldKeepSeparateHistoryPerSession() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+        manager.getTask("alice", task.getId());
+        manager.getSubtask("alice", subtask.getId());
+        manager.getEpic("bob", epic.getId());
+        manager.getTask("alice", task.getId());
+        manager.getTask("bob", 404);
+
+        assertEquals(List.of(subtask, task), manager.getHistory("alice"));
+        assertEquals(List.<Task>of(epic), manager.getHistory("bob"));
+        assertTrue(manager.getHistory("carol").isEmpty());
+        assertTrue(manager.getHistory().isEmpty());
+        assertEquals(2, manager.getSessionHistories().getSessionCount());
+    }
+
+    @Test
+    void shouldSkipDeletedTasksInSessionHistory() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task first = manager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+        Task second = manager.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        manager.getTask("alice", first.getId());
+        manager.getTask("alice", second.getId());
+
+        manager.deleteTask(first.getId());
+
+        assertEquals(List.of(second), manager.getHistory("alice"));
+    }
+
+    @Test
+    void shouldEvictIdleAndLeastRecentlyUsedSessions() {
+        AtomicLong now = new AtomicLong();
+        HistoryRegistry registry = new HistoryRegistry(2, 3, Duration.ofNanos(100), now::get);
+
+        registry.add("alice", 1);
+        now.set(50);
+        registry.add("bob", 2);
+        registry.add("alice", 3);
+        registry.add("carol", 4);
+
+        assertArrayEquals(new int[]{1, 3}, registry.getHistoryIds("alice"));
+        assertArrayEquals(new int[0], registry.getHistoryIds("bob"));
+        assertEquals(1, registry.getEvictionCount());
+
+        now.set(140);
+        registry.getHistoryIds("carol");
+        now.set(200);
+
+        assertEquals(1, registry.getSessionCount());
+        assertArrayEquals(new int[]{4}, registry.getHistoryIds("carol"));
+        assertEquals(2, registry.getEvictionCount());
+    }
+
+    @Test
+    void shouldBoundSessionHistoryLength() {
+        HistoryRegistry registry = new HistoryRegistry(1, 3, Duration.ofMinutes(1));
+
+        for (int id : new int[]{1, 2, 3, 2, 4, 5}) {
+            registry.add("alice", id);
+        }
+
+        assertArrayEquals(new int[]{2, 4, 5}, registry.getHistoryIds("alice"));
+        assertThrows(IllegalArgumentException.class, () -> new HistoryRegistry(0, 3, Duration.ofMinutes(1)));
+    }
+}
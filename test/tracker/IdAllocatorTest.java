@@ -0,0 +1,115 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldAllocateStridedIdsAndAlignAdvances() {
+        SequentialIdAllocator allocator = new SequentialIdAllocator(3, 4);
+
+        assertEquals(3, allocator.nextId());
+        assertEquals(7, allocator.nextId());
+        allocator.advanceTo(12);
+        assertEquals(15, allocator.nextId());
+        allocator.advanceTo(5);
+        assertEquals(19, allocator.nextId());
+        assertEquals(23, allocator.getHighWaterMark());
+    }
+
+    @Test
+    void shouldFailInsteadOfWrappingAround() {
+        SequentialIdAllocator allocator = new SequentialIdAllocator(Integer.MAX_VALUE - 1, 1);
+
+        assertEquals(Integer.MAX_VALUE - 1, allocator.nextId());
+        assertEquals(Integer.MAX_VALUE, allocator.nextId());
+        assertThrows(IllegalStateException.class, allocator::nextId);
+        assertThrows(IllegalStateException.class, allocator::nextId);
+    }
+
+    @Test
+    void shouldHandOutDistinctIdsAcrossThreads() throws InterruptedException {
+        BlockIdAllocator allocator = new BlockIdAllocator(null, 16);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    assertTrue(ids.add(allocator.nextId()));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, ids.size());
+        assertTrue(allocator.getHighWaterMark() > ids.stream().mapToInt(Integer::intValue).max().orElseThrow());
+    }
+
+    @Test
+    void shouldSkipAdvancedIdsForEveryThread() throws InterruptedException {
+        BlockIdAllocator allocator = new BlockIdAllocator(null, 16);
+        int[] before = new int[1];
+        Thread.ofPlatform().start(() -> before[0] = allocator.nextId()).join();
+
+        allocator.advanceTo(100);
+        int[] after = new int[1];
+        Thread.ofPlatform().start(() -> after[0] = allocator.nextId()).join();
+
+        assertEquals(1, before[0]);
+        assertEquals(100, after[0]);
+        assertEquals(101, allocator.nextId());
+        assertEquals(102, allocator.getHighWaterMark());
+    }
+
+    @Test
+    void shouldLeaseShardBlocksFromOneSpace() {
+        ShardIdSpace space = new ShardIdSpace(4);
+        IdAllocator first = space.allocatorFor(0);
+        IdAllocator second = space.allocatorFor(1);
+
+        assertEquals(1, first.nextId());
+        assertEquals(5, second.nextId());
+        for (int i = 0; i < 4; i++) {
+            first.nextId();
+        }
+        assertEquals(0, space.shardOf(2));
+        assertEquals(1, space.shardOf(8));
+        assertEquals(0, space.shardOf(9));
+        assertEquals(-1, space.shardOf(13));
+        assertEquals(-1, space.shardOf(0));
+
+        second.advanceTo(20);
+        assertEquals(21, second.nextId());
+        assertEquals(10, first.nextId());
+        assertEquals(1, space.shardOf(21));
+        assertEquals(-1, space.shardOf(17));
+    }
+
+    @Test
+    void shouldNeverReuseIdsAfterRestart() {
+        Path highWaterFile = directory.resolve("ids");
+        BlockIdAllocator first = new BlockIdAllocator(highWaterFile, 8);
+        int lastId = 0;
+        for (int i = 0; i < 1_000; i++) {
+            lastId = first.nextId();
+        }
+
+        BlockIdAllocator restarted = new BlockIdAllocator(highWaterFile, 8);
+        TaskManager taskManager = Managers.getDefault(restarted);
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+
+        assertTrue(task.getId() > lastId, task.getId() + " <= " + lastId);
+    }
+}
@@ -0,0 +1,151 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void shouldAddContainAndRemoveValues() {
+        IntSet set = new IntSet();
+
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(10));
+        assertTrue(set.add(20));
+        assertFalse(set.add(10));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(10));
+        assertTrue(set.contains(20));
+        assertFalse(set.contains(30));
+
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(10));
+        assertFalse(set.contains(10));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void shouldKeepInsertionOrder() {
+        IntSet set = new IntSet();
+        for (int value : new int[]{5, 3, 9, 1, 7}) {
+            set.add(value);
+        }
+        set.remove(9);
+        set.add(9);
+        set.add(2);
+
+        assertArrayEquals(new int[]{5, 3, 1, 7, 9, 2}, set.toArray());
+    }
+
+    @Test
+    void shouldIterateAfterGivenValue() {
+        IntSet set = new IntSet();
+        for (int value : new int[]{5, 3, 9, 1}) {
+            set.add(value);
+        }
+
+        PrimitiveIterator.OfInt iterator = set.iteratorAfter(3);
+
+        assertEquals(9, iterator.nextInt());
+        assertEquals(1, iterator.nextInt());
+        assertFalse(iterator.hasNext());
+        assertFalse(set.iteratorAfter(1).hasNext());
+        assertThrows(NoSuchElementException.class, () -> set.iteratorAfter(4));
+    }
+
+    @Test
+    void shouldInsertBeforeSuccessor() {
+        IntSet set = new IntSet();
+        for (int value : new int[]{5, 3, 9}) {
+            set.add(value);
+        }
+
+        assertTrue(set.addBefore(7, 3));
+        assertTrue(set.addBefore(1, 5));
+        assertTrue(set.addBefore(4, 42));
+        assertFalse(set.addBefore(9, 1));
+
+        List<Integer> actual = new ArrayList<>();
+        set.forEach(actual::add);
+        assertEquals(List.of(1, 5, 7, 3, 9, 4), actual);
+    }
+
+    @Test
+    void shouldClearValues() {
+        IntSet set = new IntSet();
+        set.add(1);
+        set.add(2);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+        assertArrayEquals(new int[]{1}, set.toArray());
+    }
+
+    @Test
+    void shouldNotAllowModificationThroughReadOnlyView() {
+        IntSet set = new IntSet();
+        set.add(1);
+
+        ReadOnlyIntSet view = set.asReadOnly();
+        set.add(2);
+
+        assertFalse(view instanceof IntSet);
+        assertSame(view, set.asReadOnly());
+        assertEquals(2, view.size());
+        assertTrue(view.contains(2));
+    }
+
+    @Test
+    void shouldFailIteratorAfterModification() {
+        IntSet set = new IntSet();
+        set.add(1);
+        set.add(2);
+
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        iterator.nextInt();
+        set.remove(2);
+
+        assertThrows(ConcurrentModificationException.class, iterator::nextInt);
+    }
+
+    @Test
+    void shouldMatchLinkedHashSetOnRandomOperations() {
+        Random random = new Random(42);
+        IntSet set = new IntSet();
+        LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(5_000) - 100;
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                assertEquals(expected.add(value), set.add(value));
+            } else if (operation < 9) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.contains(value), set.contains(value));
+            }
+            if (i % 50_000 == 0) {
+                expected.clear();
+                set.clear();
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        List<Integer> actual = new ArrayList<>();
+        set.forEach(actual::add);
+        assertEquals(new ArrayList<>(expected), actual);
+    }
+}
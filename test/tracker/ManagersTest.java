@@ -66,6 +66,22 @@ class ManagersTest {
         assertInstanceOf(InMemoryTaskManager.class, manager);
     }
 
+    @Test
+    void shouldReturnConcurrentTaskManager() {
+        TaskManager manager = Managers.getConcurrent();
+
+        assertInstanceOf(ConcurrentTaskManager.class, manager);
+        assertNotSame(manager, Managers.getConcurrent());
+    }
+
+    @Test
+    void shouldReturnCopyOnWriteTaskManager() {
+        TaskManager manager = Managers.getCopyOnWrite();
+
+        assertInstanceOf(CopyOnWriteTaskManager.class, manager);
+        assertNotSame(manager, Managers.getCopyOnWrite());
+    }
+
     @Test
     void shouldReturnInMemoryHistoryManager() {
         HistoryManager historyManager = Managers.getDefaultHistory();
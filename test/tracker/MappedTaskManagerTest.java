@@ -0,0 +1,208 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReopenStoreWithoutLosingState() {
+        Task task;
+        Epic epic;
+        Subtask subtask1;
+        Subtask subtask2;
+
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            task = taskManager.createTask("Задача", null, TaskStatus.NEW);
+            epic = taskManager.createEpic("Эпик", "Описание эпика");
+            subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+            Subtask removed = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+            subtask2 = taskManager.createSubtask("Подзадача 3", "Описание", TaskStatus.NEW, epic.getId());
+            taskManager.deleteSubtask(removed.getId());
+
+            taskManager.updateTask(new Task("Новое название", "Описание", task.getId(), TaskStatus.IN_PROGRESS));
+            taskManager.updateSubtask(new Subtask("Подзадача 1", "Описание", subtask1.getId(), TaskStatus.DONE,
+                    epic.getId()));
+        }
+
+        try (MappedTaskManager restored = Managers.getMapped(directory)) {
+            Task restoredTask = restored.getTask(task.getId());
+            assertEquals("Новое название", restoredTask.getTitle());
+            assertEquals(TaskStatus.IN_PROGRESS, restoredTask.getStatus());
+            assertEquals(TaskStatus.IN_PROGRESS, restored.getEpic(epic.getId()).getStatus());
+            assertEquals(List.of(subtask1, subtask2), restored.getEpicSubtasks(epic.getId()));
+            assertEquals(1, restored.getEpic(epic.getId()).getSubtaskStatusCount(TaskStatus.DONE));
+            assertEquals(2, restored.getAllSubtasks().size());
+            assertEquals(1, restored.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.DONE));
+            assertEquals(1, restored.getStatusCounts(TaskType.EPIC).get(TaskStatus.IN_PROGRESS));
+            assertEquals(50.0, restored.getEpicProgress(epic.getId()).getPercentDone());
+
+            Task created = restored.createTask("Новая", "Описание", TaskStatus.NEW);
+            assertEquals(subtask2.getId() + 1, created.getId());
+        }
+    }
+
+    @Test
+    void shouldReadThroughEvictedCacheEntries() {
+        try (MappedTaskManager taskManager = new MappedTaskManager(directory, Managers.getDefaultHistory(), 2)) {
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            for (int i = 0; i < 100; i++) {
+                taskManager.createSubtask("Подзадача " + i, "Описание " + i, TaskStatus.DONE, epic.getId());
+                taskManager.createTask("Задача " + i, "Описание " + i, TaskStatus.NEW);
+            }
+
+            assertEquals(100, taskManager.getAllTasks().size());
+            assertEquals(100, taskManager.getEpicSubtasksView(epic.getId()).size());
+            assertEquals("Подзадача 0", taskManager.getEpicSubtasks(epic.getId()).get(0).getTitle());
+            assertEquals("Задача 99", taskManager.getTask(epic.getId() + 200).getTitle());
+            assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).getStatus());
+            assertNull(taskManager.getTask(epic.getId()));
+        }
+    }
+
+    @Test
+    void shouldDeleteEpicWithSubtasksAndClearAllSubtasks() {
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            Epic epic1 = taskManager.createEpic("Эпик 1", "Описание");
+            Epic epic2 = taskManager.createEpic("Эпик 2", "Описание");
+            Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic1.getId());
+            taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic2.getId());
+
+            taskManager.deleteEpic(epic1.getId());
+
+            assertNull(taskManager.getSubtask(subtask.getId()));
+            assertEquals(List.of(epic2), taskManager.getAllEpics());
+            assertEquals(TaskStatus.DONE, taskManager.getEpic(epic2.getId()).getStatus());
+
+            taskManager.deleteAllSubtasks();
+
+            assertTrue(taskManager.getAllSubtasks().isEmpty());
+            assertTrue(taskManager.getEpicSubtasks(epic2.getId()).isEmpty());
+            assertEquals(TaskStatus.NEW, taskManager.getEpic(epic2.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void shouldRebuildStatusCountsWhenOpeningFirstFormatVersion() throws Exception {
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            taskManager.createTask("Задача", "Описание", TaskStatus.DONE);
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.DONE, epic.getId());
+            taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve("tasks.records"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1), 4);
+            channel.write(ByteBuffer.allocate(36).putInt(0, 1).putInt(4, 1).putInt(8, 2), 24);
+        }
+
+        try (MappedTaskManager restored = Managers.getMapped(directory)) {
+            assertEquals(1, restored.getStatusCounts(TaskType.TASK).get(TaskStatus.DONE));
+            assertEquals(1, restored.getStatusCounts(TaskType.TASK).getTotal());
+            assertEquals(1, restored.getStatusCounts(TaskType.EPIC).get(TaskStatus.IN_PROGRESS));
+            assertEquals(1, restored.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.NEW));
+            assertEquals(2, restored.getAllSubtasksView().size());
+        }
+    }
+
+    @Test
+    void shouldHandOutEpicsAsCopiesOfTheirRecord() {
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            Epic before = taskManager.getEpic(epic.getId());
+            Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+
+            assertEquals(TaskStatus.NEW, before.getStatus());
+            assertTrue(before.getSubtaskIds().isEmpty());
+            Epic after = taskManager.getEpic(epic.getId());
+            assertNotSame(before, after);
+            assertEquals(TaskStatus.DONE, after.getStatus());
+            assertTrue(after.getSubtaskIds().contains(subtask.getId()));
+
+            taskManager.updateSubtask(new Subtask("Подзадача", "Описание", subtask.getId(), TaskStatus.NEW,
+                    epic.getId()));
+
+            assertEquals(TaskStatus.DONE, after.getStatus());
+            assertEquals(TaskStatus.NEW, taskManager.getEpic(epic.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void shouldNotShareCachedInstancesWithCallers() {
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            Task created = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+            created.setTitle("Изменена после создания");
+            Task read = taskManager.getTask(created.getId());
+            assertEquals("Задача", read.getTitle());
+
+            read.setStatus(TaskStatus.DONE);
+            Task viewed = taskManager.getAllTasksView().iterator().next();
+            assertNotSame(read, viewed);
+            assertEquals(TaskStatus.NEW, viewed.getStatus());
+
+            viewed.setTitle("Изменена в представлении");
+            assertEquals("Задача", taskManager.getTask(created.getId()).getTitle());
+            assertEquals(1, taskManager.getTasksByStatus(TaskStatus.NEW).size());
+        }
+    }
+
+    @Test
+    void shouldRemoveDeletedEntitiesFromHistory() {
+        try (MappedTaskManager taskManager = Managers.getMapped(directory)) {
+            Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+            Task other = taskManager.createTask("Другая задача", "Описание", TaskStatus.NEW);
+            Epic epic = taskManager.createEpic("Эпик", "Описание");
+            Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+            Subtask kept = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+            taskManager.getTask(task.getId());
+            taskManager.getSubtask(subtask.getId());
+            taskManager.getSubtask(kept.getId());
+            taskManager.getEpic(epic.getId());
+            taskManager.getTask(other.getId());
+
+            taskManager.deleteTask(task.getId());
+            taskManager.deleteSubtask(subtask.getId());
+            assertEquals(List.of(kept.getId(), epic.getId(), other.getId()), historyIds(taskManager));
+
+            taskManager.deleteAllSubtasks();
+            assertEquals(List.of(epic.getId(), other.getId()), historyIds(taskManager));
+
+            taskManager.deleteAllTasks();
+            assertEquals(List.of(epic.getId()), historyIds(taskManager));
+
+            taskManager.getSubtask(taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW,
+                    epic.getId()).getId());
+            taskManager.deleteAllEpics();
+            assertTrue(taskManager.getHistory().isEmpty());
+
+            Epic second = taskManager.createEpic("Эпик", "Описание");
+            Subtask child = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, second.getId());
+            taskManager.getSubtask(child.getId());
+            taskManager.getEpic(second.getId());
+            taskManager.deleteEpic(second.getId());
+            assertTrue(taskManager.getHistory().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldRejectForeignFiles() throws Exception {
+        Files.write(directory.resolve("tasks.records"), new byte[]{1, 2, 3, 4});
+
+        assertThrows(ManagerLoadException.class, () -> Managers.getMapped(directory));
+    }
+
+    private static List<Integer> historyIds(TaskManager taskManager) {
+        return taskManager.getHistory().stream().map(Task::getId).toList();
+    }
+}
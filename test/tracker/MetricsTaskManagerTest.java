@@ -0,0 +1,92 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTaskManagerTest {
+
+    @Test
+    void shouldCountOperationsAndReportEpicSizes() {
+        MetricsTaskManager taskManager = Managers.getInstrumented();
+        Epic small = taskManager.createEpic("Маленький", "Описание");
+        Epic large = taskManager.createEpic("Большой", "Описание");
+        taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, small.getId());
+        for (int i = 0; i < 100; i++) {
+            taskManager.createSubtask("Подзадача " + i, "Описание", TaskStatus.DONE, large.getId());
+        }
+        taskManager.getEpic(large.getId());
+        taskManager.deleteEpic(small.getId());
+
+        MetricsSnapshot snapshot = taskManager.snapshot();
+
+        assertEquals(2, snapshot.getCount(MetricsTaskManager.Operation.CREATE_EPIC));
+        assertEquals(101, snapshot.getCount(MetricsTaskManager.Operation.CREATE_SUBTASK));
+        assertEquals(1, snapshot.getCount(MetricsTaskManager.Operation.DELETE_EPIC));
+        assertEquals(0, snapshot.getCount(MetricsTaskManager.Operation.UPDATE_TASK));
+        assertTrue(snapshot.getLatency(MetricsTaskManager.Operation.CREATE_SUBTASK).getMax() > 0);
+        assertEquals(1, snapshot.getEpicSizes().getCount());
+        assertEquals(100, snapshot.getEpicSizes().getMax());
+        assertEquals(1, snapshot.getHistoryAdds().getCount());
+        assertTrue(snapshot.toString().contains("create_subtask_ns count=101"));
+    }
+
+    @Test
+    void shouldCountHistoryEvictions() {
+        MetricsHistoryManager historyManager = new MetricsHistoryManager(Managers.getDefaultHistory(3));
+        for (int id = 1; id <= 10; id++) {
+            historyManager.add(new Task("Задача", "Описание", id, TaskStatus.NEW));
+        }
+        historyManager.add(new Task("Задача", "Описание", 10, TaskStatus.NEW));
+
+        assertEquals(7, historyManager.getEvictionCount());
+        assertEquals(11, historyManager.getAddLatency().getCount());
+        assertEquals(3, historyManager.getHistory().size());
+    }
+
+    @Test
+    void shouldKeepHistogramErrorWithinSubBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1_000_000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_000.5, snapshot.getMean(), 0.001);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = (long) (percentile / 100 * 1_000_000);
+            long reported = snapshot.getValueAtPercentile(percentile);
+            assertTrue(Math.abs(reported - exact) <= exact / Histogram.SUB_BUCKETS,
+                    percentile + ": " + reported + " вместо " + exact);
+        }
+        for (int bucket = 0; bucket < Histogram.BUCKETS; bucket++) {
+            assertEquals(bucket, Histogram.bucketOf(Histogram.lowestValueOf(bucket)));
+            assertEquals(bucket, Histogram.bucketOf(Histogram.highestValueOf(bucket)));
+        }
+    }
+
+    @Test
+    void shouldRecordLatenciesWithoutAllocating() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            histogram.record(System.nanoTime() & 0xFFFFF);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 16 * 1024, "Выделено " + allocated + " байт");
+    }
+}
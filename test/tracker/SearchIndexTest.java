@@ -0,0 +1,63 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    @Test
+    void shouldTokenizeIgnoringCaseAndPunctuation() {
+        assertEquals(List.of("починить", "api", "v2", "срочно"), SearchIndex.tokenize("Починить API-v2, СРОЧНО!"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Отчёт", "Подготовить квартальный отчёт");
+        index.put(2, "Квартальный отчёт", "Собрать цифры");
+        index.put(3, "Созвон", "Обсудить планы");
+
+        assertArrayEquals(new int[]{2, 1}, index.search("квартальный", 10));
+        assertArrayEquals(new int[]{2}, index.search("квартальный отчёт", 1));
+    }
+
+    @Test
+    void shouldMatchLastTokenAsPrefix() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Рефакторинг менеджера", null);
+        index.put(2, "Ревью кода", "Рефакторинг");
+        index.put(3, "Менеджер истории", null);
+
+        assertArrayEquals(new int[]{1, 2}, index.search("реф", 10));
+        assertArrayEquals(new int[]{1}, index.search("рефакторинг мен", 10));
+        assertArrayEquals(new int[0], index.search("мен рефакторинг", 10));
+    }
+
+    @Test
+    void shouldKeepIndexInSyncWithTaskManager() {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager();
+        Task task = taskManager.createTask("Купить молоко", "В магазине у дома", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Переезд", "Новая квартира");
+        Subtask subtask = taskManager.createSubtask("Купить коробки", "Для переезда", TaskStatus.NEW, epic.getId());
+
+        assertArrayEquals(new int[]{task.getId(), subtask.getId()}, taskManager.search("купить", 10));
+
+        task.setTitle("Купить хлеб");
+        taskManager.updateTask(task);
+        epic.setDescription("Коробки и упаковка");
+        taskManager.updateEpic(epic);
+
+        assertArrayEquals(new int[0], taskManager.search("молоко", 10));
+        assertArrayEquals(new int[]{task.getId()}, taskManager.search("хлеб", 10));
+        assertArrayEquals(new int[]{subtask.getId(), epic.getId()}, taskManager.search("коробки", 10));
+
+        taskManager.deleteEpic(epic.getId());
+
+        assertArrayEquals(new int[0], taskManager.search("коробки", 10));
+        assertArrayEquals(new int[]{task.getId()}, taskManager.search("купить", 10));
+    }
+}
@@ -0,0 +1,125 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskManagerTest {
+
+    @Test
+    void shouldKeepSubtasksInTheirEpicShard() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4, 10);
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            epics.add(taskManager.createEpic("Эпик " + i, "Описание"));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Epic epic : epics) {
+            assertTrue(ids.add(epic.getId()));
+            for (int i = 0; i < 3; i++) {
+                Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+                assertEquals(taskManager.shardOf(epic.getId()), taskManager.shardOf(subtask.getId()));
+                assertTrue(ids.add(subtask.getId()));
+            }
+        }
+
+        Set<Integer> shards = new HashSet<>();
+        for (Epic epic : epics) {
+            shards.add(taskManager.shardOf(epic.getId()));
+            assertEquals(3, taskManager.getEpicSubtasks(epic.getId()).size());
+            assertEquals(TaskStatus.DONE, taskManager.getEpic(epic.getId()).getStatus());
+        }
+        assertEquals(4, shards.size());
+        assertEquals(8, taskManager.getAllEpics().size());
+        assertEquals(24, taskManager.getAllSubtasks().size());
+        assertNull(taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, 1_000));
+    }
+
+    @Test
+    void shouldGiveOneHotEpicMoreIdsThanItsStrideShare() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4, 10);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Task other = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        int lastId = 0;
+        for (int i = 0; i < 5_000; i++) {
+            Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+            assertEquals(taskManager.shardOf(epic.getId()), taskManager.shardOf(subtask.getId()));
+            lastId = subtask.getId();
+        }
+
+        assertNotEquals(taskManager.shardOf(epic.getId()), taskManager.shardOf(other.getId()));
+        assertTrue(lastId < 5_000 + 2 * ShardIdSpace.DEFAULT_BLOCK_SIZE, "id " + lastId);
+        assertEquals(5_000, taskManager.getEpicSubtasks(epic.getId()).size());
+    }
+
+    @Test
+    void shouldMergeHistoryAcrossShardsInAccessOrder() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(3, 4);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        for (Task task : tasks) {
+            taskManager.getTask(task.getId());
+        }
+        taskManager.getTask(tasks.get(2).getId());
+
+        assertEquals(List.of(tasks.get(3), tasks.get(4), tasks.get(5), tasks.get(2)), taskManager.getHistory());
+    }
+
+    @Test
+    void shouldPageAcrossShardsWithoutGapsOrDuplicates() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(3, 10);
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            Task task = taskManager.createTask("Задача " + i, "Описание", i % 4 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            if (task.getStatus() == TaskStatus.NEW) {
+                expected.add(task.getId());
+            }
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        int cursor = TaskPage.START;
+        int pages = 0;
+        while (true) {
+            TaskPage<Task> page = taskManager.getTasksByStatus(TaskStatus.NEW, cursor, 5);
+            for (Task task : page.getItems()) {
+                assertTrue(seen.add(task.getId()));
+            }
+            pages++;
+            if (!page.hasNext()) {
+                break;
+            }
+            cursor = page.getNextCursor();
+        }
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void shouldResumePagingAfterCursorIsDeleted() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(2, 10);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        TaskPage<Task> page = taskManager.getTasksByStatus(TaskStatus.NEW, TaskPage.START, 2);
+        page.getItems().forEach(task -> seen.add(task.getId()));
+        taskManager.deleteTask(page.getNextCursor());
+        while (page.hasNext()) {
+            page = taskManager.getTasksByStatus(TaskStatus.NEW, page.getNextCursor(), 2);
+            page.getItems().forEach(task -> assertTrue(seen.add(task.getId())));
+        }
+
+        assertEquals(6, seen.size());
+    }
+}
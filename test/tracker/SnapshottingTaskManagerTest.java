@@ -0,0 +1,178 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshottingTaskManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldStartEmptyWithoutSnapshot() {
+        try (SnapshottingTaskManager taskManager = Managers.getSnapshotting(directory.resolve("tasks.snapshot"))) {
+            assertTrue(taskManager.getAllTasks().isEmpty());
+            assertTrue(taskManager.getAllEpics().isEmpty());
+            assertTrue(taskManager.getAllSubtasks().isEmpty());
+        }
+    }
+
+    @Test
+    void shouldRestoreStateAndHistoryFromSnapshot() throws Exception {
+        Path snapshotFile = directory.resolve("tasks.snapshot");
+        Task task;
+        Epic epic;
+        Subtask subtask1;
+        Subtask subtask2;
+
+        try (SnapshottingTaskManager taskManager = Managers.getSnapshotting(snapshotFile)) {
+            task = taskManager.createTask("Задача", "Описание", TaskStatus.IN_PROGRESS);
+            epic = taskManager.createEpic("Эпик", null);
+            subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.DONE, epic.getId());
+            subtask2 = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+            Task removed = taskManager.createTask("Удаляемая", "Описание", TaskStatus.NEW);
+            taskManager.deleteTask(removed.getId());
+
+            taskManager.getSubtask(subtask2.getId());
+            taskManager.getTask(task.getId());
+            taskManager.snapshotAsync().get(10, TimeUnit.SECONDS);
+        }
+
+        try (SnapshottingTaskManager restored = Managers.getSnapshotting(snapshotFile)) {
+            assertEquals(List.of(subtask2, task), restored.getHistory());
+            assertEquals(List.of(task), restored.getAllTasks());
+            assertEquals(TaskStatus.IN_PROGRESS, restored.getTask(task.getId()).getStatus());
+            assertNull(restored.getEpic(epic.getId()).getDescription());
+            assertEquals(TaskStatus.IN_PROGRESS, restored.getEpic(epic.getId()).getStatus());
+            assertEquals(List.of(subtask1, subtask2), restored.getEpicSubtasks(epic.getId()));
+
+            Task created = restored.createTask("Новая", "Описание", TaskStatus.NEW);
+            assertEquals(subtask2.getId() + 2, created.getId());
+        }
+    }
+
+    @Test
+    void shouldSnapshotOnlyLiveEntitiesAfterMassDeletion() {
+        Path snapshotFile = directory.resolve("tasks.snapshot");
+        Task survivor;
+        Epic epic;
+        try (SnapshottingTaskManager taskManager = new SnapshottingTaskManager(snapshotFile,
+                Managers.getDefaultHistory(), 2)) {
+            for (int i = 0; i < 10_000; i++) {
+                taskManager.createTask("Задача " + i, "Описание", TaskStatus.NEW);
+            }
+            taskManager.deleteAllTasks();
+            survivor = taskManager.createTask("Задача", "Описание", TaskStatus.DONE);
+            epic = taskManager.createEpic("Эпик", "Описание");
+            taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, epic.getId());
+
+            Collection<Task> tasks = taskManager.getAllTasksView();
+            taskManager.createTask("Новая", "Описание", TaskStatus.NEW);
+            assertEquals(List.of(survivor), List.copyOf(tasks));
+            assertEquals(1, taskManager.getStatusCounts(TaskType.EPIC).get(TaskStatus.DONE));
+        }
+
+        try (SnapshottingTaskManager restored = Managers.getSnapshotting(snapshotFile)) {
+            assertEquals(2, restored.getAllTasks().size());
+            assertTrue(restored.getAllTasks().contains(survivor));
+            assertEquals(TaskStatus.DONE, restored.getEpic(epic.getId()).getStatus());
+            assertEquals(epic.getId() + 3, restored.createTask("Ещё", "Описание", TaskStatus.NEW).getId());
+        }
+    }
+
+    @Test
+    void shouldRejectCorruptedSnapshot() throws IOException {
+        Path snapshotFile = directory.resolve("tasks.snapshot");
+        try (SnapshottingTaskManager taskManager = Managers.getSnapshotting(snapshotFile)) {
+            taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        }
+
+        byte[] data = Files.readAllBytes(snapshotFile);
+        data[14] ^= 0x55;
+        Files.write(snapshotFile, data);
+
+        assertThrows(ManagerLoadException.class, () -> Managers.getSnapshotting(snapshotFile));
+    }
+
+    @Test
+    void shouldCapturePointInTimeStateWhileWritesContinue() throws Exception {
+        Path snapshotFile = directory.resolve("tasks.snapshot");
+        int pairs = 50_000;
+
+        try (SnapshottingTaskManager taskManager = new SnapshottingTaskManager(snapshotFile,
+                Managers.getDefaultHistory(), 64)) {
+            for (int i = 0; i < 2 * pairs; i++) {
+                taskManager.createTask("0", "0", TaskStatus.NEW);
+            }
+
+            CompletableFuture<Void> snapshot = taskManager.snapshotAsync();
+            for (int id = 1; id <= pairs; id++) {
+                taskManager.updateTask(new Task("1", "1", id, TaskStatus.DONE));
+                taskManager.updateTask(new Task("1", "1", pairs + id, TaskStatus.DONE));
+            }
+            snapshot.get(60, TimeUnit.SECONDS);
+            Files.copy(snapshotFile, directory.resolve("captured.snapshot"));
+        }
+
+        try (SnapshottingTaskManager restored = Managers.getSnapshotting(directory.resolve("captured.snapshot"))) {
+            assertEquals(2 * pairs, restored.getAllTasks().size());
+            for (int id = 1; id <= pairs; id++) {
+                Task first = restored.getTask(id);
+                Task second = restored.getTask(pairs + id);
+                if (second.getTitle().equals("1")) {
+                    assertEquals("1", first.getTitle(), "Снимок содержит несогласованное состояние для " + id);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldCapturePointInTimeStateWhileDeletesContinue() throws Exception {
+        Path snapshotFile = directory.resolve("tasks.snapshot");
+        int pairs = 50_000;
+
+        try (SnapshottingTaskManager taskManager = new SnapshottingTaskManager(snapshotFile,
+                Managers.getDefaultHistory(), 64)) {
+            for (int i = 0; i < 2 * pairs; i++) {
+                taskManager.createTask("0", "0", TaskStatus.NEW);
+            }
+
+            CompletableFuture<Void> snapshot = taskManager.snapshotAsync();
+            for (int id = 1; id <= pairs; id++) {
+                taskManager.deleteTask(id);
+                taskManager.deleteTask(pairs + id);
+                taskManager.createTask("1", "1", TaskStatus.DONE);
+            }
+            snapshot.get(60, TimeUnit.SECONDS);
+            Files.copy(snapshotFile, directory.resolve("captured.snapshot"));
+        }
+
+        try (SnapshottingTaskManager restored = Managers.getSnapshotting(directory.resolve("captured.snapshot"))) {
+            int original = 0;
+            for (Task task : restored.getAllTasks()) {
+                if (task.getId() <= 2 * pairs) {
+                    original++;
+                }
+            }
+            for (int id = 1; id <= pairs; id++) {
+                if (restored.getTask(pairs + id) == null) {
+                    assertNull(restored.getTask(id), "Снимок содержит несогласованное состояние для " + id);
+                }
+            }
+            int deletedPairs = (2 * pairs - original) / 2;
+            int created = restored.getAllTasks().size() - original;
+            assertTrue(created == deletedPairs || created == deletedPairs - 1,
+                    deletedPairs + " удалённых пар, " + created + " новых задач");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIdSetTest {
+
+    @Test
+    void shouldIterateInIdOrderAcrossPages() {
+        SortedIdSet ids = new SortedIdSet();
+        for (int id : new int[]{70_000, 3, 4_095, 64, 4_096, 1, Integer.MAX_VALUE}) {
+            assertTrue(ids.add(id));
+        }
+        assertFalse(ids.add(64));
+
+        assertArrayEquals(new int[]{1, 3, 64, 4_095, 4_096, 70_000, Integer.MAX_VALUE}, ids.toArray());
+        assertEquals(7, ids.size());
+        assertFalse(ids.iteratorAfter(Integer.MAX_VALUE).hasNext());
+    }
+
+    @Test
+    void shouldResumeAfterIdsThatAreNotInTheSet() {
+        SortedIdSet ids = new SortedIdSet();
+        ids.add(10);
+        ids.add(20);
+        ids.add(5_000);
+
+        assertTrue(ids.remove(10));
+        assertFalse(ids.remove(10));
+        assertFalse(ids.contains(10));
+        PrimitiveIterator.OfInt iterator = ids.iteratorAfter(10);
+        assertEquals(20, iterator.nextInt());
+        assertEquals(5_000, iterator.nextInt());
+        assertFalse(iterator.hasNext());
+        assertEquals(5_000, ids.iteratorAfter(4_000).nextInt());
+    }
+
+    @Test
+    void shouldMatchTreeSetUnderRandomChurn() {
+        SortedIdSet ids = new SortedIdSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int id = 1 + random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(id), ids.add(id));
+            } else {
+                assertEquals(expected.remove(id), ids.remove(id));
+            }
+        }
+
+        assertEquals(expected.size(), ids.size());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), ids.toArray());
+        Integer higher = expected.higher(10_000);
+        assertEquals(higher, ids.iteratorAfter(10_000).nextInt());
+    }
+}
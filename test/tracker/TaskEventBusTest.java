@@ -0,0 +1,77 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventBusTest {
+
+    @Test
+    void shouldDeliverEventsInBatchesAndInOrder() throws InterruptedException {
+        TaskEventBus bus = new TaskEventBus(1024, 16);
+        AtomicInteger expectedId = new AtomicInteger(1);
+        AtomicInteger largestBatch = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(500);
+        bus.subscribe(events -> {
+            largestBatch.accumulateAndGet(events.size(), Math::max);
+            for (TaskEvent event : events) {
+                assertEquals(expectedId.getAndIncrement(), event.getId());
+                delivered.countDown();
+            }
+        });
+
+        for (int id = 1; id <= 500; id++) {
+            bus.publish(TaskEvent.Kind.CREATED, TaskType.TASK, id, TaskStatus.NEW, null);
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(501, expectedId.get());
+        assertTrue(largestBatch.get() <= 16);
+    }
+
+    @Test
+    void shouldDropEventsInsteadOfBlockingPublisher() throws InterruptedException {
+        TaskEventBus bus = new TaskEventBus(8, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong reportedDropped = new AtomicLong();
+        bus.subscribe(new TaskEventListener() {
+            @Override
+            public void onEvents(List<TaskEvent> events) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.addAndGet(events.size());
+            }
+
+            @Override
+            public void onOverflow(long droppedEvents) {
+                reportedDropped.addAndGet(droppedEvents);
+            }
+        });
+
+        long start = System.nanoTime();
+        for (int id = 1; id <= 10_000; id++) {
+            bus.publish(TaskEvent.Kind.UPDATED, TaskType.TASK, id, TaskStatus.DONE, null);
+        }
+        long elapsed = System.nanoTime() - start;
+        release.countDown();
+
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(elapsed) < 2, "Публикация не должна ждать подписчика");
+        assertTrue(bus.getDroppedCount() > 0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delivered.get() + reportedDropped.get() < 10_000 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(10_000, delivered.get() + reportedDropped.get());
+        assertEquals(bus.getDroppedCount(), reportedDropped.get());
+    }
+}
@@ -4,7 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -263,4 +266,539 @@ class TaskManagerTest {
         assertEquals(0, taskManager.getEpicSubtasks(epic.getId()).size());
         assertEquals(TaskStatus.NEW, taskManager.getEpic(epic.getId()).getStatus());
     }
+
+    @Test
+    void shouldReflectChangesInLiveViews() {
+        Collection<Task> tasksView = taskManager.getAllTasksView();
+        Collection<Epic> epicsView = taskManager.getAllEpicsView();
+        Collection<Subtask> subtasksView = taskManager.getAllSubtasksView();
+
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+        assertTrue(tasksView.contains(task));
+        assertTrue(epicsView.contains(epic));
+        assertTrue(subtasksView.contains(subtask));
+
+        taskManager.deleteTask(task.getId());
+
+        assertTrue(tasksView.isEmpty());
+    }
+
+    @Test
+    void shouldNotAllowModificationThroughViews() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        taskManager.getTask(task.getId());
+
+        assertThrows(UnsupportedOperationException.class, () -> taskManager.getAllTasksView().clear());
+        assertThrows(UnsupportedOperationException.class, () -> taskManager.getAllEpicsView().clear());
+        assertThrows(UnsupportedOperationException.class, () -> taskManager.getAllSubtasksView().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> taskManager.getEpicSubtasksView(epic.getId()).clear());
+        assertThrows(UnsupportedOperationException.class, () -> taskManager.getHistoryView().clear());
+    }
+
+    @Test
+    void shouldStreamEpicSubtasksFromView() {
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.DONE, epic.getId());
+        Subtask subtask2 = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask subtask3 = taskManager.createSubtask("Подзадача 3", "Описание", TaskStatus.DONE, epic.getId());
+
+        Collection<Subtask> epicSubtasks = taskManager.getEpicSubtasksView(epic.getId());
+
+        assertEquals(3, epicSubtasks.size());
+        assertEquals(List.of(subtask1, subtask3),
+                epicSubtasks.stream().filter(subtask -> subtask.getStatus() == TaskStatus.DONE).toList());
+
+        taskManager.deleteSubtask(subtask2.getId());
+
+        assertEquals(List.of(subtask1, subtask3), new ArrayList<>(epicSubtasks));
+        assertTrue(taskManager.getEpicSubtasksView(999).isEmpty());
+    }
+
+    @Test
+    void shouldFollowEpicReplacementAndDeletionInSubtasksView() {
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        Collection<Subtask> epicSubtasks = taskManager.getEpicSubtasksView(epic.getId());
+
+        Epic replacement = new Epic("Новый эпик", "Описание", epic.getId());
+        replacement.addSubtaskId(subtask.getId());
+        replacement.addSubtaskId(999);
+        taskManager.updateEpic(replacement);
+        Subtask added = taskManager.createSubtask("Новая подзадача", "Описание", TaskStatus.NEW, epic.getId());
+
+        assertEquals(List.of(subtask, added), new ArrayList<>(epicSubtasks));
+        assertEquals(2, epicSubtasks.size());
+
+        taskManager.deleteEpic(epic.getId());
+
+        assertTrue(epicSubtasks.isEmpty());
+        assertEquals(0, epicSubtasks.size());
+    }
+
+    @Test
+    void shouldReturnHistorySnapshotAndLiveView() {
+        Task task1 = taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+        Task task2 = taskManager.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        Collection<Task> historyView = taskManager.getHistoryView();
+
+        taskManager.getTask(task1.getId());
+        List<Task> snapshot = taskManager.getHistory();
+        taskManager.getTask(task2.getId());
+
+        assertEquals(List.of(task1), snapshot);
+        assertEquals(List.of(task1, task2), new ArrayList<>(historyView));
+        assertNotSame(taskManager.getHistory(), taskManager.getHistory());
+    }
+
+    @Test
+    void shouldFindTasksByStatus() {
+        Task task1 = taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+        Task task2 = taskManager.createTask("Задача 2", "Описание", TaskStatus.DONE);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask subtask2 = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+
+        subtask1.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateSubtask(subtask1);
+        taskManager.deleteTask(task2.getId());
+
+        assertEquals(List.of(task1), taskManager.getTasksByStatus(TaskStatus.NEW));
+        assertTrue(taskManager.getTasksByStatus(TaskStatus.DONE).isEmpty());
+        assertEquals(List.of(subtask1), taskManager.getSubtasksByStatus(TaskStatus.IN_PROGRESS));
+        assertEquals(List.of(subtask2), taskManager.getSubtasksByStatus(TaskStatus.NEW));
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(TaskStatus.IN_PROGRESS));
+
+        taskManager.deleteAllSubtasks();
+
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(TaskStatus.NEW));
+        assertTrue(taskManager.getSubtasksByStatus(TaskStatus.NEW).isEmpty());
+    }
+
+    @Test
+    void shouldPageTasksByStatusWithCursor() {
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(taskManager.createTask("Задача " + i, "Описание", TaskStatus.IN_PROGRESS));
+            taskManager.createTask("Другая " + i, "Описание", TaskStatus.NEW);
+        }
+
+        List<Task> streamed = new ArrayList<>();
+        TaskPage<Task> page = taskManager.getTasksByStatus(TaskStatus.IN_PROGRESS, TaskPage.START, 3);
+        streamed.addAll(page.getItems());
+        while (page.hasNext()) {
+            page = taskManager.getTasksByStatus(TaskStatus.IN_PROGRESS, page.getNextCursor(), 3);
+            streamed.addAll(page.getItems());
+        }
+
+        assertEquals(expected, streamed);
+        assertEquals(1, page.getItems().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getTasksByStatus(TaskStatus.NEW, TaskPage.START, 0));
+    }
+
+    @Test
+    void shouldResumeAfterCursorThatLeftStatusIndex() {
+        Task task1 = taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+        Task task2 = taskManager.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        Task task3 = taskManager.createTask("Задача 3", "Описание", TaskStatus.NEW);
+        Task task4 = taskManager.createTask("Задача 4", "Описание", TaskStatus.NEW);
+
+        TaskPage<Task> page = taskManager.getTasksByStatus(TaskStatus.NEW, TaskPage.START, 1);
+        task1.setStatus(TaskStatus.DONE);
+        taskManager.updateTask(task1);
+
+        assertEquals(task1.getId(), page.getNextCursor());
+        page = taskManager.getTasksByStatus(TaskStatus.NEW, page.getNextCursor(), 1);
+        assertEquals(List.of(task2), page.getItems());
+
+        taskManager.deleteTask(task2.getId());
+        task1.setStatus(TaskStatus.NEW);
+        taskManager.updateTask(task1);
+        page = taskManager.getTasksByStatus(TaskStatus.NEW, page.getNextCursor(), 2);
+
+        assertEquals(List.of(task3, task4), page.getItems());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void shouldApplyBatchAndReturnCreatedIds() {
+        Epic existing = taskManager.createEpic("Эпик", "Описание");
+        Subtask existingSubtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE,
+                existing.getId());
+
+        TaskBatch batch = new TaskBatch();
+        int task = batch.createTask("Задача", "Описание", TaskStatus.NEW);
+        int epic = batch.createEpic("Новый эпик", "Описание");
+        for (int i = 0; i < 1000; i++) {
+            batch.createSubtask("Подзадача " + i, "Описание", TaskStatus.DONE, epic);
+        }
+        batch.createSubtask("Подзадача", "Описание", TaskStatus.NEW, existing.getId());
+        batch.deleteTask(task);
+        batch.updateSubtask(new Subtask("Подзадача", "Описание", existingSubtask.getId(), TaskStatus.NEW,
+                existing.getId()));
+
+        int[] ids = taskManager.applyBatch(batch);
+
+        assertEquals(1003, ids.length);
+        assertNull(taskManager.getTask(ids[0]));
+        Epic created = taskManager.getEpic(ids[1]);
+        assertEquals(TaskStatus.DONE, created.getStatus());
+        assertEquals(1000, taskManager.getEpicSubtasks(created.getId()).size());
+        assertEquals(ids[2], taskManager.getEpicSubtasks(created.getId()).get(0).getId());
+        assertEquals(TaskStatus.NEW, taskManager.getEpic(existing.getId()).getStatus());
+        assertEquals(List.of(created), taskManager.getEpicsByStatus(TaskStatus.DONE));
+    }
+
+    @Test
+    void shouldRejectUnknownBatchReference() {
+        TaskBatch batch = new TaskBatch();
+        int epic = batch.createEpic("Эпик", "Описание");
+
+        assertThrows(IllegalArgumentException.class, () -> batch.createSubtask("Подзадача", "Описание",
+                TaskStatus.NEW, epic - 1));
+        assertEquals(0, taskManager.applyBatch(new TaskBatch()).length);
+    }
+
+    @Test
+    void shouldRollBackWholeBatchWhenAnOperationFails() {
+        SequentialIdAllocator ids = new SequentialIdAllocator();
+        TaskManager taskManager = Managers.getDefault(new IdAllocator() {
+            @Override
+            public int nextId() {
+                if (ids.getHighWaterMark() >= 9) {
+                    throw new IllegalStateException("Task ids are exhausted");
+                }
+                return ids.nextId();
+            }
+
+            @Override
+            public int getHighWaterMark() {
+                return ids.getHighWaterMark();
+            }
+
+            @Override
+            public void advanceTo(int id) {
+                ids.advanceTo(id);
+            }
+        });
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask first = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.DONE, epic.getId());
+        Subtask second = taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.NEW, epic.getId());
+        Subtask third = taskManager.createSubtask("Подзадача 3", "Описание", TaskStatus.DONE, epic.getId());
+        Epic other = taskManager.createEpic("Другой эпик", "Описание");
+        Subtask otherSubtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.DONE, other.getId());
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(TaskStatus.IN_PROGRESS));
+
+        TaskBatch batch = new TaskBatch();
+        batch.updateTask(new Task("Новая задача", "Описание", task.getId(), TaskStatus.DONE));
+        batch.deleteSubtask(second.getId());
+        batch.updateSubtask(new Subtask("Подзадача 3", "Описание", third.getId(), TaskStatus.NEW, epic.getId()));
+        batch.deleteEpic(other.getId());
+        batch.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        batch.createTask("Задача 3", "Описание", TaskStatus.NEW);
+
+        assertThrows(IllegalStateException.class, () -> taskManager.applyBatch(batch));
+
+        assertEquals(List.of(task), taskManager.getAllTasks());
+        assertEquals("Задача", taskManager.getTask(task.getId()).getTitle());
+        assertEquals(List.of(epic, other), taskManager.getAllEpics());
+        assertEquals(List.of(first, second, third), taskManager.getEpicSubtasks(epic.getId()));
+        assertEquals(List.of(otherSubtask), taskManager.getEpicSubtasks(other.getId()));
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getEpic(epic.getId()).getStatus());
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(TaskStatus.IN_PROGRESS));
+        assertEquals(List.of(other), taskManager.getEpicsByStatus(TaskStatus.DONE));
+        assertEquals(List.of(first, third, otherSubtask), taskManager.getSubtasksByStatus(TaskStatus.DONE));
+        assertEquals(1, taskManager.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.NEW));
+        assertEquals(3, taskManager.getStatusCounts(TaskType.SUBTASK).get(TaskStatus.DONE));
+        assertEquals(1, taskManager.getStatusCounts(TaskType.TASK).get(TaskStatus.NEW));
+        assertEquals(0, taskManager.getStatusCounts(TaskType.TASK).get(TaskStatus.DONE));
+    }
+
+    @Test
+    void shouldHideRolledBackBatchFromSubscribersAndChangefeed() throws InterruptedException {
+        SequentialIdAllocator ids = new SequentialIdAllocator();
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(), new IdAllocator() {
+            @Override
+            public int nextId() {
+                if (ids.getHighWaterMark() >= 5) {
+                    throw new IllegalStateException("Task ids are exhausted");
+                }
+                return ids.nextId();
+            }
+
+            @Override
+            public int getHighWaterMark() {
+                return ids.getHighWaterMark();
+            }
+
+            @Override
+            public void advanceTo(int id) {
+                ids.advanceTo(id);
+            }
+        });
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        long version = manager.getVersion();
+        LinkedBlockingQueue<TaskEvent> received = new LinkedBlockingQueue<>();
+        manager.subscribe(received::addAll);
+
+        TaskBatch failing = new TaskBatch();
+        failing.updateSubtask(new Subtask("Подзадача", "Описание", subtask.getId(), TaskStatus.DONE, epic.getId()));
+        failing.deleteTask(task.getId());
+        failing.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        failing.createTask("Задача 3", "Описание", TaskStatus.NEW);
+
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(failing));
+
+        assertEquals(version, manager.getVersion());
+        assertTrue(manager.changesSince(version).isEmpty());
+        assertEquals(List.of(task), manager.getAllTasks());
+        assertEquals(TaskStatus.NEW, manager.getEpic(epic.getId()).getStatus());
+        assertEquals(List.of(epic), manager.getEpicsByStatus(TaskStatus.NEW));
+
+        TaskBatch committed = new TaskBatch();
+        committed.deleteTask(task.getId());
+        manager.applyBatch(committed);
+
+        TaskEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("DELETED TASK " + task.getId() + " NEW", event.toString());
+        assertArrayEquals(new int[]{task.getId()}, manager.changesSince(version).getDeletedIds());
+    }
+
+    @Test
+    void shouldCaptureUpdatedFieldsWhenBatchIsBuilt() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Task stored = taskManager.getTask(task.getId());
+        stored.setTitle("В пакете");
+
+        TaskBatch batch = new TaskBatch();
+        batch.updateTask(stored);
+        stored.setTitle("После пакета");
+        taskManager.applyBatch(batch);
+
+        assertEquals("В пакете", taskManager.getTask(task.getId()).getTitle());
+    }
+
+    @Test
+    void shouldKeepEarlierOperationsWhenSequentialBatchFails() {
+        TaskManager delegate = Managers.getConcurrent();
+        TaskManager failing = new ForwardingTaskManager(delegate) {
+            @Override
+            public Epic createEpic(String title, String description) {
+                throw new IllegalStateException("Epics are read-only");
+            }
+        };
+        TaskBatch batch = new TaskBatch();
+        batch.createTask("Задача", "Описание", TaskStatus.NEW);
+        int epic = batch.createEpic("Эпик", "Описание");
+        batch.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic);
+
+        assertThrows(IllegalStateException.class, () -> batch.applyTo(failing));
+        assertEquals(1, delegate.getAllTasks().size());
+        assertTrue(delegate.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    void shouldRejectIncompleteBatchOperations() {
+        TaskBatch batch = new TaskBatch();
+
+        assertThrows(NullPointerException.class, () -> batch.createTask("Задача", "Описание", null));
+        assertThrows(NullPointerException.class, () -> batch.updateTask(null));
+        assertThrows(NullPointerException.class, () -> batch.updateTask(new Task("Задача", "Описание", 1, null)));
+        assertThrows(NullPointerException.class, () -> batch.updateSubtask(new Subtask("Подзадача", "Описание", 2,
+                null, 1)));
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    void shouldPublishChangeEventsToSubscribers() throws InterruptedException {
+        LinkedBlockingQueue<TaskEvent> received = new LinkedBlockingQueue<>();
+        TaskEventListener listener = received::addAll;
+        taskManager.subscribe(listener);
+
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        subtask.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask);
+        taskManager.deleteEpic(epic.getId());
+
+        List<String> expected = List.of(
+                "CREATED EPIC " + epic.getId() + " NEW",
+                "CREATED SUBTASK " + subtask.getId() + " NEW",
+                "UPDATED SUBTASK " + subtask.getId() + " DONE",
+                "EPIC_STATUS_CHANGED EPIC " + epic.getId() + " DONE",
+                "DELETED SUBTASK " + subtask.getId() + " DONE",
+                "DELETED EPIC " + epic.getId() + " DONE");
+        List<String> actual = new ArrayList<>();
+        while (actual.size() < expected.size()) {
+            TaskEvent event = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "События не доставлены: " + actual);
+            actual.add(event.toString());
+        }
+        assertEquals(expected, actual);
+
+        taskManager.unsubscribe(listener);
+        taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldReturnOnlyChangesSinceVersion() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task kept = manager.createTask("Без изменений", "Описание", TaskStatus.NEW);
+        Task updated = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Task deleted = manager.createTask("Удаляемая", "Описание", TaskStatus.NEW);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        long version = manager.getVersion();
+
+        assertTrue(manager.changesSince(version).isEmpty());
+
+        updated.setStatus(TaskStatus.DONE);
+        manager.updateTask(updated);
+        manager.deleteTask(deleted.getId());
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", TaskStatus.IN_PROGRESS, epic.getId());
+
+        TaskChanges changes = manager.changesSince(version);
+        assertEquals(List.of(updated), changes.getTasks());
+        assertEquals(List.of(epic), changes.getEpics());
+        assertEquals(List.of(subtask), changes.getSubtasks());
+        assertArrayEquals(new int[]{deleted.getId()}, changes.getDeletedIds());
+        assertEquals(manager.getVersion(), changes.getVersion());
+        assertFalse(changes.getTasks().contains(kept));
+
+        manager.deleteEpic(epic.getId());
+        TaskChanges afterDelete = manager.changesSince(changes.getVersion());
+        assertTrue(afterDelete.getEpics().isEmpty());
+        assertArrayEquals(new int[]{subtask.getId(), epic.getId()}, afterDelete.getDeletedIds());
+        assertThrows(IllegalArgumentException.class, () -> manager.changesSince(manager.getVersion() + 1));
+    }
+
+    @Test
+    void shouldStartChangefeedFromExistingState() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        manager.deleteTask(manager.createTask("Удалённая", "Описание", TaskStatus.NEW).getId());
+
+        TaskChanges changes = manager.changesSince(0);
+
+        assertEquals(List.of(task), changes.getTasks());
+        assertEquals(List.of(epic), changes.getEpics());
+        assertEquals(0, changes.getDeletedIds().length);
+        assertEquals(manager.getVersion(), changes.getVersion());
+    }
+
+    @Test
+    void shouldAskOldCursorsToResyncOnceTombstonesExpire() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task kept = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        long staleVersion = manager.getVersion();
+        for (int i = 0; i <= ChangeFeed.DEFAULT_MAX_TOMBSTONES; i++) {
+            manager.deleteTask(manager.createTask("Удаляемая", "Описание", TaskStatus.NEW).getId());
+        }
+        long recentVersion = manager.getVersion();
+        manager.deleteTask(manager.createTask("Удаляемая", "Описание", TaskStatus.NEW).getId());
+
+        TaskChanges resync = manager.changesSince(staleVersion);
+        assertTrue(resync.isResyncRequired());
+        assertEquals(List.of(kept), resync.getTasks());
+        assertEquals(0, resync.getDeletedIds().length);
+        assertEquals(manager.getVersion(), resync.getVersion());
+
+        TaskChanges recent = manager.changesSince(recentVersion);
+        assertFalse(recent.isResyncRequired());
+        assertEquals(1, recent.getDeletedIds().length);
+    }
+
+    @Test
+    void shouldRemoveDeletedTasksFromHistory() {
+        Task task = taskManager.createTask("Задача", "Описание", TaskStatus.NEW);
+        Task other = taskManager.createTask("Другая задача", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        Subtask subtask = taskManager.createSubtask("Подзадача", "Описание", TaskStatus.NEW, epic.getId());
+        taskManager.getTask(task.getId());
+        taskManager.getSubtask(subtask.getId());
+        taskManager.getEpic(epic.getId());
+        taskManager.getTask(other.getId());
+
+        taskManager.deleteTask(task.getId());
+        assertEquals(List.of(subtask, epic, other), taskManager.getHistory());
+
+        taskManager.deleteEpic(epic.getId());
+        assertEquals(List.of(other), taskManager.getHistory());
+
+        taskManager.deleteAllTasks();
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void shouldReclaimMassDeletedSubtasksLazily() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        Epic empty = manager.createEpic("Пустой эпик", "Описание");
+        Subtask done = manager.createSubtask("Готовая подзадача", "Описание", TaskStatus.DONE, epic.getId());
+        Subtask fresh = manager.createSubtask("Новая подзадача", "Описание", TaskStatus.DONE, epic.getId());
+        manager.getSubtask(done.getId());
+        long version = manager.getVersion();
+
+        manager.deleteAllSubtasks();
+
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertTrue(epic.getSubtaskIds().isEmpty());
+        assertEquals(0, epic.getSubtaskStatusCount(TaskStatus.DONE));
+        assertEquals(List.of(epic, empty), manager.getEpicsByStatus(TaskStatus.NEW));
+        assertTrue(manager.getEpicsByStatus(TaskStatus.DONE).isEmpty());
+        assertTrue(manager.getHistory().isEmpty());
+        assertEquals(0, manager.search("подзадача", 10).length);
+
+        TaskChanges changes = manager.changesSince(version);
+        assertEquals(List.of(epic), changes.getEpics());
+        assertArrayEquals(new int[]{done.getId(), fresh.getId()}, changes.getDeletedIds());
+
+        Subtask added = manager.createSubtask("Подзадача", "Описание", TaskStatus.IN_PROGRESS, epic.getId());
+        assertEquals(List.of(added), manager.getEpicSubtasks(epic.getId()));
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+    }
+
+    @Test
+    void shouldAggregateStatusCountsAndEpicProgress() {
+        taskManager.createTask("Задача 1", "Описание", TaskStatus.NEW);
+        Task task = taskManager.createTask("Задача 2", "Описание", TaskStatus.NEW);
+        Epic epic = taskManager.createEpic("Эпик", "Описание");
+        taskManager.createEpic("Пустой эпик", "Описание");
+        Subtask subtask1 = taskManager.createSubtask("Подзадача 1", "Описание", TaskStatus.NEW, epic.getId());
+        taskManager.createSubtask("Подзадача 2", "Описание", TaskStatus.DONE, epic.getId());
+        taskManager.createSubtask("Подзадача 3", "Описание", TaskStatus.DONE, epic.getId());
+        taskManager.createSubtask("Подзадача 4", "Описание", TaskStatus.DONE, epic.getId());
+
+        taskManager.updateTask(new Task("Задача 2", "Описание", task.getId(), TaskStatus.DONE));
+        taskManager.updateSubtask(new Subtask("Подзадача 1", "Описание", subtask1.getId(), TaskStatus.IN_PROGRESS,
+                epic.getId()));
+
+        StatusCounts tasks = taskManager.getStatusCounts(TaskType.TASK);
+        assertEquals(1, tasks.get(TaskStatus.NEW));
+        assertEquals(1, tasks.get(TaskStatus.DONE));
+        StatusCounts epics = taskManager.getStatusCounts(TaskType.EPIC);
+        assertEquals(1, epics.get(TaskStatus.NEW));
+        assertEquals(1, epics.get(TaskStatus.IN_PROGRESS));
+        StatusCounts progress = taskManager.getEpicProgress(epic.getId());
+        assertEquals(progress, taskManager.getStatusCounts(TaskType.SUBTASK));
+        assertEquals(4, progress.getTotal());
+        assertEquals(75.0, progress.getPercentDone());
+        assertNull(taskManager.getEpicProgress(task.getId()));
+
+        taskManager.deleteAllSubtasks();
+        assertEquals(0, taskManager.getStatusCounts(TaskType.SUBTASK).getTotal());
+        assertEquals(2, taskManager.getStatusCounts(TaskType.EPIC).get(TaskStatus.NEW));
+        assertEquals(0.0, taskManager.getEpicProgress(epic.getId()).getPercentDone());
+    }
 }